@@ -0,0 +1,48 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.FastHashCodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость генерации кода: SHA-256 ({@link CodeGeneratorImpl}) против быстрого хэша с ключом.
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=CodeGenerationBenchmark
+ * Для fastHash gc.alloc.rate.norm - только сам код (String, его массив и ShortCode).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodeGenerationBenchmark {
+
+    private final Url url = new Url("https://example.com/articles/2026/10/how-to-benchmark-code-generators");
+    private final UserId userId = UserId.generate();
+    private final CodeGeneratorImpl sha256 = new CodeGeneratorImpl();
+    private final FastHashCodeGenerator fastHash = new FastHashCodeGenerator();
+
+    @Benchmark
+    public ShortCode sha256() {
+        return sha256.generate(url, userId, 6);
+    }
+
+    @Benchmark
+    public ShortCode fastHash() {
+        return fastHash.generate(url, userId, 6);
+    }
+}
@@ -0,0 +1,106 @@
+package com.urlshortener.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.FilteredUrlRepository;
+import com.urlshortener.infrastructure.utils.AsciiCharSequence;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Стоимость перехода: быстрый resolve по строке и по байтам против redirect через ShortCode.
+ *
+ * Запуск (с профилем выделения памяти): mvn -Pbenchmark test-compile exec:exec
+ * Для resolve gc.alloc.rate.norm должен быть около 0 B/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolveBenchmark {
+
+    private static final String CODE = "HOT001";
+
+    private Path directory;
+    private FileUrlRepository storage;
+    private UrlShortenerServiceImpl service;
+    private byte[] request;
+    private AsciiCharSequence requestCode;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("resolve-benchmark");
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        Config config = Config.createDefault();
+        config.setStorageFile(directory.resolve("links.json").toString());
+
+        storage = new FileUrlRepository(objectMapper, config);
+        FilteredUrlRepository repository = new FilteredUrlRepository(storage);
+        UserId userId = UserId.generate();
+        for (int i = 0; i < 10_000; i++) {
+            repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://example.com/" + i),
+                    new ShortCode(String.format("CD%04d", i)), userId, LocalDateTime.now().plusDays(1), 100, System.currentTimeMillis()));
+        }
+        repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://example.com/hot"),
+                new ShortCode(CODE), userId, LocalDateTime.now().plusDays(1), Integer.MAX_VALUE, System.currentTimeMillis()));
+
+        service = new UrlShortenerServiceImpl(repository, new CodeGeneratorImpl(), new UrlValidatorImpl(),
+                new SystemDateTimeProvider(), 24, 100, 6, 365);
+        request = ("GET /" + CODE + " HTTP/1.1").getBytes(StandardCharsets.US_ASCII);
+        requestCode = new AsciiCharSequence();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        storage.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Url resolveString() {
+        return service.resolve(CODE);
+    }
+
+    @Benchmark
+    public Url resolveBytes() {
+        return service.resolve(requestCode.wrap(request, 5, CODE.length()));
+    }
+
+    @Benchmark
+    public Url redirect() {
+        return service.redirect(new ShortCode(CODE));
+    }
+}
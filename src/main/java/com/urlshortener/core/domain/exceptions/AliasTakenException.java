@@ -0,0 +1,20 @@
+package com.urlshortener.core.domain.exceptions;
+
+import java.util.List;
+
+/**
+ * Исключение: псевдоним уже занят; содержит свободные варианты
+ */
+public class AliasTakenException extends DomainException {
+    private final List<String> suggestions;
+
+    public AliasTakenException(String alias, List<String> suggestions) {
+        super("Псевдоним '" + alias + "' уже занят" +
+                (suggestions.isEmpty() ? "" : ". Свободные варианты: " + String.join(", ", suggestions)));
+        this.suggestions = List.copyOf(suggestions);
+    }
+
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
+}
@@ -7,4 +7,12 @@ public abstract class DomainException extends RuntimeException {
     public DomainException(String message) {
         super(message);
     }
+
+    /**
+     * Исключение без стека вызовов: для частых ожидаемых ошибок, где стек не нужен,
+     * а его захват дороже самой проверки
+     */
+    protected DomainException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
\ No newline at end of file
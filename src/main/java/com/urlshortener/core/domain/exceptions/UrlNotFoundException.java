@@ -2,9 +2,12 @@ package com.urlshortener.core.domain.exceptions;
 
 /**
  * Исключение: ссылка не найдена
+ *
+ * Создается без стека вызовов - несуществующие коды постоянно перебирают боты,
+ * и место возникновения ошибки всегда одно и то же.
  */
 public class UrlNotFoundException extends DomainException {
     public UrlNotFoundException(String shortCode) {
-        super("URL не найдено с данном коротким кодом: " + shortCode);
+        super("URL не найдено с данном коротким кодом: " + shortCode, false);
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.urlshortener.core.domain.models;
+
+/**
+ * Итог попытки засчитать переход по ссылке ({@link ShortenedUrl#claimClick(long)})
+ */
+public enum ClickClaim {
+    /**
+     * Переход засчитан
+     */
+    GRANTED("Переход засчитан"),
+
+    /**
+     * Лимит переходов исчерпан
+     */
+    EXHAUSTED("Лимит переходов исчерпан"),
+
+    /**
+     * Срок действия ссылки истек
+     */
+    EXPIRED("Срок действия ссылки истек"),
+
+    /**
+     * Ссылка заблокирована
+     */
+    BLOCKED("Ссылка заблокирована");
+
+    private final String message;
+
+    ClickClaim(String message) {
+        this.message = message;
+    }
+
+    public boolean isGranted() {
+        return this == GRANTED;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -3,12 +3,16 @@ package com.urlshortener.core.domain.models;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * Конфигурация приложения
  */
 public class Config {
+    private static final List<String> DEFAULT_RESERVED_WORDS =
+            List.of("admin", "api", "help", "login", "logout", "static", "stats", "www");
+
     @JsonProperty("baseUrl")
     private String baseUrl;
 
@@ -24,18 +28,165 @@ public class Config {
     @JsonProperty("storageFile")
     private String storageFile;
 
+    @JsonProperty("codeGenerator")
+    private String codeGenerator = "HASH";
+
+    @JsonProperty("codeSequenceFile")
+    private String codeSequenceFile = "data/code_sequence.properties";
+
+    @JsonProperty("codeReserveSize")
+    private int codeReserveSize = 1000;
+
+    @JsonProperty("codeLeasePrefetchBlocks")
+    private int codeLeasePrefetchBlocks = 4;
+
+    @JsonProperty("codeNodeId")
+    private int codeNodeId = 0;
+
+    @JsonProperty("codeNodeBits")
+    private int codeNodeBits = 4;
+
+    @JsonProperty("codeSequenceBits")
+    private int codeSequenceBits = 8;
+
+    @JsonProperty("codeLifetimeYears")
+    private int codeLifetimeYears = 10;
+
+    @JsonProperty("codeAdaptiveLength")
+    private boolean codeAdaptiveLength = true;
+
+    @JsonProperty("codeMaxLoadFactor")
+    private double codeMaxLoadFactor = 0.1;
+
+    @JsonProperty("codeMaxRetries")
+    private int codeMaxRetries = 3;
+
+    @JsonProperty("shortenMaxAttempts")
+    private int shortenMaxAttempts = 5;
+
+    @JsonProperty("aliasEnabled")
+    private boolean aliasEnabled = true;
+
+    @JsonProperty("aliasMinLength")
+    private int aliasMinLength = 3;
+
+    @JsonProperty("aliasMaxLength")
+    private int aliasMaxLength = 32;
+
+    @JsonProperty("aliasSeparators")
+    private String aliasSeparators = "-_";
+
+    @JsonProperty("aliasReservedWords")
+    private List<String> aliasReservedWords = DEFAULT_RESERVED_WORDS;
+
+    @JsonProperty("storageBackend")
+    private String storageBackend = "FILE";
+
+    @JsonProperty("databaseFile")
+    private String databaseFile = "data/url_shortener_db";
+
+    @JsonProperty("databaseFlushIntervalMs")
+    private int databaseFlushIntervalMs = 50;
+
+    @JsonProperty("clickQueueCapacity")
+    private int clickQueueCapacity = 65536;
+
+    @JsonProperty("clickFlushIntervalMs")
+    private int clickFlushIntervalMs = 10;
+
+    @JsonProperty("clickBackpressure")
+    private String clickBackpressure = "CALLER_RUNS";
+
+    @JsonProperty("cacheMaxEntries")
+    private int cacheMaxEntries = 10000;
+
+    @JsonProperty("cacheMaxBytes")
+    private long cacheMaxBytes = 0;
+
+    @JsonProperty("lookupFilterEnabled")
+    private boolean lookupFilterEnabled = true;
+
+    @JsonProperty("storageShards")
+    private int storageShards = 1;
+
+    @JsonProperty("expiryPartitionHours")
+    private int expiryPartitionHours = 0;
+
+    @JsonProperty("walFsyncPolicy")
+    private String walFsyncPolicy = "INTERVAL";
+
+    @JsonProperty("walFsyncIntervalMs")
+    private int walFsyncIntervalMs = 10;
+
+    @JsonProperty("walFsyncBatchRecords")
+    private int walFsyncBatchRecords = 256;
+
+    @JsonProperty("walSyncCommit")
+    private boolean walSyncCommit = false;
+
+    @JsonProperty("snapshotFormat")
+    private String snapshotFormat = "JSON";
+
+    @JsonProperty("snapshotLoadThreads")
+    private int snapshotLoadThreads = 0;
+
+    @JsonProperty("snapshotIntervalSeconds")
+    private int snapshotIntervalSeconds = 30;
+
+    @JsonProperty("clockTickMillis")
+    private long clockTickMillis = 0;
+
     @JsonProperty("cleanupIntervalMinutes")
     private int cleanupIntervalMinutes = 60;
 
     @JsonProperty("enableAutoRedirect")
     private boolean enableAutoRedirect = true;
 
+    @JsonProperty("httpEnabled")
+    private boolean httpEnabled = false;
+
+    @JsonProperty("httpPort")
+    private int httpPort = 8080;
+
+    @JsonProperty("httpRedirectStatus")
+    private int httpRedirectStatus = 302;
+
+    @JsonProperty("httpKeepAlive")
+    private boolean httpKeepAlive = true;
+
+    @JsonProperty("httpIdleTimeoutSeconds")
+    private int httpIdleTimeoutSeconds = 30;
+
+    @JsonProperty("httpMaxConnections")
+    private int httpMaxConnections = 1000;
+
+    @JsonProperty("httpVirtualThreads")
+    private boolean httpVirtualThreads = true;
+
+    @JsonProperty("nioEnabled")
+    private boolean nioEnabled = false;
+
+    @JsonProperty("nioPort")
+    private int nioPort = 8081;
+
+    @JsonProperty("nioEventLoops")
+    private int nioEventLoops = 0;
+
+    @JsonProperty("nioResponseCacheEntries")
+    private int nioResponseCacheEntries = 100000;
+
     @JsonProperty("dateTimeFormat")
     private String dateTimeFormat = "yyyy-MM-dd HH:mm";
 
     @JsonProperty("maxTTLDays")
     private int maxTTLDays = 365;
 
+    @JsonProperty("walEnabled")
+    private boolean walEnabled = true;
+
+    @JsonProperty("walCheckpointRecords")
+    private int walCheckpointRecords = 10000;
+
     public Config() {}
 
     // Getters and Setters
@@ -79,6 +230,294 @@ public class Config {
         this.storageFile = storageFile;
     }
 
+    public String getCodeGenerator() {
+        return codeGenerator;
+    }
+
+    public void setCodeGenerator(String codeGenerator) {
+        this.codeGenerator = codeGenerator;
+    }
+
+    public String getCodeSequenceFile() {
+        return codeSequenceFile;
+    }
+
+    public void setCodeSequenceFile(String codeSequenceFile) {
+        this.codeSequenceFile = codeSequenceFile;
+    }
+
+    public int getCodeReserveSize() {
+        return codeReserveSize;
+    }
+
+    public void setCodeReserveSize(int codeReserveSize) {
+        this.codeReserveSize = codeReserveSize;
+    }
+
+    public int getCodeLeasePrefetchBlocks() {
+        return codeLeasePrefetchBlocks;
+    }
+
+    public void setCodeLeasePrefetchBlocks(int codeLeasePrefetchBlocks) {
+        this.codeLeasePrefetchBlocks = codeLeasePrefetchBlocks;
+    }
+
+    public int getCodeNodeId() {
+        return codeNodeId;
+    }
+
+    public void setCodeNodeId(int codeNodeId) {
+        this.codeNodeId = codeNodeId;
+    }
+
+    public int getCodeNodeBits() {
+        return codeNodeBits;
+    }
+
+    public void setCodeNodeBits(int codeNodeBits) {
+        this.codeNodeBits = codeNodeBits;
+    }
+
+    public int getCodeSequenceBits() {
+        return codeSequenceBits;
+    }
+
+    public void setCodeSequenceBits(int codeSequenceBits) {
+        this.codeSequenceBits = codeSequenceBits;
+    }
+
+    public int getCodeLifetimeYears() {
+        return codeLifetimeYears;
+    }
+
+    public void setCodeLifetimeYears(int codeLifetimeYears) {
+        this.codeLifetimeYears = codeLifetimeYears;
+    }
+
+    public boolean isCodeAdaptiveLength() {
+        return codeAdaptiveLength;
+    }
+
+    public void setCodeAdaptiveLength(boolean codeAdaptiveLength) {
+        this.codeAdaptiveLength = codeAdaptiveLength;
+    }
+
+    public double getCodeMaxLoadFactor() {
+        return codeMaxLoadFactor;
+    }
+
+    public void setCodeMaxLoadFactor(double codeMaxLoadFactor) {
+        this.codeMaxLoadFactor = codeMaxLoadFactor;
+    }
+
+    public int getCodeMaxRetries() {
+        return codeMaxRetries;
+    }
+
+    public void setCodeMaxRetries(int codeMaxRetries) {
+        this.codeMaxRetries = codeMaxRetries;
+    }
+
+    public int getShortenMaxAttempts() {
+        return shortenMaxAttempts;
+    }
+
+    public void setShortenMaxAttempts(int shortenMaxAttempts) {
+        this.shortenMaxAttempts = shortenMaxAttempts;
+    }
+
+    public boolean isAliasEnabled() {
+        return aliasEnabled;
+    }
+
+    public void setAliasEnabled(boolean aliasEnabled) {
+        this.aliasEnabled = aliasEnabled;
+    }
+
+    public int getAliasMinLength() {
+        return aliasMinLength;
+    }
+
+    public void setAliasMinLength(int aliasMinLength) {
+        this.aliasMinLength = aliasMinLength;
+    }
+
+    public int getAliasMaxLength() {
+        return aliasMaxLength;
+    }
+
+    public void setAliasMaxLength(int aliasMaxLength) {
+        this.aliasMaxLength = aliasMaxLength;
+    }
+
+    public String getAliasSeparators() {
+        return aliasSeparators;
+    }
+
+    public void setAliasSeparators(String aliasSeparators) {
+        this.aliasSeparators = aliasSeparators;
+    }
+
+    public List<String> getAliasReservedWords() {
+        return aliasReservedWords;
+    }
+
+    public void setAliasReservedWords(List<String> aliasReservedWords) {
+        this.aliasReservedWords = aliasReservedWords;
+    }
+
+    public String getStorageBackend() {
+        return storageBackend;
+    }
+
+    public void setStorageBackend(String storageBackend) {
+        this.storageBackend = storageBackend;
+    }
+
+    public String getDatabaseFile() {
+        return databaseFile;
+    }
+
+    public void setDatabaseFile(String databaseFile) {
+        this.databaseFile = databaseFile;
+    }
+
+    public int getDatabaseFlushIntervalMs() {
+        return databaseFlushIntervalMs;
+    }
+
+    public void setDatabaseFlushIntervalMs(int databaseFlushIntervalMs) {
+        this.databaseFlushIntervalMs = databaseFlushIntervalMs;
+    }
+
+    public int getClickQueueCapacity() {
+        return clickQueueCapacity;
+    }
+
+    public void setClickQueueCapacity(int clickQueueCapacity) {
+        this.clickQueueCapacity = clickQueueCapacity;
+    }
+
+    public int getClickFlushIntervalMs() {
+        return clickFlushIntervalMs;
+    }
+
+    public void setClickFlushIntervalMs(int clickFlushIntervalMs) {
+        this.clickFlushIntervalMs = clickFlushIntervalMs;
+    }
+
+    public String getClickBackpressure() {
+        return clickBackpressure;
+    }
+
+    public void setClickBackpressure(String clickBackpressure) {
+        this.clickBackpressure = clickBackpressure;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public void setCacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    public boolean isLookupFilterEnabled() {
+        return lookupFilterEnabled;
+    }
+
+    public void setLookupFilterEnabled(boolean lookupFilterEnabled) {
+        this.lookupFilterEnabled = lookupFilterEnabled;
+    }
+
+    public int getStorageShards() {
+        return storageShards;
+    }
+
+    public void setStorageShards(int storageShards) {
+        this.storageShards = storageShards;
+    }
+
+    public int getExpiryPartitionHours() {
+        return expiryPartitionHours;
+    }
+
+    public void setExpiryPartitionHours(int expiryPartitionHours) {
+        this.expiryPartitionHours = expiryPartitionHours;
+    }
+
+    public String getWalFsyncPolicy() {
+        return walFsyncPolicy;
+    }
+
+    public void setWalFsyncPolicy(String walFsyncPolicy) {
+        this.walFsyncPolicy = walFsyncPolicy;
+    }
+
+    public int getWalFsyncIntervalMs() {
+        return walFsyncIntervalMs;
+    }
+
+    public void setWalFsyncIntervalMs(int walFsyncIntervalMs) {
+        this.walFsyncIntervalMs = walFsyncIntervalMs;
+    }
+
+    public int getWalFsyncBatchRecords() {
+        return walFsyncBatchRecords;
+    }
+
+    public void setWalFsyncBatchRecords(int walFsyncBatchRecords) {
+        this.walFsyncBatchRecords = walFsyncBatchRecords;
+    }
+
+    public boolean isWalSyncCommit() {
+        return walSyncCommit;
+    }
+
+    public void setWalSyncCommit(boolean walSyncCommit) {
+        this.walSyncCommit = walSyncCommit;
+    }
+
+    public String getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public void setSnapshotFormat(String snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    public int getSnapshotLoadThreads() {
+        return snapshotLoadThreads;
+    }
+
+    public void setSnapshotLoadThreads(int snapshotLoadThreads) {
+        this.snapshotLoadThreads = snapshotLoadThreads;
+    }
+
+    public int getSnapshotIntervalSeconds() {
+        return snapshotIntervalSeconds;
+    }
+
+    public void setSnapshotIntervalSeconds(int snapshotIntervalSeconds) {
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    }
+
+    public long getClockTickMillis() {
+        return clockTickMillis;
+    }
+
+    public void setClockTickMillis(long clockTickMillis) {
+        this.clockTickMillis = clockTickMillis;
+    }
+
     public int getCleanupIntervalMinutes() {
         return cleanupIntervalMinutes;
     }
@@ -95,6 +534,94 @@ public class Config {
         this.enableAutoRedirect = enableAutoRedirect;
     }
 
+    public boolean isHttpEnabled() {
+        return httpEnabled;
+    }
+
+    public void setHttpEnabled(boolean httpEnabled) {
+        this.httpEnabled = httpEnabled;
+    }
+
+    public int getHttpPort() {
+        return httpPort;
+    }
+
+    public void setHttpPort(int httpPort) {
+        this.httpPort = httpPort;
+    }
+
+    public int getHttpRedirectStatus() {
+        return httpRedirectStatus;
+    }
+
+    public void setHttpRedirectStatus(int httpRedirectStatus) {
+        this.httpRedirectStatus = httpRedirectStatus;
+    }
+
+    public boolean isHttpKeepAlive() {
+        return httpKeepAlive;
+    }
+
+    public void setHttpKeepAlive(boolean httpKeepAlive) {
+        this.httpKeepAlive = httpKeepAlive;
+    }
+
+    public int getHttpIdleTimeoutSeconds() {
+        return httpIdleTimeoutSeconds;
+    }
+
+    public void setHttpIdleTimeoutSeconds(int httpIdleTimeoutSeconds) {
+        this.httpIdleTimeoutSeconds = httpIdleTimeoutSeconds;
+    }
+
+    public int getHttpMaxConnections() {
+        return httpMaxConnections;
+    }
+
+    public void setHttpMaxConnections(int httpMaxConnections) {
+        this.httpMaxConnections = httpMaxConnections;
+    }
+
+    public boolean isHttpVirtualThreads() {
+        return httpVirtualThreads;
+    }
+
+    public void setHttpVirtualThreads(boolean httpVirtualThreads) {
+        this.httpVirtualThreads = httpVirtualThreads;
+    }
+
+    public boolean isNioEnabled() {
+        return nioEnabled;
+    }
+
+    public void setNioEnabled(boolean nioEnabled) {
+        this.nioEnabled = nioEnabled;
+    }
+
+    public int getNioPort() {
+        return nioPort;
+    }
+
+    public void setNioPort(int nioPort) {
+        this.nioPort = nioPort;
+    }
+
+    public int getNioEventLoops() {
+        return nioEventLoops;
+    }
+
+    public void setNioEventLoops(int nioEventLoops) {
+        this.nioEventLoops = nioEventLoops;
+    }
+
+    public int getNioResponseCacheEntries() {
+        return nioResponseCacheEntries;
+    }
+
+    public void setNioResponseCacheEntries(int nioResponseCacheEntries) {
+        this.nioResponseCacheEntries = nioResponseCacheEntries;
+    }
+
     public String getDateTimeFormat() {
         return dateTimeFormat;
     }
@@ -111,6 +638,22 @@ public class Config {
         this.maxTTLDays = maxTTLDays;
     }
 
+    public boolean isWalEnabled() {
+        return walEnabled;
+    }
+
+    public void setWalEnabled(boolean walEnabled) {
+        this.walEnabled = walEnabled;
+    }
+
+    public int getWalCheckpointRecords() {
+        return walCheckpointRecords;
+    }
+
+    public void setWalCheckpointRecords(int walCheckpointRecords) {
+        this.walCheckpointRecords = walCheckpointRecords;
+    }
+
     public static Config createDefault() {
         Config config = new Config();
         config.setBaseUrl("click.by/");
@@ -118,10 +661,59 @@ public class Config {
         config.setDefaultMaxClicks(100);
         config.setShortCodeLength(6);
         config.setStorageFile("data/url_shortener_data.json");
+        config.setCodeGenerator("HASH");
+        config.setCodeSequenceFile("data/code_sequence.properties");
+        config.setCodeReserveSize(1000);
+        config.setCodeLeasePrefetchBlocks(4);
+        config.setCodeNodeId(0);
+        config.setCodeNodeBits(4);
+        config.setCodeSequenceBits(8);
+        config.setCodeLifetimeYears(10);
+        config.setCodeAdaptiveLength(true);
+        config.setCodeMaxLoadFactor(0.1);
+        config.setCodeMaxRetries(3);
+        config.setShortenMaxAttempts(5);
+        config.setAliasEnabled(true);
+        config.setAliasMinLength(3);
+        config.setAliasMaxLength(32);
+        config.setAliasSeparators("-_");
+        config.setAliasReservedWords(DEFAULT_RESERVED_WORDS);
+        config.setStorageBackend("FILE");
+        config.setDatabaseFile("data/url_shortener_db");
+        config.setDatabaseFlushIntervalMs(50);
+        config.setClickQueueCapacity(65536);
+        config.setClickFlushIntervalMs(10);
+        config.setClickBackpressure("CALLER_RUNS");
+        config.setCacheMaxEntries(10000);
+        config.setCacheMaxBytes(0);
+        config.setLookupFilterEnabled(true);
+        config.setStorageShards(1);
+        config.setExpiryPartitionHours(0);
+        config.setWalFsyncPolicy("INTERVAL");
+        config.setWalFsyncIntervalMs(10);
+        config.setWalFsyncBatchRecords(256);
+        config.setWalSyncCommit(false);
+        config.setSnapshotFormat("JSON");
+        config.setSnapshotLoadThreads(0);
+        config.setSnapshotIntervalSeconds(30);
+        config.setClockTickMillis(0);
         config.setCleanupIntervalMinutes(60);
         config.setEnableAutoRedirect(true);
+        config.setHttpEnabled(false);
+        config.setHttpPort(8080);
+        config.setHttpRedirectStatus(302);
+        config.setHttpKeepAlive(true);
+        config.setHttpIdleTimeoutSeconds(30);
+        config.setHttpMaxConnections(1000);
+        config.setHttpVirtualThreads(true);
+        config.setNioEnabled(false);
+        config.setNioPort(8081);
+        config.setNioEventLoops(0);
+        config.setNioResponseCacheEntries(100000);
         config.setMaxTTLDays(365);
         config.setDateTimeFormat("yyyy-MM-dd HH:mm");
+        config.setWalEnabled(true);
+        config.setWalCheckpointRecords(10000);
         return config;
     }
 
@@ -135,7 +727,56 @@ public class Config {
                 shortCodeLength == config.shortCodeLength &&
                 cleanupIntervalMinutes == config.cleanupIntervalMinutes &&
                 enableAutoRedirect == config.enableAutoRedirect &&
+                httpEnabled == config.httpEnabled &&
+                httpPort == config.httpPort &&
+                httpRedirectStatus == config.httpRedirectStatus &&
+                httpKeepAlive == config.httpKeepAlive &&
+                httpIdleTimeoutSeconds == config.httpIdleTimeoutSeconds &&
+                httpMaxConnections == config.httpMaxConnections &&
+                httpVirtualThreads == config.httpVirtualThreads &&
+                nioEnabled == config.nioEnabled &&
+                nioPort == config.nioPort &&
+                nioEventLoops == config.nioEventLoops &&
+                nioResponseCacheEntries == config.nioResponseCacheEntries &&
                 maxTTLDays == config.maxTTLDays &&
+                walEnabled == config.walEnabled &&
+                walCheckpointRecords == config.walCheckpointRecords &&
+                walFsyncIntervalMs == config.walFsyncIntervalMs &&
+                walFsyncBatchRecords == config.walFsyncBatchRecords &&
+                walSyncCommit == config.walSyncCommit &&
+                snapshotLoadThreads == config.snapshotLoadThreads &&
+                snapshotIntervalSeconds == config.snapshotIntervalSeconds &&
+                storageShards == config.storageShards &&
+                expiryPartitionHours == config.expiryPartitionHours &&
+                cacheMaxEntries == config.cacheMaxEntries &&
+                cacheMaxBytes == config.cacheMaxBytes &&
+                lookupFilterEnabled == config.lookupFilterEnabled &&
+                clockTickMillis == config.clockTickMillis &&
+                databaseFlushIntervalMs == config.databaseFlushIntervalMs &&
+                clickQueueCapacity == config.clickQueueCapacity &&
+                clickFlushIntervalMs == config.clickFlushIntervalMs &&
+                Objects.equals(clickBackpressure, config.clickBackpressure) &&
+                codeReserveSize == config.codeReserveSize &&
+                codeLeasePrefetchBlocks == config.codeLeasePrefetchBlocks &&
+                codeNodeId == config.codeNodeId &&
+                codeNodeBits == config.codeNodeBits &&
+                codeSequenceBits == config.codeSequenceBits &&
+                codeLifetimeYears == config.codeLifetimeYears &&
+                codeAdaptiveLength == config.codeAdaptiveLength &&
+                Double.compare(codeMaxLoadFactor, config.codeMaxLoadFactor) == 0 &&
+                codeMaxRetries == config.codeMaxRetries &&
+                shortenMaxAttempts == config.shortenMaxAttempts &&
+                aliasEnabled == config.aliasEnabled &&
+                aliasMinLength == config.aliasMinLength &&
+                aliasMaxLength == config.aliasMaxLength &&
+                Objects.equals(aliasSeparators, config.aliasSeparators) &&
+                Objects.equals(aliasReservedWords, config.aliasReservedWords) &&
+                Objects.equals(codeGenerator, config.codeGenerator) &&
+                Objects.equals(codeSequenceFile, config.codeSequenceFile) &&
+                Objects.equals(storageBackend, config.storageBackend) &&
+                Objects.equals(databaseFile, config.databaseFile) &&
+                Objects.equals(snapshotFormat, config.snapshotFormat) &&
+                Objects.equals(walFsyncPolicy, config.walFsyncPolicy) &&
                 Objects.equals(baseUrl, config.baseUrl) &&
                 Objects.equals(storageFile, config.storageFile) &&
                 Objects.equals(dateTimeFormat, config.dateTimeFormat);
@@ -145,7 +786,20 @@ public class Config {
     public int hashCode() {
         return Objects.hash(baseUrl, defaultTTLHours, defaultMaxClicks,
                 shortCodeLength, storageFile, cleanupIntervalMinutes,
-                enableAutoRedirect, dateTimeFormat, maxTTLDays);
+                enableAutoRedirect, dateTimeFormat, maxTTLDays,
+                walEnabled, walCheckpointRecords, walFsyncPolicy,
+                walFsyncIntervalMs, walFsyncBatchRecords, walSyncCommit,
+                snapshotFormat, snapshotLoadThreads, snapshotIntervalSeconds, storageShards,
+                storageBackend, databaseFile, databaseFlushIntervalMs, expiryPartitionHours,
+                cacheMaxEntries, cacheMaxBytes, lookupFilterEnabled, clockTickMillis,
+                clickQueueCapacity, clickFlushIntervalMs, clickBackpressure,
+                httpEnabled, httpPort, httpRedirectStatus, httpKeepAlive,
+                httpIdleTimeoutSeconds, httpMaxConnections, httpVirtualThreads,
+                nioEnabled, nioPort, nioEventLoops, nioResponseCacheEntries,
+                codeGenerator, codeSequenceFile, codeReserveSize, codeLeasePrefetchBlocks,
+                codeNodeId, codeNodeBits, codeSequenceBits, codeLifetimeYears,
+                codeAdaptiveLength, codeMaxLoadFactor, codeMaxRetries, shortenMaxAttempts,
+                aliasEnabled, aliasMinLength, aliasMaxLength, aliasSeparators, aliasReservedWords);
     }
 
     @Override
@@ -0,0 +1,39 @@
+package com.urlshortener.core.domain.models;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Перевод дат ссылок в миллисекунды эпохи и обратно.
+ *
+ * Проверки срока по текущему времени здесь не делаются: сервисы и хранилища получают
+ * DateTimeProvider в конструкторе и передают время явно ({@link ShortenedUrl#canBeAccessedAt(long)},
+ * {@link ShortenedUrl#claimClick(long)}). Системные часы остаются только для даты создания,
+ * которой нет в загружаемой записи.
+ */
+public final class DomainClock {
+
+    private DomainClock() {
+    }
+
+    public static long millis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Текущее время в локальном часовом поясе (для новых дат создания и проверок при вводе)
+     */
+    public static LocalDateTime now() {
+        return toLocalDateTime(millis());
+    }
+
+    // Даты ссылок хранятся в локальном времени, как их возвращает LocalDateTime.now()
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
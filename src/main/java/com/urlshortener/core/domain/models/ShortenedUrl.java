@@ -7,14 +7,38 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
 /**
  * Доменная модель сокращенной ссылки
+ *
+ * Счетчик переходов и признак активности хранятся в одном слове и меняются через CAS:
+ * {@link #claimClick(long)} проверяет лимит и засчитывает переход одним атомарным шагом,
+ * поэтому при параллельных переходах лимит не превышается и переходы не теряются.
+ *
+ * Срок действия хранится в миллисекундах эпохи. Текущее время модель не читает: его передает
+ * вызывающий код по своим часам (DateTimeProvider), и проверка истечения сводится к сравнению двух long.
  */
 public class ShortenedUrl {
+    // Старший бит - ссылка заблокирована, остальные - число переходов
+    private static final int BLOCKED_BIT = Integer.MIN_VALUE;
+    private static final int CLICKS_MASK = Integer.MAX_VALUE;
+    // Срок не задан (в загруженной записи нет expiresAt): такая ссылка не истекает
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final VarHandle CLICK_STATE;
+
+    static {
+        try {
+            CLICK_STATE = MethodHandles.lookup().findVarHandle(ShortenedUrl.class, "clickState", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     @JsonProperty("originalUrl")
     private final Url originalUrl;
 
@@ -28,18 +52,14 @@ public class ShortenedUrl {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private final LocalDateTime createdAt;
 
-    @JsonProperty("expiresAt")
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime expiresAt;
+    // Момент истечения в миллисекундах эпохи; сериализуется как дата через getExpiresAt()
+    private volatile long expiresAtMillis;
 
     @JsonProperty("maxClicks")
     private int maxClicks;
 
-    @JsonProperty("currentClicks")
-    private int currentClicks;
-
-    @JsonProperty("active")
-    private boolean active;
+    // Сериализуется через getCurrentClicks() и isActive()
+    private volatile int clickState;
 
     // Конструктор для Jackson
     public ShortenedUrl(@JsonProperty("originalUrl") Url originalUrl,
@@ -53,17 +73,19 @@ public class ShortenedUrl {
         this.originalUrl = originalUrl;
         this.shortCode = shortCode;
         this.userId = userId;
-        this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
-        this.expiresAt = expiresAt;
+        this.createdAt = createdAt != null ? createdAt : DomainClock.now();
+        this.expiresAtMillis = expiresAt != null ? DomainClock.toEpochMillis(expiresAt) : NO_EXPIRY;
         this.maxClicks = maxClicks;
-        this.currentClicks = currentClicks;
-        this.active = active;
+        this.clickState = packState(currentClicks, active);
     }
 
+    /**
+     * Новая ссылка, созданная в момент nowMillis; срок должен быть позже этого момента
+     */
     public static ShortenedUrl createWithCustomExpiration(Url originalUrl, ShortCode shortCode,
                                                           UserId userId, LocalDateTime expiresAt,
-                                                          int maxClicks) {
-        if (expiresAt.isBefore(LocalDateTime.now())) {
+                                                          int maxClicks, long nowMillis) {
+        if (expiresAt == null || DomainClock.toEpochMillis(expiresAt) < nowMillis) {
             throw new IllegalArgumentException("Дата истечения должна быть в будущем!");
         }
 
@@ -71,7 +93,7 @@ public class ShortenedUrl {
                 originalUrl,
                 shortCode,
                 userId,
-                LocalDateTime.now(),
+                DomainClock.toLocalDateTime(nowMillis),
                 expiresAt,
                 maxClicks,
                 0,
@@ -79,14 +101,48 @@ public class ShortenedUrl {
         );
     }
 
-    @JsonIgnore
-    public boolean isExpired() {
-        return LocalDateTime.now().isAfter(expiresAt);
+    /**
+     * Истек ли срок к моменту nowMillis (миллисекунды эпохи)
+     */
+    public boolean isExpiredAt(long nowMillis) {
+        return nowMillis > expiresAtMillis;
     }
 
-    @JsonIgnore
-    public boolean canBeAccessed() {
-        return active && !isExpired() && currentClicks < maxClicks;
+    /**
+     * Доступна ли ссылка в момент nowMillis; при обходе многих ссылок время читается один раз
+     */
+    public boolean canBeAccessedAt(long nowMillis) {
+        int state = clickState;
+        return (state & BLOCKED_BIT) == 0 && !isExpiredAt(nowMillis) && (state & CLICKS_MASK) < maxClicks;
+    }
+
+    /**
+     * Засчитать переход, если ссылка доступна в момент nowMillis. Проверка и увеличение счетчика -
+     * один CAS, так что при любом числе параллельных переходов засчитывается ровно maxClicks.
+     * Последний разрешенный переход сразу блокирует ссылку.
+     */
+    public ClickClaim claimClick(long nowMillis) {
+        if (isExpiredAt(nowMillis)) {
+            return ClickClaim.EXPIRED;
+        }
+        int state = clickState;
+        while (true) {
+            int clicks = state & CLICKS_MASK;
+            if (clicks >= maxClicks) {
+                return ClickClaim.EXHAUSTED;
+            }
+            if ((state & BLOCKED_BIT) != 0) {
+                return ClickClaim.BLOCKED;
+            }
+            int next = clicks + 1 >= maxClicks ? (clicks + 1) | BLOCKED_BIT : clicks + 1;
+            int witness = (int) CLICK_STATE.compareAndExchange(this, state, next);
+            if (witness == state) {
+                return ClickClaim.GRANTED;
+            }
+            // Проиграли гонку - продолжаем с тем значением, которое увидел CAS
+            state = witness;
+            Thread.onSpinWait();
+        }
     }
 
     @JsonIgnore
@@ -97,25 +153,38 @@ public class ShortenedUrl {
         return baseUrl + shortCode.value();
     }
 
-    @JsonIgnore
-    public long getRemainingHours() {
-        return Math.max(0, ChronoUnit.HOURS.between(LocalDateTime.now(), expiresAt));
+    /**
+     * Сколько полных часов осталось до истечения на момент nowMillis
+     */
+    public long getRemainingHours(long nowMillis) {
+        return Math.max(0, (expiresAtMillis - nowMillis) / MILLIS_PER_HOUR);
     }
 
     @JsonIgnore
     public int getRemainingClicks() {
-        return Math.max(0, maxClicks - currentClicks);
+        return Math.max(0, maxClicks - getCurrentClicks());
     }
 
-    public void incrementClicks() {
-        if (!canBeAccessed()) {
+    public void incrementClicks(long nowMillis) {
+        if (!claimClick(nowMillis).isGranted()) {
             throw new IllegalStateException("Невозможно увеличить количество переходов на несуществующей ссылке!");
         }
+    }
 
-        this.currentClicks++;
-        if (this.currentClicks >= this.maxClicks) {
-            this.active = false;
-        }
+    /**
+     * Восстановить счетчик переходов из журнала
+     */
+    public void restoreClicks(int currentClicks, boolean active) {
+        this.clickState = packState(currentClicks, active);
+    }
+
+    /**
+     * Независимая копия текущего состояния (для записи снимка без блокировки хранилища)
+     */
+    public ShortenedUrl copy() {
+        int state = clickState;
+        return new ShortenedUrl(originalUrl, shortCode, userId, createdAt, getExpiresAt(),
+                maxClicks, state & CLICKS_MASK, (state & BLOCKED_BIT) == 0);
     }
 
     public boolean updateUrl(Url newUrl) {
@@ -126,26 +195,29 @@ public class ShortenedUrl {
         return false;
     }
 
-    public boolean updateExpiration(LocalDateTime newExpiresAt, LocalDateTime maxExpiresAt) {
-        if (newExpiresAt == null || newExpiresAt.isBefore(LocalDateTime.now())) {
+    public boolean updateExpiration(LocalDateTime newExpiresAt, LocalDateTime maxExpiresAt, long nowMillis) {
+        if (newExpiresAt == null || DomainClock.toEpochMillis(newExpiresAt) < nowMillis) {
             return false;
         }
         if (maxExpiresAt != null && newExpiresAt.isAfter(maxExpiresAt)) {
             return false;
         }
-        this.expiresAt = newExpiresAt;
+        this.expiresAtMillis = DomainClock.toEpochMillis(newExpiresAt);
         return true;
     }
 
-    @JsonIgnore
-    public String getStatus() {
-        if (!active) {
+    /**
+     * Состояние ссылки для вывода на момент nowMillis
+     */
+    public String getStatus(long nowMillis) {
+        int state = clickState;
+        if ((state & BLOCKED_BIT) != 0) {
             return "Заблокирована";
         }
-        if (isExpired()) {
+        if (isExpiredAt(nowMillis)) {
             return "Истекла";
         }
-        if (currentClicks >= maxClicks) {
+        if ((state & CLICKS_MASK) >= maxClicks) {
             return "Лимит исчерпан";
         }
         return "Активна";
@@ -168,8 +240,15 @@ public class ShortenedUrl {
         return createdAt;
     }
 
+    @JsonProperty("expiresAt")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
     public LocalDateTime getExpiresAt() {
-        return expiresAt;
+        return expiresAtMillis == NO_EXPIRY ? null : DomainClock.toLocalDateTime(expiresAtMillis);
+    }
+
+    @JsonIgnore
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
     }
 
     public int getMaxClicks() {
@@ -177,24 +256,36 @@ public class ShortenedUrl {
     }
 
 
+    @JsonProperty("currentClicks")
     public int getCurrentClicks() {
-        return currentClicks;
+        return clickState & CLICKS_MASK;
+    }
+
+    @JsonProperty("active")
+    public boolean isActive() {
+        return (clickState & BLOCKED_BIT) == 0;
     }
 
     // Метод для создания копии с обновленными параметрами
     public ShortenedUrl withUpdatedParams(Url newUrl, LocalDateTime newExpiresAt) {
+        int state = clickState;
         return new ShortenedUrl(
                 newUrl != null ? newUrl : this.originalUrl,
                 this.shortCode,
                 this.userId,
                 this.createdAt,
-                newExpiresAt != null ? newExpiresAt : this.expiresAt,
+                newExpiresAt != null ? newExpiresAt : getExpiresAt(),
                 this.maxClicks,
-                this.currentClicks,
-                this.active
+                state & CLICKS_MASK,
+                (state & BLOCKED_BIT) == 0
         );
     }
 
+    private static int packState(int currentClicks, boolean active) {
+        int clicks = Math.max(0, currentClicks);
+        return active ? clicks : clicks | BLOCKED_BIT;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
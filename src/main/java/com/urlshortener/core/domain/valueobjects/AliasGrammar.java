@@ -0,0 +1,96 @@
+package com.urlshortener.core.domain.valueobjects;
+
+/**
+ * Правила для пользовательских псевдонимов ссылок (click.by/summer-sale).
+ *
+ * Псевдоним - латинские буквы, цифры и разделители из заданного набора; начинается
+ * и заканчивается буквой или цифрой, двух разделителей подряд не бывает. Разделители
+ * можно брать только из символов, которые не нужно кодировать в пути URL: "-_.~".
+ */
+public final class AliasGrammar {
+
+    private static final String ALLOWED_SEPARATORS = "-_.~";
+
+    /**
+     * Псевдонимы запрещены - допустимы только сгенерированные коды
+     */
+    public static final AliasGrammar NONE = new AliasGrammar(0, 0, "");
+
+    private final int minLength;
+    private final int maxLength;
+    private final String separators;
+    private final boolean[] separatorChars = new boolean[128];
+
+    public AliasGrammar(int minLength, int maxLength, String separators) {
+        if (maxLength > 0 && (minLength < 1 || minLength > maxLength)) {
+            throw new IllegalArgumentException("Недопустимая длина псевдонимов: от " + minLength + " до " + maxLength);
+        }
+        for (char c : separators.toCharArray()) {
+            if (ALLOWED_SEPARATORS.indexOf(c) < 0) {
+                throw new IllegalArgumentException("Недопустимый разделитель в псевдонимах: '" + c +
+                        "' (можно " + ALLOWED_SEPARATORS + ")");
+            }
+            separatorChars[c] = true;
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.separators = separators;
+    }
+
+    public boolean isEnabled() {
+        return maxLength > 0;
+    }
+
+    /**
+     * Подходит ли последовательность символов под грамматику (без создания объектов)
+     */
+    public boolean matches(CharSequence value) {
+        int length = value.length();
+        if (length == 0 || length < minLength || length > maxLength
+                || !ShortCode.isCodeChar(value.charAt(0)) || !ShortCode.isCodeChar(value.charAt(length - 1))) {
+            return false;
+        }
+        boolean previousSeparator = false;
+        for (int i = 1; i < length - 1; i++) {
+            char c = value.charAt(i);
+            if (ShortCode.isCodeChar(c)) {
+                previousSeparator = false;
+            } else if (c < separatorChars.length && separatorChars[c] && !previousSeparator) {
+                previousSeparator = true;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isSeparator(char c) {
+        return c < separatorChars.length && separatorChars[c];
+    }
+
+    public int getMinLength() {
+        return minLength;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public String getSeparators() {
+        return separators;
+    }
+
+    /**
+     * Правила словами - для сообщений об ошибках
+     */
+    public String describe() {
+        if (!isEnabled()) {
+            return "3-10 латинских букв и цифр";
+        }
+        String rule = "от " + minLength + " до " + maxLength + " латинских букв и цифр";
+        if (separators.isEmpty()) {
+            return rule;
+        }
+        return rule + " с разделителями '" + separators + "' (не в начале, не в конце и не два подряд)";
+    }
+}
@@ -5,9 +5,28 @@ import com.fasterxml.jackson.annotation.JsonValue;
 import java.util.Objects;
 
 /**
- * Value Object для короткого кода ссылки
+ * Value Object для короткого кода ссылки.
+ *
+ * Сгенерированные коды - 3-10 латинских букв и цифр; их проверка идет первой и не зависит
+ * от настроек. Пользовательские псевдонимы (click.by/summer-sale) проверяются по
+ * {@link AliasGrammar}, только если код не подошел под формат сгенерированных.
  */
 public final class ShortCode {
+    public static final int MIN_LENGTH = 3;
+    public static final int MAX_LENGTH = 10;
+
+    // Допустимые символы кода (латинские буквы и цифры) - проверка по таблице вместо регулярного выражения
+    private static final boolean[] CODE_CHARS = new boolean[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) CODE_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) CODE_CHARS[c] = true;
+        for (char c = 'a'; c <= 'z'; c++) CODE_CHARS[c] = true;
+    }
+
+    // Грамматика псевдонимов задается при запуске; по умолчанию псевдонимы запрещены
+    private static volatile AliasGrammar aliasGrammar = AliasGrammar.NONE;
+
     private final String value;
 
     @JsonCreator
@@ -20,14 +39,59 @@ public final class ShortCode {
         if (value == null || value.trim().isEmpty()) {
             throw new IllegalArgumentException("Короткий код не может быть пустым");
         }
-        if (value.length() < 3 || value.length() > 10) {
+        if (hasGeneratedFormat(value) || aliasGrammar.matches(value)) {
+            return;
+        }
+        if (aliasGrammar.isEnabled()) {
+            throw new IllegalArgumentException("Короткий код должен содержать " + aliasGrammar.describe());
+        }
+        if (value.length() < MIN_LENGTH || value.length() > MAX_LENGTH) {
             throw new IllegalArgumentException("Короткий код должен содержать 3-10 символов");
         }
-        if (!value.matches("^[A-Za-z0-9]+$")) {
+        if (!hasOnlyCodeChars(value)) {
             throw new IllegalArgumentException("Короткий код должен содержать только латинские буквы а также цифры");
         }
     }
 
+    /**
+     * Подходит ли последовательность символов под формат кода (без создания объектов)
+     */
+    public static boolean isValid(CharSequence value) {
+        return value != null && (hasGeneratedFormat(value) || aliasGrammar.matches(value));
+    }
+
+    /**
+     * Формат сгенерированных кодов: 3-10 латинских букв и цифр
+     */
+    public static boolean hasGeneratedFormat(CharSequence value) {
+        return value.length() >= MIN_LENGTH && value.length() <= MAX_LENGTH
+                && hasOnlyCodeChars(value);
+    }
+
+    /**
+     * Разрешить псевдонимы по этой грамматике ({@link AliasGrammar#NONE} - запретить)
+     */
+    public static void useAliasGrammar(AliasGrammar grammar) {
+        aliasGrammar = grammar;
+    }
+
+    public static AliasGrammar aliasGrammar() {
+        return aliasGrammar;
+    }
+
+    static boolean isCodeChar(char c) {
+        return c < CODE_CHARS.length && CODE_CHARS[c];
+    }
+
+    private static boolean hasOnlyCodeChars(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isCodeChar(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @JsonValue
     public String value() {
         return value;
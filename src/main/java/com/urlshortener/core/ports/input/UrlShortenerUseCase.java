@@ -40,11 +40,44 @@ public interface UrlShortenerUseCase {
     ShortenedUrl shortenUrlWithExpirationAndClicks(Url originalUrl, UserId userId,
                                                    LocalDateTime expiresAt, int maxClicks);
 
+    /**
+     * Создать короткую ссылку с выбранным псевдонимом (click.by/summer-sale) и параметрами по умолчанию
+     */
+    ShortenedUrl shortenUrlWithAlias(Url originalUrl, UserId userId, String alias);
+
+    /**
+     * Создать короткую ссылку с псевдонимом, датой истечения и ограничением переходов
+     */
+    ShortenedUrl shortenUrlWithAlias(Url originalUrl, UserId userId, String alias,
+                                     LocalDateTime expiresAt, int maxClicks);
+
+    /**
+     * Можно ли занять псевдоним: подходит под грамматику, не зарезервирован и свободен
+     */
+    boolean isAliasAvailable(String alias);
+
+    /**
+     * Свободные варианты псевдонима (summer-sale-2, summer-sale-3...)
+     */
+    List<String> suggestAliases(String alias);
+
     /**
      * Перенаправить по короткому коду
      */
     Url redirect(ShortCode shortCode);
 
+    /**
+     * Найти целевой URL, не засчитывая переход (HEAD-запросы, предпросмотр ссылок, проверки доступности).
+     * Ошибки те же, что у {@link #redirect}
+     */
+    Url peek(ShortCode shortCode);
+
+    /**
+     * Быстрый переход по коду без создания объектов: проверяет формат, находит ссылку и засчитывает
+     * переход. Возвращает целевой URL или null, если переход невозможен (причину дает {@link #redirect})
+     */
+    Url resolve(CharSequence shortCode);
+
     /**
      * Получить информацию о ссылке
      */
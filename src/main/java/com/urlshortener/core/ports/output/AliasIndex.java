@@ -0,0 +1,34 @@
+package com.urlshortener.core.ports.output;
+
+import java.util.List;
+
+/**
+ * Выходной порт для учета пользовательских псевдонимов и зарезервированных слов
+ */
+public interface AliasIndex {
+
+    /**
+     * Записан ли псевдоним как занятый (точное совпадение)
+     */
+    boolean isTaken(CharSequence alias);
+
+    /**
+     * Запрещен ли псевдоним как зарезервированное слово (без учета регистра)
+     */
+    boolean isReserved(CharSequence alias);
+
+    /**
+     * Отметить псевдоним занятым
+     */
+    void add(String alias);
+
+    /**
+     * Освободить псевдоним
+     */
+    void remove(String alias);
+
+    /**
+     * До limit вариантов псевдонима, которые не заняты и не зарезервированы
+     */
+    List<String> suggest(String alias, int limit);
+}
@@ -0,0 +1,32 @@
+package com.urlshortener.core.ports.output;
+
+import com.urlshortener.core.domain.models.ShortenedUrl;
+
+import java.util.Map;
+
+/**
+ * Выходной порт для сохранения засчитанных переходов.
+ *
+ * Переход уже засчитан ({@link UrlRepository#claimClick(ShortenedUrl, long)}); реализация решает,
+ * когда записать счетчик в хранилище - сразу или позже, пачкой.
+ */
+public interface ClickRecorder {
+
+    /**
+     * Записать (или поставить в очередь на запись) счетчик переходов ссылки
+     */
+    void record(ShortenedUrl url);
+
+    /**
+     * Дождаться записи всех переходов, засчитанных до вызова
+     */
+    default void flush() {
+    }
+
+    /**
+     * Показатели очереди записи для статистики; у записи без очереди их нет
+     */
+    default Map<String, Object> getRecorderStats() {
+        return Map.of();
+    }
+}
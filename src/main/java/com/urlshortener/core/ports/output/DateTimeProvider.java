@@ -1,6 +1,7 @@
 package com.urlshortener.core.ports.output;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * Выходной порт для работы с временем (для тестирования)
@@ -12,6 +13,13 @@ public interface DateTimeProvider {
      */
     LocalDateTime now();
 
+    /**
+     * Текущее время в миллисекундах эпохи (для проверок срока без создания дат)
+     */
+    default long currentTimeMillis() {
+        return now().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     /**
      * Текущее время плюс часы
      */
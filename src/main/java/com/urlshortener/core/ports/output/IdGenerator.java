@@ -4,6 +4,8 @@ import com.urlshortener.core.domain.valueobjects.ShortCode;
 import com.urlshortener.core.domain.valueobjects.Url;
 import com.urlshortener.core.domain.valueobjects.UserId;
 
+import java.util.Map;
+
 /**
  * Выходной порт для генерации ID
  */
@@ -19,6 +21,15 @@ public interface IdGenerator {
      */
     ShortCode generate(Url originalUrl, UserId userId, int length);
 
+    /**
+     * Сгенерировать код заданной длины для повторной попытки: другая соль (salt) - другой код
+     * при тех же URL, пользователе и времени. По умолчанию соль не учитывается: так можно генераторам,
+     * у которых каждый вызов и так дает новый код
+     */
+    default ShortCode generate(Url originalUrl, UserId userId, int length, long salt) {
+        return generate(originalUrl, userId, length);
+    }
+
     /**
      * Сгенерировать короткий код для пользователя с проверкой уникальности
      */
@@ -29,4 +40,23 @@ public interface IdGenerator {
      * Проверить валидность кода
      */
     boolean isValid(String code);
+
+    /**
+     * Сколько разных кодов данной длины может выдать генератор (по умолчанию - 62^length)
+     */
+    default long capacity(int length) {
+        long capacity = 1;
+        for (int i = 0; i < length; i++) {
+            capacity = Math.multiplyExact(capacity, 62);
+        }
+        return capacity;
+    }
+
+    /**
+     * Служебные показатели генератора для статистики (например, заполненность пространства кодов);
+     * по умолчанию их нет
+     */
+    default Map<String, Object> getGeneratorStats() {
+        return Map.of();
+    }
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.urlshortener.core.ports.output;
 
+import com.urlshortener.core.domain.models.ClickClaim;
 import com.urlshortener.core.domain.models.ShortenedUrl;
 import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
 import com.urlshortener.core.domain.valueobjects.UserId;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -17,16 +20,56 @@ public interface UrlRepository {
      */
     ShortenedUrl save(ShortenedUrl url);
 
+    /**
+     * Сохранить новую ссылку, только если ее код еще не занят: проверка и запись - один атомарный шаг.
+     * Возвращает false, если ссылка с таким кодом уже есть (она не перезаписывается)
+     */
+    boolean insertIfAbsent(ShortenedUrl url);
+
+    /**
+     * Сохранить изменившийся счетчик переходов ссылки. Запись может прийти с опозданием (очередь
+     * переходов), поэтому счетчик экземпляра, который хранилище уже удалило или заменило новой
+     * версией, не записывается - иначе он вернул бы удаленную ссылку или прежний адрес
+     */
+    default void updateClicks(ShortenedUrl url) {
+        save(url);
+    }
+
+    /**
+     * Засчитать переход по ссылке, найденной в этом хранилище, проверив срок на момент nowMillis.
+     * По умолчанию - CAS в памяти ({@link ShortenedUrl#claimClick(long)}): хранилище отдает один
+     * экземпляр на код. Хранилище, которое на каждое чтение создает новый экземпляр, засчитывает переход у себя
+     */
+    default ClickClaim claimClick(ShortenedUrl url, long nowMillis) {
+        return url.claimClick(nowMillis);
+    }
+
     /**
      * Найти ссылку по короткому коду
      */
     Optional<ShortenedUrl> findByShortCode(ShortCode shortCode);
 
+    /**
+     * Найти ссылку для перехода без промежуточных объектов (Optional, ShortCode); null, если ссылки нет.
+     * Формат кода уже проверен {@link ShortCode#isValid(CharSequence)}
+     */
+    default ShortenedUrl resolve(CharSequence shortCode) {
+        return findByShortCode(new ShortCode(shortCode.toString())).orElse(null);
+    }
+
     /**
      * Найти ссылки пользователя
      */
     List<ShortenedUrl> findByUserId(UserId userId);
 
+    /**
+     * Есть ли у пользователя ссылка на этот URL, доступная в момент nowMillis
+     */
+    default boolean existsActiveByUserIdAndUrl(UserId userId, Url originalUrl, long nowMillis) {
+        return findByUserId(userId).stream()
+                .anyMatch(url -> url.getOriginalUrl().equals(originalUrl) && url.canBeAccessedAt(nowMillis));
+    }
+
     /**
      * Удалить ссылку
      */
@@ -52,8 +95,29 @@ public interface UrlRepository {
      */
     long countExpired();
 
+    /**
+     * Удалить ссылки, истекшие к моменту nowMillis; возвращает число удаленных
+     */
+    default long deleteExpired(long nowMillis) {
+        long removed = 0;
+        for (ShortenedUrl url : findAll()) {
+            if (url.isExpiredAt(nowMillis)) {
+                delete(url.getShortCode());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
     /**
      * Все ссылки (для очистки)
      */
     List<ShortenedUrl> findAll();
+
+    /**
+     * Служебные показатели хранилища для статистики (например, отставание снимка); по умолчанию их нет
+     */
+    default Map<String, Object> getStorageStats() {
+        return Map.of();
+    }
 }
\ No newline at end of file
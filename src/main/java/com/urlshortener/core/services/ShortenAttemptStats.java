@@ -0,0 +1,19 @@
+package com.urlshortener.core.services;
+
+/**
+ * Сколько попыток понадобилось, чтобы подобрать свободный код при создании ссылок
+ *
+ * @param shortened      создано ссылок
+ * @param collisions     сколько раз сгенерированный код оказался занят
+ * @param exhausted      сколько раз свободный код не нашелся за все попытки
+ * @param attemptCounts  attemptCounts[i] - сколько ссылок создано с (i + 1)-й попытки
+ */
+public record ShortenAttemptStats(long shortened, long collisions, long exhausted, long[] attemptCounts) {
+
+    /**
+     * Доля ссылок, которым не хватило первого кода
+     */
+    public double retryRate() {
+        return shortened == 0 ? 0.0 : (double) (shortened - attemptCounts[0]) / shortened;
+    }
+}
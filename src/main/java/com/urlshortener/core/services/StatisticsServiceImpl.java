@@ -3,11 +3,14 @@ package com.urlshortener.core.services;
 import com.urlshortener.core.domain.models.Config;
 import com.urlshortener.core.domain.valueobjects.UserId;
 import com.urlshortener.core.ports.input.StatisticsUseCase;
+import com.urlshortener.core.ports.output.DateTimeProvider;
 import com.urlshortener.core.ports.output.UrlRepository;
 import com.urlshortener.core.ports.output.UserRepository;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Реализация для статистики
@@ -17,13 +20,39 @@ public class StatisticsServiceImpl implements StatisticsUseCase {
     private final UrlRepository urlRepository;
     private final UserRepository userRepository;
     private final Config config;
+    private final DateTimeProvider dateTimeProvider;
+    // Счетчики попыток подбора кода; null - не показывать
+    private final Supplier<ShortenAttemptStats> attemptStats;
+    // Показатели остальных компонентов (очередь переходов и т.п.) - добавляются как есть
+    private final List<Supplier<Map<String, Object>>> componentStats;
 
     public StatisticsServiceImpl(UrlRepository urlRepository,
                                  UserRepository userRepository,
-                                 Config config) {
+                                 Config config,
+                                 DateTimeProvider dateTimeProvider) {
+        this(urlRepository, userRepository, config, dateTimeProvider, null);
+    }
+
+    public StatisticsServiceImpl(UrlRepository urlRepository,
+                                 UserRepository userRepository,
+                                 Config config,
+                                 DateTimeProvider dateTimeProvider,
+                                 Supplier<ShortenAttemptStats> attemptStats) {
+        this(urlRepository, userRepository, config, dateTimeProvider, attemptStats, List.of());
+    }
+
+    public StatisticsServiceImpl(UrlRepository urlRepository,
+                                 UserRepository userRepository,
+                                 Config config,
+                                 DateTimeProvider dateTimeProvider,
+                                 Supplier<ShortenAttemptStats> attemptStats,
+                                 List<Supplier<Map<String, Object>>> componentStats) {
         this.urlRepository = urlRepository;
         this.userRepository = userRepository;
         this.config = config;
+        this.dateTimeProvider = dateTimeProvider;
+        this.attemptStats = attemptStats;
+        this.componentStats = List.copyOf(componentStats);
     }
 
     @Override
@@ -34,6 +63,14 @@ public class StatisticsServiceImpl implements StatisticsUseCase {
         stats.put("totalUsers", userRepository.count());
         stats.put("activeUrls", urlRepository.countActive());
         stats.put("expiredUrls", urlRepository.countExpired());
+        stats.putAll(urlRepository.getStorageStats());
+        if (attemptStats != null) {
+            ShortenAttemptStats attempts = attemptStats.get();
+            stats.put("codeCollisions", attempts.collisions());
+            stats.put("codeExhausted", attempts.exhausted());
+            stats.put("codeRetryRate", attempts.retryRate());
+        }
+        componentStats.forEach(component -> stats.putAll(component.get()));
 
         return stats;
     }
@@ -48,8 +85,9 @@ public class StatisticsServiceImpl implements StatisticsUseCase {
         long totalClicks = userUrls.stream()
                 .mapToInt(url -> url.getCurrentClicks())
                 .sum();
+        long now = dateTimeProvider.currentTimeMillis();
         long activeUrls = userUrls.stream()
-                .filter(url -> url.canBeAccessed())
+                .filter(url -> url.canBeAccessedAt(now))
                 .count();
 
         stats.put("totalUrls", totalUrls);
@@ -1,28 +1,38 @@
 package com.urlshortener.core.services;
 
+import com.urlshortener.core.domain.exceptions.AliasTakenException;
 import com.urlshortener.core.domain.exceptions.PermissionDeniedException;
 import com.urlshortener.core.domain.exceptions.UrlNotFoundException;
 import com.urlshortener.core.domain.exceptions.ValidationException;
+import com.urlshortener.core.domain.models.ClickClaim;
 import com.urlshortener.core.domain.models.ShortenedUrl;
 import com.urlshortener.core.domain.valueobjects.ShortCode;
 import com.urlshortener.core.domain.valueobjects.Url;
 import com.urlshortener.core.domain.valueobjects.UserId;
 import com.urlshortener.core.ports.input.UrlShortenerUseCase;
+import com.urlshortener.core.ports.output.AliasIndex;
+import com.urlshortener.core.ports.output.ClickRecorder;
 import com.urlshortener.core.ports.output.DateTimeProvider;
 import com.urlshortener.core.ports.output.IdGenerator;
 import com.urlshortener.core.ports.output.UrlRepository;
 import com.urlshortener.core.ports.output.UrlValidator;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Реализация для операций с короткими ссылками
  */
 public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
 
+    private static final int DEFAULT_MAX_CODE_ATTEMPTS = 5;
+    private static final int ALIAS_SUGGESTIONS = 3;
+
     private final UrlRepository urlRepository;
+    private final ClickRecorder clickRecorder;
     private final IdGenerator idGenerator;
     private final UrlValidator urlValidator;
     private final DateTimeProvider dateTimeProvider;
@@ -30,8 +40,29 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
     private final int defaultMaxClicks;
     private final int shortCodeLength;
     private final int maxTTLDays;
+    private final int maxCodeAttempts;
+    // null - псевдонимы отключены
+    private final AliasIndex aliasIndex;
+    private final LongAdder codeCollisions = new LongAdder();
+    private final LongAdder codeExhausted = new LongAdder();
+    // attemptCounts[i] - ссылки, созданные с (i + 1)-й попытки
+    private final LongAdder[] attemptCounts;
+
+    public UrlShortenerServiceImpl(UrlRepository urlRepository,
+                                   IdGenerator idGenerator,
+                                   UrlValidator urlValidator,
+                                   DateTimeProvider dateTimeProvider,
+                                   int defaultTTLHours,
+                                   int defaultMaxClicks,
+                                   int shortCodeLength,
+                                   int maxTTLDays) {
+        // Без очереди: счетчик записывается сразу в потоке перехода
+        this(urlRepository, urlRepository::updateClicks, idGenerator, urlValidator, dateTimeProvider,
+                defaultTTLHours, defaultMaxClicks, shortCodeLength, maxTTLDays);
+    }
 
     public UrlShortenerServiceImpl(UrlRepository urlRepository,
+                                   ClickRecorder clickRecorder,
                                    IdGenerator idGenerator,
                                    UrlValidator urlValidator,
                                    DateTimeProvider dateTimeProvider,
@@ -39,7 +70,43 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
                                    int defaultMaxClicks,
                                    int shortCodeLength,
                                    int maxTTLDays) {
+        this(urlRepository, clickRecorder, idGenerator, urlValidator, dateTimeProvider,
+                defaultTTLHours, defaultMaxClicks, shortCodeLength, maxTTLDays, DEFAULT_MAX_CODE_ATTEMPTS);
+    }
+
+    /**
+     * @param maxCodeAttempts сколько кодов пробовать, если сгенерированный код уже занят
+     */
+    public UrlShortenerServiceImpl(UrlRepository urlRepository,
+                                   ClickRecorder clickRecorder,
+                                   IdGenerator idGenerator,
+                                   UrlValidator urlValidator,
+                                   DateTimeProvider dateTimeProvider,
+                                   int defaultTTLHours,
+                                   int defaultMaxClicks,
+                                   int shortCodeLength,
+                                   int maxTTLDays,
+                                   int maxCodeAttempts) {
+        this(urlRepository, clickRecorder, idGenerator, urlValidator, dateTimeProvider,
+                defaultTTLHours, defaultMaxClicks, shortCodeLength, maxTTLDays, maxCodeAttempts, null);
+    }
+
+    /**
+     * @param aliasIndex занятые псевдонимы и зарезервированные слова; null - псевдонимы отключены
+     */
+    public UrlShortenerServiceImpl(UrlRepository urlRepository,
+                                   ClickRecorder clickRecorder,
+                                   IdGenerator idGenerator,
+                                   UrlValidator urlValidator,
+                                   DateTimeProvider dateTimeProvider,
+                                   int defaultTTLHours,
+                                   int defaultMaxClicks,
+                                   int shortCodeLength,
+                                   int maxTTLDays,
+                                   int maxCodeAttempts,
+                                   AliasIndex aliasIndex) {
         this.urlRepository = urlRepository;
+        this.clickRecorder = clickRecorder;
         this.idGenerator = idGenerator;
         this.urlValidator = urlValidator;
         this.dateTimeProvider = dateTimeProvider;
@@ -47,6 +114,12 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
         this.defaultMaxClicks = defaultMaxClicks;
         this.shortCodeLength = shortCodeLength;
         this.maxTTLDays = maxTTLDays;
+        this.maxCodeAttempts = Math.max(1, maxCodeAttempts);
+        this.aliasIndex = aliasIndex;
+        this.attemptCounts = new LongAdder[this.maxCodeAttempts];
+        for (int i = 0; i < attemptCounts.length; i++) {
+            attemptCounts[i] = new LongAdder();
+        }
     }
 
     @Override
@@ -108,20 +181,97 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
         // Проверка на дубликат
         checkForDuplicate(originalUrl, userId);
 
-        // Генерация короткого кода
-        ShortCode shortCode = idGenerator.generate(originalUrl, userId, shortCodeLength);
+        for (int attempt = 1; ; attempt++) {
+            // Генерация короткого кода; номер попытки - соль, так что повтор сразу дает другой код
+            ShortCode shortCode = idGenerator.generate(originalUrl, userId, shortCodeLength, attempt - 1);
+
+            // Создание доменного объекта
+            ShortenedUrl url = ShortenedUrl.createWithCustomExpiration(
+                    originalUrl,
+                    shortCode,
+                    userId,
+                    expiresAt,
+                    maxClicks,
+                    dateTimeProvider.currentTimeMillis()
+            );
+
+            // Сохранение - только если код свободен, чужая ссылка не перезаписывается
+            if (urlRepository.insertIfAbsent(url)) {
+                attemptCounts[attempt - 1].increment();
+                return url;
+            }
+            codeCollisions.increment();
+            if (attempt == maxCodeAttempts) {
+                codeExhausted.increment();
+                throw new IllegalStateException(
+                        "Не удалось подобрать свободный короткий код за " + maxCodeAttempts + " попыток");
+            }
+        }
+    }
+
+    @Override
+    public ShortenedUrl shortenUrlWithAlias(Url originalUrl, UserId userId, String alias) {
+        return shortenUrlWithAlias(originalUrl, userId, alias,
+                dateTimeProvider.now().plusHours(defaultTTLHours), defaultMaxClicks);
+    }
+
+    @Override
+    public ShortenedUrl shortenUrlWithAlias(Url originalUrl, UserId userId, String alias,
+                                            LocalDateTime expiresAt, int maxClicks) {
+        validateUrl(originalUrl.value());
+        validateExpirationDate(expiresAt);
+        validateMaxClicks(maxClicks);
+        ShortCode shortCode = validateAlias(alias);
+
+        checkForDuplicate(originalUrl, userId);
 
-        // Создание доменного объекта
         ShortenedUrl url = ShortenedUrl.createWithCustomExpiration(
                 originalUrl,
                 shortCode,
                 userId,
                 expiresAt,
-                maxClicks
+                maxClicks,
+                dateTimeProvider.currentTimeMillis()
         );
+        // Тот же псевдоним могли занять одновременно - решает атомарная вставка
+        if (!urlRepository.insertIfAbsent(url)) {
+            aliasIndex.add(alias);
+            throw new AliasTakenException(alias, suggestAliases(alias));
+        }
+        aliasIndex.add(alias);
+        return url;
+    }
 
-        // Сохранение
-        return urlRepository.save(url);
+    @Override
+    public boolean isAliasAvailable(String alias) {
+        return aliasIndex != null && ShortCode.isValid(alias) && !aliasIndex.isReserved(alias) && !isTaken(alias);
+    }
+
+    @Override
+    public List<String> suggestAliases(String alias) {
+        if (aliasIndex == null) {
+            return List.of();
+        }
+        List<String> suggestions = new ArrayList<>(ALIAS_SUGGESTIONS);
+        for (String candidate : aliasIndex.suggest(alias, ALIAS_SUGGESTIONS * 2)) {
+            if (suggestions.size() < ALIAS_SUGGESTIONS && !isTaken(candidate)) {
+                suggestions.add(candidate);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Сколько попыток уходит на подбор свободного кода: рост повторов виден раньше, чем рост задержки
+     */
+    public ShortenAttemptStats getAttemptStats() {
+        long[] counts = new long[attemptCounts.length];
+        long shortened = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = attemptCounts[i].sum();
+            shortened += counts[i];
+        }
+        return new ShortenAttemptStats(shortened, codeCollisions.sum(), codeExhausted.sum(), counts);
     }
 
     @Override
@@ -129,23 +279,38 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
         ShortenedUrl url = urlRepository.findByShortCode(shortCode)
                 .orElseThrow(() -> new UrlNotFoundException(shortCode.value()));
 
-        // Проверка доступности ссылки
-        if (!url.canBeAccessed()) {
-            String message;
-            if (url.isExpired()) {
-                message = "Срок действия ссылки истек";
-            } else if (url.getCurrentClicks() >= url.getMaxClicks()) {
-                message = "Лимит переходов исчерпан";
-            } else {
-                message = "Ссылка заблокирована";
-            }
-            throw new IllegalStateException(message);
+        // Проверка доступности и учет перехода - одним атомарным шагом
+        ClickClaim claim = urlRepository.claimClick(url, dateTimeProvider.currentTimeMillis());
+        if (!claim.isGranted()) {
+            throw new IllegalStateException(claim.getMessage());
         }
+        // Переход уже засчитан в памяти - запись счетчика не задерживает ответ
+        clickRecorder.record(url);
 
-        // Увеличиваем счетчик
-        url.incrementClicks();
-        urlRepository.save(url);
+        return url.getOriginalUrl();
+    }
 
+    @Override
+    public Url peek(ShortCode shortCode) {
+        ShortenedUrl url = urlRepository.findByShortCode(shortCode)
+                .orElseThrow(() -> new UrlNotFoundException(shortCode.value()));
+        long now = dateTimeProvider.currentTimeMillis();
+        if (!url.canBeAccessedAt(now)) {
+            throw new IllegalStateException("Ссылка недоступна: " + url.getStatus(now));
+        }
+        return url.getOriginalUrl();
+    }
+
+    @Override
+    public Url resolve(CharSequence shortCode) {
+        if (!ShortCode.isValid(shortCode)) {
+            return null;
+        }
+        ShortenedUrl url = urlRepository.resolve(shortCode);
+        if (url == null || !urlRepository.claimClick(url, dateTimeProvider.currentTimeMillis()).isGranted()) {
+            return null;
+        }
+        clickRecorder.record(url);
         return url.getOriginalUrl();
     }
 
@@ -165,7 +330,12 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
             throw new PermissionDeniedException("У вас нет прав на удаление этой ссылки");
         }
 
+        // Отложенная запись счетчика не должна вернуть удаленную ссылку
+        clickRecorder.flush();
         urlRepository.delete(shortCode);
+        if (aliasIndex != null) {
+            aliasIndex.remove(shortCode.value());
+        }
     }
 
     @Override
@@ -199,6 +369,9 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
             }
         }
 
+        // Отложенные переходы старой версии записываются до ее замены
+        clickRecorder.flush();
+
         // Создаем обновленную версию ссылки
         ShortenedUrl updatedUrl = url.withUpdatedParams(newUrl, newExpiresAt);
 
@@ -229,6 +402,37 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
         }
     }
 
+    private ShortCode validateAlias(String alias) {
+        if (aliasIndex == null) {
+            throw new ValidationException("Псевдонимы отключены");
+        }
+        if (alias == null || !ShortCode.isValid(alias)) {
+            throw new ValidationException("Псевдоним должен содержать " + ShortCode.aliasGrammar().describe());
+        }
+        if (aliasIndex.isReserved(alias)) {
+            throw new ValidationException("Псевдоним '" + alias + "' зарезервирован");
+        }
+        if (isTaken(alias)) {
+            throw new AliasTakenException(alias, suggestAliases(alias));
+        }
+        return new ShortCode(alias);
+    }
+
+    // Код не в формате сгенерированных может принадлежать только псевдониму - тогда достаточно
+    // прохода по дереву. Занятый в дереве псевдоним сверяется с хранилищем: ссылки, удаленные
+    // очисткой просроченных, убираются из дерева при первой же проверке
+    private boolean isTaken(String alias) {
+        boolean indexed = aliasIndex.isTaken(alias);
+        if (!indexed && !ShortCode.hasGeneratedFormat(alias)) {
+            return false;
+        }
+        boolean stored = urlRepository.existsByShortCode(new ShortCode(alias));
+        if (indexed && !stored) {
+            aliasIndex.remove(alias);
+        }
+        return stored;
+    }
+
     private void validateExpirationDate(LocalDateTime expiresAt) {
         if (expiresAt.isBefore(dateTimeProvider.now())) {
             throw new ValidationException("Дата истечения должна быть в будущем");
@@ -262,15 +466,10 @@ public class UrlShortenerServiceImpl implements UrlShortenerUseCase {
     }
 
     private void checkForDuplicate(Url originalUrl, UserId userId) {
-        List<ShortenedUrl> userUrls = urlRepository.findByUserId(userId);
-
-        for (ShortenedUrl existingUrl : userUrls) {
-            if (existingUrl.getOriginalUrl().equals(originalUrl) &&
-                    existingUrl.canBeAccessed()) {
-                throw new ValidationException(
-                        "У вас уже есть активная ссылка для этого URL"
-                );
-            }
+        if (urlRepository.existsActiveByUserIdAndUrl(userId, originalUrl, dateTimeProvider.currentTimeMillis())) {
+            throw new ValidationException(
+                    "У вас уже есть активная ссылка для этого URL"
+            );
         }
     }
 }
\ No newline at end of file
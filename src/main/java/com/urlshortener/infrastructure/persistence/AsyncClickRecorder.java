@@ -0,0 +1,191 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.ports.output.ClickRecorder;
+import com.urlshortener.core.ports.output.UrlRepository;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Запись счетчиков переходов в фоне, пачками.
+ *
+ * Переход засчитывается в памяти до вызова {@link #record}, поэтому поток перехода только
+ * кладет ссылку в кольцевую очередь ({@link MpscRingBuffer}) и сразу отвечает. Поток
+ * "click-recorder" разбирает очередь пачками: несколько переходов по одной ссылке дают
+ * одну запись {@link UrlRepository#updateClicks}, ведь записывается текущее значение счетчика.
+ *
+ * При переполнении очереди действует {@link ClickBackpressure}. {@link #close()} дописывает
+ * все, что осталось в очереди; после закрытия счетчики записываются сразу.
+ */
+public class AsyncClickRecorder implements ClickRecorder, AutoCloseable {
+
+    private static final int MAX_BATCH = 1024;
+
+    private final UrlRepository urlRepository;
+    private final ClickBackpressure backpressure;
+    private final long idleNanos;
+    private final MpscRingBuffer<ShortenedUrl> queue;
+    private final Thread worker;
+    // Переиспользуется потоком записи: ссылки текущей пачки без повторов
+    private final Map<ShortenedUrl, Boolean> batch = new IdentityHashMap<>();
+
+    private volatile boolean running = true;
+    // Сколько переходов из очереди уже записано в хранилище
+    private volatile long completed;
+    private volatile long maxDepth;
+
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long writes;
+    private volatile long batches;
+
+    /**
+     * @param capacity        емкость очереди (округляется до степени двойки)
+     * @param flushIntervalMs пауза потока записи, когда очередь пуста
+     */
+    public AsyncClickRecorder(UrlRepository urlRepository, int capacity,
+                              long flushIntervalMs, ClickBackpressure backpressure) {
+        this.urlRepository = urlRepository;
+        this.backpressure = backpressure;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.queue = new MpscRingBuffer<>(capacity);
+        this.worker = new Thread(this::run, "click-recorder");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void record(ShortenedUrl url) {
+        if (!running) {
+            urlRepository.updateClicks(url);
+            return;
+        }
+        if (queue.offer(url)) {
+            return;
+        }
+        switch (backpressure) {
+            case CALLER_RUNS -> {
+                callerRuns.increment();
+                urlRepository.updateClicks(url);
+            }
+            case DROP -> dropped.increment();
+            case BLOCK -> {
+                while (!queue.offer(url)) {
+                    if (!running) {
+                        urlRepository.updateClicks(url);
+                        return;
+                    }
+                    LockSupport.unpark(worker);
+                    LockSupport.parkNanos(50_000);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        long target = queue.producedCount();
+        while (completed < target && worker.isAlive()) {
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    public ClickQueueStats getStats() {
+        return new ClickQueueStats(queue.size(), maxDepth, queue.producedCount(), completed,
+                writes, batches, callerRuns.sum(), dropped.sum());
+    }
+
+    /**
+     * Глубина очереди и обходы при переполнении для глобальной статистики
+     */
+    @Override
+    public Map<String, Object> getRecorderStats() {
+        ClickQueueStats stats = getStats();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("clickQueueDepth", stats.depth());
+        values.put("clickQueueMaxDepth", stats.maxDepth());
+        values.put("clickQueueCapacity", (long) getCapacity());
+        values.put("clickWrites", stats.writes());
+        values.put("clickCallerRuns", stats.callerRuns());
+        values.put("clickDropped", stats.dropped());
+        return values;
+    }
+
+    /**
+     * Переходов в очереди сейчас
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * Остановить поток записи, дописав всю очередь
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Писатели, успевшие занять место до остановки, публикуют сразу после CAS
+        while (drainBatch() > 0) {
+            // дописываем хвост
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (drainBatch() == 0) {
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+        while (drainBatch() > 0) {
+            // очередь дописывается перед остановкой
+        }
+    }
+
+    // Вызывается только одним потоком: рабочим, а после его остановки - закрывающим
+    private int drainBatch() {
+        int depth = queue.size();
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+        int drained = 0;
+        ShortenedUrl url;
+        while (drained < MAX_BATCH && (url = queue.poll()) != null) {
+            batch.put(url, Boolean.TRUE);
+            drained++;
+        }
+        if (drained == 0) {
+            return 0;
+        }
+        for (ShortenedUrl pending : batch.keySet()) {
+            try {
+                urlRepository.updateClicks(pending);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Ошибка записи переходов " + pending.getShortCode().value() + ": " + e.getMessage());
+            }
+        }
+        writes += batch.size();
+        batches++;
+        batch.clear();
+        completed = queue.consumedCount();
+        return drained;
+    }
+}
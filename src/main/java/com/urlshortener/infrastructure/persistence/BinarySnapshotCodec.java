@@ -0,0 +1,177 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Компактный бинарный формат снимка ссылок.
+ *
+ * Заголовок: magic (4 байта), версия (short), резерв (short), количество записей (long),
+ * первый сегмент журнала, не вошедший в снимок (long, с версии 2).
+ * Запись: createdAt и expiresAt в секундах эпохи (long, у ссылки без срока expiresAt = Long.MAX_VALUE), UUID пользователя (2 x long),
+ * maxClicks и currentClicks (int), active (byte), затем код (длина в 1 байт + ASCII)
+ * и URL (длина в 2 байта + UTF-8). Числа в порядке big-endian.
+ * После записей (с версии 2) идет контрольная сумма {@link SnapshotChecksum} (long).
+ * Снимки версии 1 читаются без проверки.
+ *
+ * Файл читается через {@link FileChannel#map}, поэтому его размер ограничен 2 ГБ.
+ */
+public class BinarySnapshotCodec {
+
+    private static final int MAGIC = 0x55534E50; // "USNP"
+    private static final short VERSION = 2;
+    private static final short LEGACY_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 8;
+
+    public void write(Path file, Collection<ShortenedUrl> urls, long walSegment) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeLong(urls.size());
+            out.writeLong(walSegment);
+
+            long checksum = 0;
+            for (ShortenedUrl url : urls) {
+                writeRecord(out, url);
+                checksum += SnapshotChecksum.of(url);
+            }
+            out.writeLong(checksum);
+        }
+    }
+
+    public SnapshotLoadStats load(Path file, Consumer<ShortenedUrl> sink) throws IOException {
+        long startNanos = System.nanoTime();
+        long loaded = 0;
+        long skipped = 0;
+        long checksum = 0;
+        SnapshotMetadata metadata = null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Бинарный снимок больше 2 ГБ не поддерживается");
+            }
+            if (size < HEADER_SIZE) {
+                throw new IOException("Бинарный снимок поврежден: нет заголовка");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Файл не является бинарным снимком ссылок");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION && version != LEGACY_VERSION) {
+                throw new IOException("Неподдерживаемая версия бинарного снимка: " + version);
+            }
+            buffer.getShort();
+            long count = buffer.getLong();
+            long walSegment = 0;
+            if (version == VERSION) {
+                if (buffer.remaining() < Long.BYTES) {
+                    throw new IOException("Бинарный снимок поврежден: нет заголовка");
+                }
+                walSegment = buffer.getLong();
+            }
+
+            for (long i = 0; i < count; i++) {
+                ShortenedUrl url;
+                try {
+                    url = readRecord(buffer);
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("Бинарный снимок обрезан после " + i + " записей");
+                } catch (IllegalArgumentException e) {
+                    // Запись прочитана целиком (длины известны), можно продолжать со следующей
+                    skipped++;
+                    System.err.println("⚠️ Ошибка загрузки записи: " + e.getMessage());
+                    continue;
+                }
+                checksum += SnapshotChecksum.of(url);
+                sink.accept(url);
+                loaded++;
+            }
+
+            if (version == VERSION) {
+                if (buffer.remaining() < Long.BYTES) {
+                    throw new IOException("Бинарный снимок обрезан: нет контрольной суммы");
+                }
+                metadata = new SnapshotMetadata(count, buffer.getLong(), walSegment);
+            }
+        }
+
+        return new SnapshotLoadStats(loaded, skipped, System.nanoTime() - startNanos, checksum, metadata);
+    }
+
+    private void writeRecord(DataOutputStream out, ShortenedUrl url) throws IOException {
+        byte[] code = url.getShortCode().value().getBytes(StandardCharsets.US_ASCII);
+        byte[] target = url.getOriginalUrl().value().getBytes(StandardCharsets.UTF_8);
+        if (code.length > 0xFF || target.length > 0xFFFF) {
+            throw new IOException("Запись не помещается в бинарный формат: " + url.getShortCode());
+        }
+        UUID userId = url.getUserId().value();
+
+        out.writeLong(url.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeLong(SnapshotChecksum.expiresAtSecond(url));
+        out.writeLong(userId.getMostSignificantBits());
+        out.writeLong(userId.getLeastSignificantBits());
+        out.writeInt(url.getMaxClicks());
+        out.writeInt(url.getCurrentClicks());
+        out.writeByte(url.isActive() ? 1 : 0);
+        out.writeByte(code.length);
+        out.write(code);
+        out.writeShort(target.length);
+        out.write(target);
+    }
+
+    private ShortenedUrl readRecord(ByteBuffer buffer) {
+        long createdAt = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        long userMsb = buffer.getLong();
+        long userLsb = buffer.getLong();
+        int maxClicks = buffer.getInt();
+        int currentClicks = buffer.getInt();
+        boolean active = buffer.get() != 0;
+        String code = readString(buffer, buffer.get() & 0xFF, StandardCharsets.US_ASCII);
+        String target = readString(buffer, buffer.getShort() & 0xFFFF, StandardCharsets.UTF_8);
+
+        return new ShortenedUrl(
+                new Url(target),
+                new ShortCode(code),
+                new UserId(new UUID(userMsb, userLsb)),
+                LocalDateTime.ofEpochSecond(createdAt, 0, ZoneOffset.UTC),
+                expiresAt == SnapshotChecksum.NO_EXPIRY_SECOND ? null
+                        : LocalDateTime.ofEpochSecond(expiresAt, 0, ZoneOffset.UTC),
+                maxClicks,
+                currentClicks,
+                active
+        );
+    }
+
+    private String readString(ByteBuffer buffer, int length, Charset charset) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, charset);
+    }
+}
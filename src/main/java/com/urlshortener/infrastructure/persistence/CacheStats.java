@@ -0,0 +1,12 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Счетчики кэша ссылок: попадания, промахи, вытеснения и текущая заполненность
+ */
+public record CacheStats(long hits, long misses, long evictions, long size, long weight) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,392 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.urlshortener.core.domain.models.ClickClaim;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.DateTimeProvider;
+import com.urlshortener.core.ports.output.UrlRepository;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кэш горячих ссылок перед другим репозиторием (для поиска по короткому коду).
+ *
+ * Вытеснение W-TinyLFU: новые ссылки попадают в небольшое LRU-окно (1% объема), а оттуда
+ * в основную область (SLRU: испытательный и защищенный сегменты) только если встречаются
+ * чаще, чем ссылка, которую пришлось бы вытеснить. Частоты оцениваются {@link FrequencySketch}.
+ * Объем задается числом ссылок или оценкой занимаемых байт.
+ *
+ * Поиск идет по ConcurrentHashMap без блокировки; порядок обращений обновляется под tryLock,
+ * и при конкуренции отметка обращения просто пропускается. Сохранение, удаление и исчерпание
+ * лимита переходов убирают ссылку из кэша.
+ */
+public class CachingUrlRepository implements UrlRepository, AutoCloseable {
+
+    private enum Region { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node {
+        final String key;
+        final ShortenedUrl value;
+        final long weight;
+        Region region = Region.WINDOW;
+
+        Node(String key, ShortenedUrl value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final UrlRepository delegate;
+    private final DateTimeProvider dateTimeProvider;
+    private final boolean weighByBytes;
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+
+    private final Map<String, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Порядок от давних обращений к недавним; меняется только под lock
+    private final LinkedHashMap<String, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Node> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Node> protectedRegion = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    // Растет при каждой инвалидации; промах не кладет в кэш то, что прочитал до нее
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries наибольшее число ссылок в кэше (если maxBytes не задан)
+     * @param maxBytes   наибольший оценочный объем в байтах; 0 - ограничение по числу ссылок
+     */
+    public CachingUrlRepository(UrlRepository delegate, int maxEntries, long maxBytes) {
+        this(delegate, maxEntries, maxBytes, new SystemDateTimeProvider());
+    }
+
+    /**
+     * @param dateTimeProvider часы для проверок срока действия закэшированных ссылок
+     */
+    public CachingUrlRepository(UrlRepository delegate, int maxEntries, long maxBytes,
+                                DateTimeProvider dateTimeProvider) {
+        this.delegate = delegate;
+        this.dateTimeProvider = dateTimeProvider;
+        this.weighByBytes = maxBytes > 0;
+        this.maxWeight = Math.max(1, weighByBytes ? maxBytes : maxEntries);
+        this.windowMaxWeight = Math.max(1, maxWeight / 100);
+        this.protectedMaxWeight = (maxWeight - windowMaxWeight) * 4 / 5;
+        this.sketch = new FrequencySketch(weighByBytes ? maxBytes / estimateBytes(0) : maxEntries);
+    }
+
+    @Override
+    public Optional<ShortenedUrl> findByShortCode(ShortCode shortCode) {
+        String key = shortCode.value();
+        Node node = data.get(key);
+        if (node != null) {
+            hits.increment();
+            recordAccess(node);
+            return Optional.of(node.value);
+        }
+
+        misses.increment();
+        long stamp = invalidations.get();
+        Optional<ShortenedUrl> loaded = delegate.findByShortCode(shortCode);
+        long now = dateTimeProvider.currentTimeMillis();
+        loaded.filter(url -> url.canBeAccessedAt(now)).ifPresent(url -> insert(key, url, stamp));
+        return loaded;
+    }
+
+    @Override
+    public ShortenedUrl resolve(CharSequence shortCode) {
+        Node node = data.get(CodeLookupKey.of(shortCode));
+        if (node != null) {
+            hits.increment();
+            recordAccess(node);
+            return node.value;
+        }
+
+        misses.increment();
+        long stamp = invalidations.get();
+        ShortenedUrl loaded = delegate.resolve(shortCode);
+        if (loaded != null && loaded.canBeAccessedAt(dateTimeProvider.currentTimeMillis())) {
+            insert(loaded.getShortCode().value(), loaded, stamp);
+        }
+        return loaded;
+    }
+
+    @Override
+    public ShortenedUrl save(ShortenedUrl url) {
+        ShortenedUrl saved = delegate.save(url);
+        invalidate(url.getShortCode().value());
+        return saved;
+    }
+
+    @Override
+    public boolean insertIfAbsent(ShortenedUrl url) {
+        // Новых ссылок в кэше нет - занятый код остается в кэше как был
+        return delegate.insertIfAbsent(url);
+    }
+
+    @Override
+    public ClickClaim claimClick(ShortenedUrl url, long nowMillis) {
+        return delegate.claimClick(url, nowMillis);
+    }
+
+    @Override
+    public void updateClicks(ShortenedUrl url) {
+        delegate.updateClicks(url);
+        if (!url.canBeAccessedAt(dateTimeProvider.currentTimeMillis())) {
+            invalidate(url.getShortCode().value());
+        }
+    }
+
+    @Override
+    public void delete(ShortCode shortCode) {
+        delegate.delete(shortCode);
+        invalidate(shortCode.value());
+    }
+
+    @Override
+    public long deleteExpired(long nowMillis) {
+        long removed = delegate.deleteExpired(nowMillis);
+        for (Node node : data.values()) {
+            if (node.value.isExpiredAt(nowMillis)) {
+                invalidate(node.key);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean existsByShortCode(ShortCode shortCode) {
+        return data.containsKey(shortCode.value()) || delegate.existsByShortCode(shortCode);
+    }
+
+    @Override
+    public List<ShortenedUrl> findByUserId(UserId userId) {
+        return delegate.findByUserId(userId);
+    }
+
+    @Override
+    public boolean existsActiveByUserIdAndUrl(UserId userId, Url originalUrl, long nowMillis) {
+        return delegate.existsActiveByUserIdAndUrl(userId, originalUrl, nowMillis);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public long countActive() {
+        return delegate.countActive();
+    }
+
+    @Override
+    public long countExpired() {
+        return delegate.countExpired();
+    }
+
+    @Override
+    public List<ShortenedUrl> findAll() {
+        return delegate.findAll();
+    }
+
+    /**
+     * Показатели хранилища под кэшем и счетчики самого кэша
+     */
+    @Override
+    public Map<String, Object> getStorageStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(delegate.getStorageStats());
+        CacheStats cache = getStats();
+        stats.put("cacheHits", cache.hits());
+        stats.put("cacheMisses", cache.misses());
+        stats.put("cacheHitRate", cache.hitRate());
+        stats.put("cacheEvictions", cache.evictions());
+        stats.put("cacheSize", cache.size());
+        return stats;
+    }
+
+    public CacheStats getStats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), data.size(),
+                    windowWeight + probationWeight + protectedWeight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public UrlRepository getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Закрыть хранилище под кэшем; хранилища проекта закрываются без проверяемых исключений
+     */
+    @Override
+    public void close() {
+        if (delegate instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Ошибка закрытия хранилища", e);
+            }
+        }
+    }
+
+    // Примерный размер ссылки в памяти: объект, значения-обертки и строки
+    private static long estimateBytes(int chars) {
+        return 256 + 2L * chars;
+    }
+
+    private long weigh(ShortenedUrl url) {
+        if (!weighByBytes) {
+            return 1;
+        }
+        return estimateBytes(url.getOriginalUrl().value().length() + url.getShortCode().value().length());
+    }
+
+    private void recordAccess(Node node) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (data.get(node.key) != node) {
+                return;
+            }
+            sketch.increment(node.key);
+            switch (node.region) {
+                case WINDOW -> window.get(node.key);
+                case PROTECTED -> protectedRegion.get(node.key);
+                case PROBATION -> promote(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void insert(String key, ShortenedUrl url, long stamp) {
+        Node node = new Node(key, url, weigh(url));
+        lock.lock();
+        try {
+            if (invalidations.get() != stamp || node.weight > maxWeight || data.putIfAbsent(key, node) != null) {
+                return;
+            }
+            sketch.increment(key);
+            window.put(key, node);
+            windowWeight += node.weight;
+            while (windowWeight > windowMaxWeight) {
+                Node candidate = pollFirst(window);
+                windowWeight -= candidate.weight;
+                admit(candidate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidate(String key) {
+        invalidations.incrementAndGet();
+        lock.lock();
+        try {
+            Node node = data.remove(key);
+            if (node != null) {
+                detach(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Кандидат из окна вытесняет жертву основной области, только если встречается чаще
+    private void admit(Node candidate) {
+        long mainMaxWeight = maxWeight - windowMaxWeight;
+        while (probationWeight + protectedWeight + candidate.weight > mainMaxWeight) {
+            Node victim = firstOf(probation);
+            if (victim == null) {
+                victim = firstOf(protectedRegion);
+            }
+            if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                evict(candidate);
+                return;
+            }
+            detach(victim);
+            evict(victim);
+        }
+        candidate.region = Region.PROBATION;
+        probation.put(candidate.key, candidate);
+        probationWeight += candidate.weight;
+    }
+
+    // Повторное обращение переводит ссылку в защищенный сегмент; давние оттуда возвращаются на испытание
+    private void promote(Node node) {
+        probation.remove(node.key);
+        probationWeight -= node.weight;
+        node.region = Region.PROTECTED;
+        protectedRegion.put(node.key, node);
+        protectedWeight += node.weight;
+        while (protectedWeight > protectedMaxWeight) {
+            Node demoted = pollFirst(protectedRegion);
+            protectedWeight -= demoted.weight;
+            demoted.region = Region.PROBATION;
+            probation.put(demoted.key, demoted);
+            probationWeight += demoted.weight;
+        }
+    }
+
+    private void detach(Node node) {
+        switch (node.region) {
+            case WINDOW -> {
+                if (window.remove(node.key) != null) {
+                    windowWeight -= node.weight;
+                }
+            }
+            case PROBATION -> {
+                if (probation.remove(node.key) != null) {
+                    probationWeight -= node.weight;
+                }
+            }
+            case PROTECTED -> {
+                if (protectedRegion.remove(node.key) != null) {
+                    protectedWeight -= node.weight;
+                }
+            }
+        }
+    }
+
+    private void evict(Node node) {
+        data.remove(node.key, node);
+        evictions.increment();
+    }
+
+    private static Node firstOf(LinkedHashMap<String, Node> region) {
+        Iterator<Node> iterator = region.values().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static Node pollFirst(LinkedHashMap<String, Node> region) {
+        Iterator<Node> iterator = region.values().iterator();
+        Node first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+}
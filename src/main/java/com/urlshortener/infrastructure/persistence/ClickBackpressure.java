@@ -0,0 +1,33 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Что делать с переходом, если очередь записи счетчиков заполнена
+ */
+public enum ClickBackpressure {
+    /**
+     * Записать счетчик сразу в потоке перехода (медленнее, но ничего не откладывается)
+     */
+    CALLER_RUNS,
+
+    /**
+     * Ждать, пока в очереди освободится место
+     */
+    BLOCK,
+
+    /**
+     * Не ставить в очередь: переход уже засчитан в памяти и попадет в хранилище
+     * со следующим переходом по этой ссылке или со снимком
+     */
+    DROP;
+
+    public static ClickBackpressure parse(String value) {
+        if (value == null || value.isBlank()) {
+            return CALLER_RUNS;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестная политика переполнения очереди переходов: " + value);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Счетчики очереди переходов: глубина, сколько принято, записано и обойдено очередью
+ *
+ * @param depth      переходов в очереди сейчас
+ * @param maxDepth   наибольшая замеченная глубина
+ * @param published  поставлено в очередь
+ * @param processed  разобрано потоком записи
+ * @param writes     записей в хранилище после объединения переходов одной ссылки
+ * @param batches    пачек записи
+ * @param callerRuns записано сразу из-за переполнения (CALLER_RUNS)
+ * @param dropped    не поставлено в очередь из-за переполнения (DROP)
+ */
+public record ClickQueueStats(long depth, long maxDepth, long published, long processed,
+                              long writes, long batches, long callerRuns, long dropped) {
+}
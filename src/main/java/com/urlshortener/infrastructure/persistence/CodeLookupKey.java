@@ -0,0 +1,69 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Ключ для поиска в картах со строковыми кодами по любой последовательности символов без создания строки.
+ *
+ * hashCode совпадает с {@link String#hashCode()}, а equals сравнивает символы со строковым ключом
+ * карты - ConcurrentHashMap вызывает equals именно у переданного ключа. Экземпляр свой у каждого
+ * потока и годится только как аргумент get/containsKey, класть его в карту нельзя.
+ */
+public final class CodeLookupKey {
+
+    private static final ThreadLocal<CodeLookupKey> KEYS = ThreadLocal.withInitial(CodeLookupKey::new);
+
+    private CharSequence chars;
+    private int hash;
+
+    private CodeLookupKey() {
+    }
+
+    /**
+     * Ключ для get: сама строка или переиспользуемая обертка текущего потока
+     */
+    public static Object of(CharSequence code) {
+        if (code instanceof String) {
+            return code;
+        }
+        CodeLookupKey key = KEYS.get();
+        key.chars = code;
+        key.hash = hash(code);
+        return key;
+    }
+
+    /**
+     * То же значение, что String.hashCode() для строки из этих символов
+     */
+    public static int hash(CharSequence code) {
+        if (code instanceof String string) {
+            return string.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < code.length(); i++) {
+            hash = 31 * hash + code.charAt(i);
+        }
+        return hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof String string) || string.length() != chars.length()) {
+            return false;
+        }
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return chars.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.urlshortener.infrastructure.persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.Properties;
+
+/**
+ * Сохраняемая на диск граница выданных номеров кодов и ключ их перестановки.
+ *
+ * Номера выдаются диапазонами: граница сначала записывается на диск (временный файл,
+ * fsync, атомарное переименование), и только потом номера из диапазона уходят в работу.
+ * После перезапуска выдача продолжается с сохраненной границы - неиспользованный остаток
+ * диапазона пропускается, но ни один номер не выдается дважды.
+ */
+public class CodeSequenceStore {
+
+    private static final String HIGH_WATER_MARK = "highWaterMark";
+    private static final String KEY = "key";
+
+    private final Path file;
+    private long highWaterMark;
+    private final long key;
+
+    public CodeSequenceStore(Path file) {
+        this.file = file.toAbsolutePath();
+        Properties properties = new Properties();
+        if (Files.exists(this.file)) {
+            try (Reader reader = Files.newBufferedReader(this.file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать счетчик кодов " + file, e);
+            }
+        }
+        this.highWaterMark = Long.parseLong(properties.getProperty(HIGH_WATER_MARK, "0"));
+        String storedKey = properties.getProperty(KEY);
+        if (storedKey != null) {
+            this.key = Long.parseUnsignedLong(storedKey, 16);
+        } else {
+            // Ключ создается один раз: с другим ключом те же номера дали бы уже выданные коды
+            this.key = new SecureRandom().nextLong();
+            persist();
+        }
+    }
+
+    /**
+     * Зарезервировать count номеров подряд; возвращает первый из них
+     */
+    public synchronized long reserve(long count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Размер диапазона должен быть положительным: " + count);
+        }
+        long start = highWaterMark;
+        highWaterMark = Math.addExact(start, count);
+        persist();
+        return start;
+    }
+
+    /**
+     * Граница: все номера меньше нее уже выданы или пропущены
+     */
+    public synchronized long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Ключ перестановки номеров в коды
+     */
+    public long getKey() {
+        return key;
+    }
+
+    private void persist() {
+        Properties properties = new Properties();
+        properties.setProperty(HIGH_WATER_MARK, Long.toString(highWaterMark));
+        properties.setProperty(KEY, Long.toHexString(key));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Счетчик коротких кодов - не редактировать");
+            }
+            SnapshotStore.force(temp);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            SnapshotStore.forceDirectory(file.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить счетчик кодов " + file, e);
+        }
+    }
+}
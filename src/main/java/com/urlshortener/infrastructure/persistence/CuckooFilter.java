@@ -0,0 +1,224 @@
+package com.urlshortener.infrastructure.persistence;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Вероятностное множество коротких кодов с поддержкой удаления (фильтр кукушки).
+ *
+ * Хранит 16-битные отпечатки, по четыре в корзине (одно long-слово). У каждого кода две
+ * возможные корзины; при вставке в заполненную корзину отпечаток вытесняет соседа в его
+ * запасную корзину. Ложных отрицаний нет, доля ложных срабатываний - около 0.01%.
+ * Проверка идет без блокировки (оптимистичное чтение StampedLock), изменения - под записью.
+ */
+final class CuckooFilter {
+
+    private static final int SLOTS = 4;
+    private static final int FINGERPRINT_BITS = 16;
+    private static final long SLOT_MASK = 0xFFFFL;
+    private static final int MAX_KICKS = 500;
+
+    private final long[] buckets;
+    private final int mask;
+    private final StampedLock lock = new StampedLock();
+    // Отпечаток, которому не нашлось места после MAX_KICKS перестановок; дальше фильтр считается полным
+    private int victimFingerprint;
+    private int victimIndex;
+    private long size;
+
+    CuckooFilter(long expectedEntries) {
+        long needed = Math.max(64, (long) Math.ceil(expectedEntries / (SLOTS * 0.9)));
+        int bucketCount = (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+        this.buckets = new long[bucketCount];
+        this.mask = bucketCount - 1;
+    }
+
+    boolean mightContain(CharSequence key) {
+        long hash = hash(key);
+        int fingerprint = fingerprint(hash);
+        int first = index(hash);
+        int second = alternate(first, fingerprint);
+
+        long stamp = lock.tryOptimisticRead();
+        boolean found = contains(first, second, fingerprint);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = contains(first, second, fingerprint);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Добавить код. Возвращает false, если фильтр заполнен - тогда его нужно пересобрать крупнее.
+     */
+    boolean add(String key) {
+        long hash = hash(key);
+        int fingerprint = fingerprint(hash);
+        int index = index(hash);
+
+        long stamp = lock.writeLock();
+        try {
+            if (victimFingerprint != 0) {
+                return false;
+            }
+            size++;
+            if (insertInto(index, fingerprint) || insertInto(alternate(index, fingerprint), fingerprint)) {
+                return true;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextBoolean()) {
+                index = alternate(index, fingerprint);
+            }
+            for (int kick = 0; kick < MAX_KICKS; kick++) {
+                int slot = random.nextInt(SLOTS);
+                int evicted = slotValue(buckets[index], slot);
+                buckets[index] = withSlot(buckets[index], slot, fingerprint);
+                fingerprint = evicted;
+                index = alternate(index, fingerprint);
+                if (insertInto(index, fingerprint)) {
+                    return true;
+                }
+            }
+            victimFingerprint = fingerprint;
+            victimIndex = index;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Удалить ранее добавленный код
+     */
+    boolean remove(String key) {
+        long hash = hash(key);
+        int fingerprint = fingerprint(hash);
+        int first = index(hash);
+        int second = alternate(first, fingerprint);
+
+        long stamp = lock.writeLock();
+        try {
+            if (removeFrom(first, fingerprint) || removeFrom(second, fingerprint)) {
+                size--;
+                placeVictim();
+                return true;
+            }
+            if (victimFingerprint == fingerprint && (victimIndex == first || victimIndex == second)) {
+                victimFingerprint = 0;
+                size--;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    long size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    long capacity() {
+        return (long) buckets.length * SLOTS;
+    }
+
+    private boolean contains(int first, int second, int fingerprint) {
+        return hasFingerprint(buckets[first], fingerprint)
+                || hasFingerprint(buckets[second], fingerprint)
+                || (victimFingerprint == fingerprint && (victimIndex == first || victimIndex == second));
+    }
+
+    // После удаления могло освободиться место для отложенного отпечатка
+    private void placeVictim() {
+        if (victimFingerprint == 0) {
+            return;
+        }
+        if (insertInto(victimIndex, victimFingerprint)
+                || insertInto(alternate(victimIndex, victimFingerprint), victimFingerprint)) {
+            victimFingerprint = 0;
+        }
+    }
+
+    private boolean insertInto(int index, int fingerprint) {
+        long bucket = buckets[index];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (slotValue(bucket, slot) == 0) {
+                buckets[index] = withSlot(bucket, slot, fingerprint);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean removeFrom(int index, int fingerprint) {
+        long bucket = buckets[index];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (slotValue(bucket, slot) == fingerprint) {
+                buckets[index] = withSlot(bucket, slot, 0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasFingerprint(long bucket, int fingerprint) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (slotValue(bucket, slot) == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int slotValue(long bucket, int slot) {
+        return (int) ((bucket >>> (slot * FINGERPRINT_BITS)) & SLOT_MASK);
+    }
+
+    private static long withSlot(long bucket, int slot, int fingerprint) {
+        int shift = slot * FINGERPRINT_BITS;
+        return (bucket & ~(SLOT_MASK << shift)) | ((long) fingerprint << shift);
+    }
+
+    private int index(long hash) {
+        return (int) (hash >>> 32) & mask;
+    }
+
+    // Запасная корзина вычисляется из текущей и отпечатка, поэтому переход обратим
+    private int alternate(int index, int fingerprint) {
+        return (index ^ (int) mix(fingerprint)) & mask;
+    }
+
+    // 0 означает пустой слот
+    private static int fingerprint(long hash) {
+        int fingerprint = (int) (hash & SLOT_MASK);
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    // FNV-1a по символам кода с финальным перемешиванием
+    private static long hash(CharSequence key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
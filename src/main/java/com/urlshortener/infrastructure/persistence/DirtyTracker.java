@@ -0,0 +1,65 @@
+package com.urlshortener.infrastructure.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Учет ссылок, измененных с прошлого сброса на диск.
+ * Повторные изменения одной ссылки схлопываются: тысяча переходов по одной ссылке
+ * между сбросами дает одну запись счетчика.
+ */
+public class DirtyTracker {
+
+    /**
+     * Вид изменения; более «тяжелое» изменение поглощает счетчик переходов
+     */
+    public enum Change {
+        /**
+         * Создание или редактирование: пишется полная запись
+         */
+        UPSERT,
+
+        /**
+         * Только счетчик переходов
+         */
+        CLICK,
+
+        /**
+         * Удаление
+         */
+        DELETE
+    }
+
+    private final ConcurrentHashMap<String, Change> dirty = new ConcurrentHashMap<>();
+
+    public void markUpsert(String shortCode) {
+        dirty.put(shortCode, Change.UPSERT);
+    }
+
+    public void markClick(String shortCode) {
+        dirty.merge(shortCode, Change.CLICK, (current, click) -> current == Change.UPSERT ? current : click);
+    }
+
+    public void markDelete(String shortCode) {
+        dirty.put(shortCode, Change.DELETE);
+    }
+
+    /**
+     * Забрать накопленные изменения. Запись удаляется, только если она не поменялась
+     * во время обхода, иначе она останется до следующего сброса.
+     */
+    public Map<String, Change> drain() {
+        Map<String, Change> drained = new LinkedHashMap<>();
+        for (Map.Entry<String, Change> entry : dirty.entrySet()) {
+            if (dirty.remove(entry.getKey(), entry.getValue())) {
+                drained.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return drained;
+    }
+
+    public int size() {
+        return dirty.size();
+    }
+}
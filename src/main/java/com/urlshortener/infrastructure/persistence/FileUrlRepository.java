@@ -1,61 +1,148 @@
 package com.urlshortener.infrastructure.persistence;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.core.domain.models.DomainClock;
 import com.urlshortener.core.domain.models.ShortenedUrl;
 import com.urlshortener.core.domain.valueobjects.ShortCode;
 import com.urlshortener.core.domain.valueobjects.Url;
 import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.DateTimeProvider;
 import com.urlshortener.core.ports.output.UrlRepository;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.time.LocalDateTime;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * Реализация репозитория ссылок с хранением в JSON файле
+ * Реализация репозитория ссылок с хранением в JSON файле.
+ * В режиме WAL изменения отмечаются в {@link DirtyTracker}, и при сбросе в журнал
+ * пишутся только измененные ссылки (переходы - отдельной короткой записью счетчика),
+ * а полный снимок перезаписывается только при контрольной точке.
+ *
+ * Снимки пишет отдельный поток: вызывающий поток только меняет данные в памяти
+ * и возвращается, а поток снимков раз в snapshotIntervalSeconds (или по заполнению сегмента журнала)
+ * копирует ссылки и записывает копию на диск.
+ *
+ * При storageShards > 1 ссылки делятся на шарды по хешу короткого кода; у каждого шарда
+ * свои файлы (data/links.shard-0.json, его журнал и снимки), шарды загружаются параллельно.
+ * Число шардов после первого запуска менять нельзя (кроме перехода с одного файла).
+ *
+ * При expiryPartitionHours > 0 снимок шарда разбит на сегменты по времени истечения
+ * ({@link PartitionedSnapshotStore}), и очистка удаляет истекшие сегменты целиком.
  */
-public class FileUrlRepository implements UrlRepository {
+public class FileUrlRepository implements UrlRepository, AutoCloseable {
 
-    private final Map<String, ShortenedUrl> storage; // shortCode -> ShortenedUrl
+    private final List<StorageShard> shards;
     private final Map<UUID, Set<String>> userUrls;   // userId -> set of shortCodes
     private final ObjectMapper objectMapper;
+    private final WalRecordCodec walCodec;
     private final String storageFile;
+    private final ScheduledExecutorService snapshotExecutor;
+    private final DateTimeProvider dateTimeProvider;
 
     public FileUrlRepository(ObjectMapper objectMapper, Config config) {
+        this(objectMapper, config, new SystemDateTimeProvider());
+    }
+
+    public FileUrlRepository(ObjectMapper objectMapper, Config config, DateTimeProvider dateTimeProvider) {
         this.objectMapper = objectMapper;
+        this.dateTimeProvider = dateTimeProvider;
+        this.walCodec = new WalRecordCodec(objectMapper);
         this.storageFile = config.getStorageFile();
-
-        this.storage = new ConcurrentHashMap<>();
         this.userUrls = new ConcurrentHashMap<>();
 
-        loadData();
+        int shardCount = Math.max(1, config.getStorageShards());
+        int cores = Runtime.getRuntime().availableProcessors();
+        int loadThreads = config.getSnapshotLoadThreads() > 0 ? config.getSnapshotLoadThreads() : cores;
+
+        List<StorageShard> created = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            created.add(createShard(config, shardFile(i, shardCount), shardCount > 1 ? "[шард " + i + "] " : "",
+                    Math.max(1, loadThreads / shardCount)));
+        }
+        this.shards = List.copyOf(created);
+        checkShardCount(config, shardCount);
+
+        this.snapshotExecutor = Executors.newScheduledThreadPool(Math.min(shardCount, cores), runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        boolean migrated = loadData(config, loadThreads, Math.min(shardCount, cores));
+
+        // Снимки шардов разнесены по интервалу, чтобы не писаться на диск одновременно
+        long intervalSeconds = Math.max(1, config.getSnapshotIntervalSeconds());
+        for (int i = 0; i < shardCount; i++) {
+            shards.get(i).start(snapshotExecutor, intervalSeconds,
+                    intervalSeconds + intervalSeconds * i / shardCount);
+        }
+
+        for (StorageShard shard : shards) {
+            if (migrated || shard.needsRewrite()) {
+                shard.checkpoint();
+            }
+        }
     }
 
     @Override
     public ShortenedUrl save(ShortenedUrl url) {
+        putInMemory(url);
         String shortCode = url.getShortCode().value();
-        UUID userId = url.getUserId().value();
+        shardFor(shortCode).recordUpsert(shortCode);
+        return url;
+    }
 
-        // Сохраняем в памяти
-        storage.put(shortCode, url);
-        userUrls.computeIfAbsent(userId, k -> new HashSet<>())
+    @Override
+    public boolean insertIfAbsent(ShortenedUrl url) {
+        String shortCode = url.getShortCode().value();
+        StorageShard shard = shardFor(shortCode);
+        if (!shard.putIfAbsent(url)) {
+            return false;
+        }
+        userUrls.computeIfAbsent(url.getUserId().value(), k -> ConcurrentHashMap.newKeySet())
                 .add(shortCode);
+        shard.recordUpsert(shortCode);
+        return true;
+    }
 
-        // Сохраняем на диск
-        saveToFile();
-
-        return url;
+    @Override
+    public void updateClicks(ShortenedUrl url) {
+        // Объект уже лежит в хранилище и изменен на месте - достаточно отметить счетчик.
+        // Если ссылку успели удалить или заменить (редактирование), запись устарела: сохранение
+        // вернуло бы удаленную ссылку или старый адрес, поэтому счетчик такого экземпляра не пишется
+        String shortCode = url.getShortCode().value();
+        StorageShard shard = shardFor(shortCode);
+        if (shard.storage().get(shortCode) != url) {
+            return;
+        }
+        shard.recordClick(shortCode);
     }
 
     @Override
     public Optional<ShortenedUrl> findByShortCode(ShortCode shortCode) {
-        return Optional.ofNullable(storage.get(shortCode.value()));
+        return Optional.ofNullable(shardFor(shortCode.value()).storage().get(shortCode.value()));
+    }
+
+    @Override
+    public ShortenedUrl resolve(CharSequence shortCode) {
+        return shardAt(CodeLookupKey.hash(shortCode)).storage().get(CodeLookupKey.of(shortCode));
     }
 
     @Override
@@ -63,7 +150,7 @@ public class FileUrlRepository implements UrlRepository {
         Set<String> userCodes = userUrls.getOrDefault(userId.value(), new HashSet<>());
 
         return userCodes.stream()
-                .map(storage::get)
+                .map(code -> shardFor(code).storage().get(code))
                 .filter(Objects::nonNull)
                 .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
                 .collect(Collectors.toList());
@@ -71,135 +158,348 @@ public class FileUrlRepository implements UrlRepository {
 
     @Override
     public void delete(ShortCode shortCode) {
-        ShortenedUrl url = storage.get(shortCode.value());
-        if (url == null) {
-            return;
+        if (removeFromMemory(shortCode.value())) {
+            shardFor(shortCode.value()).recordDelete(shortCode.value());
         }
-
-        // Удаляем из всех хранилищ
-        storage.remove(shortCode.value());
-
-        UUID userId = url.getUserId().value();
-        Set<String> userCodes = userUrls.get(userId);
-        if (userCodes != null) {
-            userCodes.remove(shortCode.value());
-            if (userCodes.isEmpty()) {
-                userUrls.remove(userId);
-            }
-        }
-
-        saveToFile();
     }
 
     @Override
     public boolean existsByShortCode(ShortCode shortCode) {
-        return storage.containsKey(shortCode.value());
+        return shardFor(shortCode.value()).storage().containsKey(shortCode.value());
     }
 
     @Override
     public long count() {
-        return storage.size();
+        return shards.stream()
+                .mapToLong(shard -> shard.storage().size())
+                .sum();
+    }
+
+    @Override
+    public boolean existsActiveByUserIdAndUrl(UserId userId, Url originalUrl, long nowMillis) {
+        return findByUserId(userId).stream()
+                .anyMatch(url -> url.getOriginalUrl().equals(originalUrl) && url.canBeAccessedAt(nowMillis));
     }
 
     @Override
     public long countActive() {
-        return storage.values().stream()
-                .filter(ShortenedUrl::canBeAccessed)
+        long now = dateTimeProvider.currentTimeMillis();
+        return allUrls()
+                .filter(url -> url.canBeAccessedAt(now))
                 .count();
     }
 
     @Override
     public long countExpired() {
-        return storage.values().stream()
-                .filter(url -> url.isExpired())
+        long now = dateTimeProvider.currentTimeMillis();
+        return allUrls()
+                .filter(url -> url.isExpiredAt(now))
                 .count();
     }
 
     @Override
     public List<ShortenedUrl> findAll() {
-        return new ArrayList<>(storage.values());
+        return allUrls().collect(Collectors.toList());
+    }
+
+    /**
+     * При разбиении по времени истечения удаляются целые сегменты, срок всех ссылок которых прошел
+     * (ссылки, истекшие в пределах текущего сегмента, остаются до его окончания).
+     * Без разбиения просроченные ссылки удаляются по одной.
+     */
+    @Override
+    public long deleteExpired(long nowMillis) {
+        long removed = 0;
+        // Сегменты нумеруются по локальному времени истечения, взятому как UTC
+        long nowBucketSecond = DomainClock.toLocalDateTime(nowMillis).toEpochSecond(ZoneOffset.UTC);
+        for (StorageShard shard : shards) {
+            if (shard.isPartitioned()) {
+                List<ShortenedUrl> dropped = shard.dropExpiredBuckets(nowBucketSecond);
+                dropped.forEach(this::forgetUserUrl);
+                removed += dropped.size();
+            } else {
+                for (ShortenedUrl url : new ArrayList<>(shard.storage().values())) {
+                    if (url.isExpiredAt(nowMillis)) {
+                        delete(url.getShortCode());
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Выгрузить все ссылки в JSON-файл (формат обмена)
+     */
+    public void exportJson(Path target) throws IOException {
+        List<ShortenedUrl> urls = new ArrayList<>();
+        shards.forEach(shard -> urls.addAll(shard.snapshotCopy()));
+        shards.get(0).snapshotStore().exportJson(target, urls);
+    }
+
+    /**
+     * Загрузить ссылки из JSON-файла; существующие ссылки с теми же кодами заменяются
+     */
+    public SnapshotLoadStats importJson(Path source) throws IOException {
+        return importJson(source, this::save);
+    }
+
+    /**
+     * Загрузить ссылки из JSON-файла, сохраняя каждую через sink - например, через декоратор
+     * над этим хранилищем, которому тоже нужно знать о новых кодах
+     */
+    public SnapshotLoadStats importJson(Path source, Consumer<ShortenedUrl> sink) throws IOException {
+        return shards.get(0).snapshotStore().importJson(source, sink);
+    }
+
+    /**
+     * Сколько прошло с последнего записанного снимка (или с загрузки, если снимков еще не было);
+     * для нескольких шардов - возраст самого старого снимка
+     */
+    public Duration getLastSnapshotAge() {
+        Instant oldest = shards.stream()
+                .map(StorageShard::getLastSnapshotAt)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        return Duration.between(oldest, Instant.now());
+    }
+
+    /**
+     * Число изменений, которые еще не попали в снимок
+     */
+    public long getSnapshotLag() {
+        return shards.stream()
+                .mapToLong(StorageShard::getSnapshotLag)
+                .sum();
+    }
+
+    /**
+     * Возраст и отставание снимка для глобальной статистики
+     */
+    @Override
+    public Map<String, Object> getStorageStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("snapshotAgeSeconds", getLastSnapshotAge().toSeconds());
+        stats.put("snapshotLag", getSnapshotLag());
+        return stats;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Остановить поток снимков, записать последний снимок и закрыть журнал
+     */
+    @Override
+    public void close() {
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        shards.forEach(StorageShard::close);
     }
 
-    private void loadData() {
-        File file = new File(storageFile);
+    private StorageShard createShard(Config config, Path file, String label, int loadThreads) {
+        WriteAheadLog wal = config.isWalEnabled()
+                ? new WriteAheadLog(file,
+                        FsyncPolicy.parse(config.getWalFsyncPolicy()),
+                        config.getWalFsyncIntervalMs(),
+                        config.getWalFsyncBatchRecords())
+                : null;
+        SnapshotStore snapshotStore = new SnapshotStore(objectMapper, file,
+                SnapshotFormat.parse(config.getSnapshotFormat()), loadThreads);
+        PartitionedSnapshotStore partitions = config.getExpiryPartitionHours() > 0
+                ? new PartitionedSnapshotStore(objectMapper, snapshotStore, file, config.getExpiryPartitionHours())
+                : null;
+        return new StorageShard(label, file, snapshotStore, partitions, wal, walCodec,
+                config.getWalCheckpointRecords(), config.isWalSyncCommit());
+    }
+
+    // data/links.json -> data/links.shard-3.json; один шард хранится в исходном файле
+    private Path shardFile(int index, int shardCount) {
+        Path path = Path.of(storageFile);
+        if (shardCount == 1) {
+            return path;
+        }
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String shardName = dot > 0
+                ? name.substring(0, dot) + ".shard-" + index + name.substring(dot)
+                : name + ".shard-" + index;
+        return path.resolveSibling(shardName);
+    }
 
-        if (!file.exists()) {
-            file.getParentFile().mkdirs();
+    // Коды распределены по шардам хешем: при другом числе шардов ссылки оказались бы не в своих файлах
+    private void checkShardCount(Config config, int shardCount) {
+        if (shardCount == 1) {
             return;
         }
+        SnapshotStore extra = new SnapshotStore(objectMapper, shardFile(shardCount, shardCount + 1),
+                SnapshotFormat.parse(config.getSnapshotFormat()), 1);
+        if (extra.exists()) {
+            throw new IllegalStateException("Найдены файлы шарда " + shardCount +
+                    ": число шардов нельзя уменьшать, выгрузите данные в JSON и загрузите заново");
+        }
+    }
 
-        try {
-            String jsonContent = new String(Files.readAllBytes(file.toPath()));
-            JsonNode rootNode = objectMapper.readTree(jsonContent);
-            JsonNode urlsNode = rootNode.get("urls");
-
-            if (urlsNode != null && urlsNode.isArray()) {
-                for (JsonNode urlNode : urlsNode) {
-                    try {
-                        // Читаем простые поля
-                        String originalUrl = urlNode.get("originalUrl").asText();
-                        String shortCode = urlNode.get("shortCode").asText();
-                        String userIdStr = urlNode.get("userId").asText();
-                        String createdAtStr = urlNode.get("createdAt").asText();
-                        String expiresAtStr = urlNode.get("expiresAt").asText();
-
-                        // Создаем domain объекты
-                        Url urlObj = new Url(originalUrl);
-                        ShortCode codeObj = new ShortCode(shortCode);
-                        UserId userIdObj = UserId.fromString(userIdStr);
-
-                        LocalDateTime createdAt = LocalDateTime.parse(createdAtStr);
-                        LocalDateTime expiresAt = LocalDateTime.parse(expiresAtStr);
-
-                        int maxClicks = urlNode.get("maxClicks").asInt();
-                        int currentClicks = urlNode.get("currentClicks").asInt();
-                        boolean active = urlNode.get("active").asBoolean();
-
-                        // Создаем ShortenedUrl
-                        ShortenedUrl url = new ShortenedUrl(
-                                urlObj,
-                                codeObj,
-                                userIdObj,
-                                createdAt,
-                                expiresAt,
-                                maxClicks,
-                                currentClicks,
-                                active
-                        );
-
-                        // Сохраняем в хранилищах
-                        storage.put(shortCode, url);
-                        userUrls.computeIfAbsent(userIdObj.value(), k -> new HashSet<>())
-                                .add(shortCode);
-                    } catch (Exception e) {
-                        System.err.println("⚠️ Ошибка загрузки записи: " + e.getMessage());
-                    }
-                }
+    private StorageShard shardFor(String shortCode) {
+        return shardAt(shortCode.hashCode());
+    }
+
+    private StorageShard shardAt(int codeHash) {
+        return shards.size() == 1 ? shards.get(0) : shards.get(Math.floorMod(codeHash, shards.size()));
+    }
+
+    private Stream<ShortenedUrl> allUrls() {
+        return shards.stream().flatMap(shard -> shard.storage().values().stream());
+    }
+
+    private void putInMemory(ShortenedUrl url) {
+        String shortCode = url.getShortCode().value();
+        UUID userId = url.getUserId().value();
+
+        shardFor(shortCode).put(url);
+        userUrls.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet())
+                .add(shortCode);
+    }
+
+    private boolean removeFromMemory(String shortCode) {
+        ShortenedUrl url = shardFor(shortCode).remove(shortCode);
+        if (url == null) {
+            return false;
+        }
+        forgetUserUrl(url);
+        return true;
+    }
+
+    private void forgetUserUrl(ShortenedUrl url) {
+        String shortCode = url.getShortCode().value();
+        UUID userId = url.getUserId().value();
+        Set<String> userCodes = userUrls.get(userId);
+        if (userCodes != null) {
+            userCodes.remove(shortCode);
+            if (userCodes.isEmpty()) {
+                userUrls.remove(userId);
             }
-        } catch (IOException e) {
-            System.err.println("❌ Ошибка загрузки данных: " + e.getMessage());
         }
     }
 
-    private synchronized void saveToFile() {
-        try {
-            Map<String, Object> data = new HashMap<>();
-            data.put("urls", new ArrayList<>(storage.values()));
-            data.put("metadata", Map.of(
-                    "totalUrls", storage.size(),
-                    "savedAt", LocalDateTime.now().toString(),
-                    "version", "2.0"
-            ));
+    // Сброс шарда перед загрузкой предыдущего поколения снимка
+    private void clearShard(StorageShard shard) {
+        for (String shortCode : new ArrayList<>(shard.storage().keySet())) {
+            removeFromMemory(shortCode);
+        }
+    }
 
-            File file = new File(storageFile);
-            file.getParentFile().mkdirs();
+    /**
+     * Загрузить все шарды (параллельно); возвращает true, если данные перенесены из одного файла в шарды
+     */
+    private boolean loadData(Config config, int loadThreads, int parallelism) {
+        long startNanos = System.nanoTime();
+        List<ShardLoad> results = new ArrayList<>();
+
+        StorageShard legacy = legacyShard(config, loadThreads);
+        if (legacy != null) {
+            System.out.println("🔄 Перенос данных из " + storageFile + " в " + shards.size() + " шардов");
+            results.add(loadShard(legacy, this::clearAll));
+        } else if (shards.size() == 1) {
+            results.add(loadShard(shards.get(0), () -> clearShard(shards.get(0))));
+        } else {
+            ExecutorService loader = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "shard-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<ShardLoad>> futures = new ArrayList<>();
+                for (StorageShard shard : shards) {
+                    futures.add(loader.submit(() -> loadShard(shard, () -> clearShard(shard))));
+                }
+                for (Future<ShardLoad> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Загрузка данных прервана", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка загрузки шарда: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                loader.shutdown();
+            }
+        }
 
-            objectMapper.writeValue(file, data);
-            System.out.println("💾 Данные сохранены (" + storage.size() + " ссылок)");
+        long loaded = 0;
+        long skipped = 0;
+        long replayed = 0;
+        boolean anySnapshot = false;
+        for (ShardLoad result : results) {
+            if (result.stats() != null) {
+                anySnapshot = true;
+                loaded += result.stats().loaded();
+                skipped += result.stats().skipped();
+            }
+            replayed += result.replayed();
+        }
+        if (anySnapshot) {
+            SnapshotLoadStats total = new SnapshotLoadStats(loaded, skipped, System.nanoTime() - startNanos, 0, null);
+            System.out.println("📂 Загружено " + total.loaded() + " ссылок за " + total.elapsedMillis() +
+                    " мс (" + total.recordsPerSecond() + " ссылок/с" +
+                    (total.skipped() > 0 ? ", пропущено " + total.skipped() : "") + ")");
+        }
+        if (replayed > 0) {
+            System.out.println("📜 Восстановлено из журнала: " + replayed + " изменений");
+        }
+        return legacy != null;
+    }
 
+    private ShardLoad loadShard(StorageShard shard, Runnable reset) {
+        SnapshotStore.LoadResult result = shard.loadSnapshot(this::putInMemory, reset);
+        int replayed = shard.replayWal(this::applyWalRecord);
+
+        if (result != null && result.imported() && shards.contains(shard)) {
+            // Переход с JSON: сразу сохраняем бинарный снимок, JSON остается как экспорт
+            System.out.println("🔄 Импорт JSON-снимка в бинарный формат");
+            shard.saveToFile();
+        }
+        return new ShardLoad(result != null ? result.stats() : null, replayed);
+    }
+
+    // Данные в одном файле при storageShards > 1 и пустых шардах: переносим их в шарды
+    private StorageShard legacyShard(Config config, int loadThreads) {
+        if (shards.size() == 1) {
+            return null;
+        }
+        try {
+            for (StorageShard shard : shards) {
+                if (shard.hasData()) {
+                    return null;
+                }
+            }
+            StorageShard legacy = createShard(config, Path.of(storageFile), "", loadThreads);
+            return legacy.hasData() ? legacy : null;
         } catch (IOException e) {
-            System.err.println("❌ Ошибка сохранения данных: " + e.getMessage());
-            e.printStackTrace();
+            throw new UncheckedIOException("Не удалось проверить файлы хранилища " + storageFile, e);
         }
     }
-}
\ No newline at end of file
+
+    private void clearAll() {
+        shards.forEach(this::clearShard);
+    }
+
+    private void applyWalRecord(WalRecordCodec.WalRecord record) {
+        switch (record.op()) {
+            case WalRecordCodec.OP_PUT -> putInMemory(record.raw().toDomain());
+            case WalRecordCodec.OP_CLICK ->
+                    shardFor(record.code()).restoreClicks(record.code(), record.clicks(), record.active());
+            case WalRecordCodec.OP_DELETE -> removeFromMemory(record.code());
+            default -> throw new IllegalArgumentException("Неизвестная запись журнала: " + record.op());
+        }
+    }
+
+    private record ShardLoad(SnapshotLoadStats stats, int replayed) {
+    }
+}
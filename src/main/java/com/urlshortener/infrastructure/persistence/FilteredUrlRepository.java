@@ -0,0 +1,248 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.urlshortener.core.domain.models.ClickClaim;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.UrlRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отсекает поиск несуществующих кодов до обращения к хранилищу.
+ *
+ * Перед репозиторием стоит {@link CuckooFilter} со всеми известными кодами: если фильтр
+ * говорит "нет", ссылки точно нет, и запрос перебирающих коды ботов не доходит до хранилища.
+ * Фильтр обновляется при сохранении и удалении; после очистки просроченных и при
+ * переполнении он пересобирается из репозитория. Ссылки, записанные в хранилище в обход
+ * фильтра, не найдутся до {@link #rebuild()}; импорт JSON поэтому идет через {@link #importJson(Path)}.
+ */
+public class FilteredUrlRepository implements UrlRepository, AutoCloseable {
+
+    private final UrlRepository delegate;
+    // Изменения набора кодов и пересборка фильтра идут по одной
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final LongAdder rejectedLookups = new LongAdder();
+    private volatile CuckooFilter filter;
+
+    public FilteredUrlRepository(UrlRepository delegate) {
+        this.delegate = delegate;
+        this.filter = build(delegate.count());
+    }
+
+    @Override
+    public Optional<ShortenedUrl> findByShortCode(ShortCode shortCode) {
+        if (!filter.mightContain(shortCode.value())) {
+            rejectedLookups.increment();
+            return Optional.empty();
+        }
+        return delegate.findByShortCode(shortCode);
+    }
+
+    @Override
+    public ShortenedUrl resolve(CharSequence shortCode) {
+        if (!filter.mightContain(shortCode)) {
+            rejectedLookups.increment();
+            return null;
+        }
+        return delegate.resolve(shortCode);
+    }
+
+    @Override
+    public boolean existsByShortCode(ShortCode shortCode) {
+        if (!filter.mightContain(shortCode.value())) {
+            rejectedLookups.increment();
+            return false;
+        }
+        return delegate.existsByShortCode(shortCode);
+    }
+
+    @Override
+    public ShortenedUrl save(ShortenedUrl url) {
+        writeLock.lock();
+        try {
+            // Повторное сохранение не должно добавлять второй отпечаток того же кода
+            boolean existed = delegate.existsByShortCode(url.getShortCode());
+            ShortenedUrl saved = delegate.save(url);
+            if (!existed && !filter.add(url.getShortCode().value())) {
+                filter = build(filter.capacity() * 2);
+            }
+            return saved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean insertIfAbsent(ShortenedUrl url) {
+        writeLock.lock();
+        try {
+            if (!delegate.insertIfAbsent(url)) {
+                return false;
+            }
+            if (!filter.add(url.getShortCode().value())) {
+                filter = build(filter.capacity() * 2);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(ShortCode shortCode) {
+        writeLock.lock();
+        try {
+            boolean existed = delegate.existsByShortCode(shortCode);
+            delegate.delete(shortCode);
+            if (existed) {
+                filter.remove(shortCode.value());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long deleteExpired(long nowMillis) {
+        writeLock.lock();
+        try {
+            long removed = delegate.deleteExpired(nowMillis);
+            if (removed > 0) {
+                filter = build(delegate.count());
+            }
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ClickClaim claimClick(ShortenedUrl url, long nowMillis) {
+        return delegate.claimClick(url, nowMillis);
+    }
+
+    @Override
+    public void updateClicks(ShortenedUrl url) {
+        delegate.updateClicks(url);
+    }
+
+    @Override
+    public List<ShortenedUrl> findByUserId(UserId userId) {
+        return delegate.findByUserId(userId);
+    }
+
+    @Override
+    public boolean existsActiveByUserIdAndUrl(UserId userId, Url originalUrl, long nowMillis) {
+        return delegate.existsActiveByUserIdAndUrl(userId, originalUrl, nowMillis);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public long countActive() {
+        return delegate.countActive();
+    }
+
+    @Override
+    public long countExpired() {
+        return delegate.countExpired();
+    }
+
+    @Override
+    public List<ShortenedUrl> findAll() {
+        return delegate.findAll();
+    }
+
+    /**
+     * Показатели хранилища под фильтром и число поисков, отсеченных фильтром
+     */
+    @Override
+    public Map<String, Object> getStorageStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(delegate.getStorageStats());
+        stats.put("filterRejectedLookups", getRejectedLookups());
+        return stats;
+    }
+
+    /**
+     * Загрузить ссылки из JSON-файла в файловое хранилище через этот фильтр:
+     * каждая ссылка сохраняется здесь, и ее код сразу попадает в фильтр
+     */
+    public SnapshotLoadStats importJson(Path source) throws IOException {
+        if (!(delegate instanceof FileUrlRepository fileRepository)) {
+            throw new UnsupportedOperationException(
+                    "Импорт JSON через фильтр поддерживается только для файлового хранилища");
+        }
+        return fileRepository.importJson(source, this::save);
+    }
+
+    /**
+     * Пересобрать фильтр по хранилищу - после изменений, сделанных в обход этого декоратора
+     */
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            filter = build(delegate.count());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Сколько поисков отсечено фильтром без обращения к хранилищу
+     */
+    public long getRejectedLookups() {
+        return rejectedLookups.sum();
+    }
+
+    public UrlRepository getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Закрыть хранилище под фильтром; хранилища проекта закрываются без проверяемых исключений
+     */
+    @Override
+    public void close() {
+        if (delegate instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Ошибка закрытия хранилища", e);
+            }
+        }
+    }
+
+    // Запас вдвое, чтобы новые ссылки не вызывали пересборку сразу после запуска
+    private CuckooFilter build(long expectedEntries) {
+        List<ShortenedUrl> urls = delegate.findAll();
+        long capacity = Math.max(expectedEntries, urls.size() * 2L);
+        while (true) {
+            CuckooFilter built = new CuckooFilter(capacity);
+            boolean complete = true;
+            for (ShortenedUrl url : urls) {
+                if (!built.add(url.getShortCode().value())) {
+                    complete = false;
+                    break;
+                }
+            }
+            if (complete) {
+                return built;
+            }
+            capacity *= 2;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Политика сброса журнала на диск (write + fsync)
+ */
+public enum FsyncPolicy {
+    /**
+     * Сбрасывать сразу, как только появились записи; параллельные записи объединяются в одну пачку
+     */
+    ALWAYS,
+
+    /**
+     * Сбрасывать раз в N миллисекунд
+     */
+    INTERVAL,
+
+    /**
+     * Сбрасывать при накоплении N записей (но не реже, чем раз в интервал)
+     */
+    RECORDS;
+
+    public static FsyncPolicy parse(String value) {
+        if (value == null || value.isBlank()) {
+            return INTERVAL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестная политика fsync: " + value);
+        }
+    }
+}
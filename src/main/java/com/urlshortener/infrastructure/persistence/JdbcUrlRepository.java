@@ -0,0 +1,454 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.core.domain.models.ClickClaim;
+import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.core.domain.models.DomainClock;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.DateTimeProvider;
+import com.urlshortener.core.ports.output.UrlRepository;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Реализация репозитория ссылок во встроенной базе H2 (файловый режим, без отдельного сервера).
+ *
+ * Выборки по пользователю, подсчеты и проверка дубликатов выполняются запросами по индексам.
+ *
+ * Каждое чтение из базы создает новый экземпляр ссылки, поэтому CAS в памяти не защищает
+ * лимит при параллельных переходах: {@link #claimClick} засчитывает переход одним условным
+ * UPDATE в базе. Счетчики, засчитанные в памяти и переданные в {@link #updateClicks}, копятся
+ * и пишутся пачкой (batch) раз в databaseFlushIntervalMs; запись никогда не уменьшает счетчик в базе.
+ *
+ * Счетчик может прийти с опозданием, когда ссылку уже удалили или отредактировали. Такой экземпляр
+ * не совпадает со строкой в базе (адрес, дата создания и срок), поэтому чтение его не отдает,
+ * а запись пачки его строку не трогает.
+ */
+public class JdbcUrlRepository implements UrlRepository, AutoCloseable {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL =
+            "MERGE INTO urls (short_code, original_url, user_id, created_at, expires_at, " +
+                    "max_clicks, current_clicks, active) KEY (short_code) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SQL =
+            "INSERT INTO urls (short_code, original_url, user_id, created_at, expires_at, " +
+                    "max_clicks, current_clicks, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // Нарушение первичного ключа: код уже занят
+    private static final String DUPLICATE_KEY_STATE = "23505";
+    // Счетчик только растет: экземпляр не откатит переходы, засчитанные в базе, а экземпляр
+    // удаленной или замененной версии ссылки не совпадет со строкой и ничего не изменит
+    private static final String UPDATE_CLICKS_SQL =
+            "UPDATE urls SET current_clicks = GREATEST(current_clicks, ?), active = active AND ? " +
+                    "WHERE short_code = ? AND original_url = ? AND created_at = ? AND expires_at = ?";
+    private static final String SELECT_COLUMNS =
+            "SELECT short_code, original_url, user_id, created_at, expires_at, " +
+                    "max_clicks, current_clicks, active FROM urls";
+    // Условие ShortenedUrl.canBeAccessedAt(now)
+    private static final String ACCESSIBLE =
+            "active AND expires_at >= ? AND current_clicks < max_clicks";
+    // Проверка и увеличение счетчика - одна строка под блокировкой базы; последний переход блокирует ссылку
+    private static final String CLAIM_CLICK_SQL =
+            "SELECT current_clicks, active FROM FINAL TABLE (UPDATE urls " +
+                    "SET current_clicks = current_clicks + 1, active = current_clicks + 1 < max_clicks " +
+                    "WHERE short_code = ? AND " + ACCESSIBLE + ")";
+
+    private final JdbcConnectionPool pool;
+    private final Map<String, ShortenedUrl> pendingClicks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final DateTimeProvider dateTimeProvider;
+
+    public JdbcUrlRepository(ObjectMapper objectMapper, Config config) {
+        this(objectMapper, config, new SystemDateTimeProvider());
+    }
+
+    /**
+     * @param dateTimeProvider часы, с которыми сравниваются сроки действия в запросах
+     */
+    public JdbcUrlRepository(ObjectMapper objectMapper, Config config, DateTimeProvider dateTimeProvider) {
+        this.dateTimeProvider = dateTimeProvider;
+        Path databaseFile = Path.of(config.getDatabaseFile()).toAbsolutePath();
+        this.pool = JdbcConnectionPool.create("jdbc:h2:file:" + databaseFile, "sa", "");
+        this.pool.setMaxConnections(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        createSchema();
+        importFileStorage(objectMapper, config);
+
+        long flushIntervalMs = Math.max(1, config.getDatabaseFlushIntervalMs());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-click-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ShortenedUrl save(ShortenedUrl url) {
+        pendingClicks.remove(url.getShortCode().value());
+        saveAll(List.of(url));
+        return url;
+    }
+
+    /**
+     * Сохранить ссылки одной пачкой в одной транзакции
+     */
+    public void saveAll(Collection<ShortenedUrl> urls) {
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                int batched = 0;
+                for (ShortenedUrl url : urls) {
+                    bindUrl(statement, url);
+                    statement.addBatch();
+                    if (++batched % BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw failure("Ошибка сохранения ссылок", e);
+        }
+    }
+
+    @Override
+    public boolean insertIfAbsent(ShortenedUrl url) {
+        // Первичный ключ по short_code: из двух одновременных вставок одного кода пройдет одна
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            bindUrl(statement, url);
+            statement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (DUPLICATE_KEY_STATE.equals(e.getSQLState())) {
+                return false;
+            }
+            throw failure("Ошибка сохранения ссылки", e);
+        }
+    }
+
+    @Override
+    public void updateClicks(ShortenedUrl url) {
+        pendingClicks.put(url.getShortCode().value(), url);
+    }
+
+    @Override
+    public ClickClaim claimClick(ShortenedUrl url, long nowMillis) {
+        LocalDateTime now = DomainClock.toLocalDateTime(nowMillis);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CLAIM_CLICK_SQL)) {
+            bind(statement, url.getShortCode().value(), now);
+            try (ResultSet rows = statement.executeQuery()) {
+                if (rows.next()) {
+                    // Экземпляр показывает счетчик из базы, а не только свои переходы
+                    url.restoreClicks(rows.getInt("current_clicks"), rows.getBoolean("active"));
+                    return ClickClaim.GRANTED;
+                }
+            }
+        } catch (SQLException e) {
+            throw failure("Ошибка учета перехода", e);
+        }
+        // Отказ: причину определяем по текущему состоянию ссылки в базе
+        query(SELECT_COLUMNS + " WHERE short_code = ?", url.getShortCode().value()).stream().findFirst()
+                .ifPresent(stored -> url.restoreClicks(stored.getCurrentClicks(), stored.isActive()));
+        if (url.isExpiredAt(nowMillis)) {
+            return ClickClaim.EXPIRED;
+        }
+        return url.getCurrentClicks() >= url.getMaxClicks() ? ClickClaim.EXHAUSTED : ClickClaim.BLOCKED;
+    }
+
+    @Override
+    public Optional<ShortenedUrl> findByShortCode(ShortCode shortCode) {
+        // Сначала очередь, потом строка: flush пишет счетчик в базу раньше, чем убирает его из очереди,
+        // поэтому счетчик, записанный между двумя чтениями, окажется в строке, а не потеряется
+        ShortenedUrl pending = pendingClicks.get(shortCode.value());
+        Optional<ShortenedUrl> stored = query(SELECT_COLUMNS + " WHERE short_code = ?", shortCode.value())
+                .stream().findFirst();
+        if (pending == null) {
+            return stored;
+        }
+        // Незаписанный счетчик виден сразу, если он относится к текущей версии ссылки
+        if (stored.isPresent() && isSameVersion(pending, stored.get())) {
+            return Optional.of(pending);
+        }
+        pendingClicks.remove(shortCode.value(), pending);
+        return stored;
+    }
+
+    @Override
+    public List<ShortenedUrl> findByUserId(UserId userId) {
+        flush();
+        return query(SELECT_COLUMNS + " WHERE user_id = ? ORDER BY created_at DESC", userId.value());
+    }
+
+    @Override
+    public boolean existsActiveByUserIdAndUrl(UserId userId, Url originalUrl, long nowMillis) {
+        flush();
+        return countWhere("user_id = ? AND original_url = ? AND " + ACCESSIBLE,
+                userId.value(), originalUrl.value(), DomainClock.toLocalDateTime(nowMillis)) > 0;
+    }
+
+    @Override
+    public void delete(ShortCode shortCode) {
+        pendingClicks.remove(shortCode.value());
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM urls WHERE short_code = ?")) {
+            statement.setString(1, shortCode.value());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("Ошибка удаления ссылки", e);
+        }
+    }
+
+    @Override
+    public boolean existsByShortCode(ShortCode shortCode) {
+        return countWhere("short_code = ?", shortCode.value()) > 0;
+    }
+
+    @Override
+    public long count() {
+        return countWhere("TRUE");
+    }
+
+    @Override
+    public long countActive() {
+        flush();
+        return countWhere(ACCESSIBLE, dateTimeProvider.now());
+    }
+
+    @Override
+    public long countExpired() {
+        return countWhere("expires_at < ?", dateTimeProvider.now());
+    }
+
+    @Override
+    public long deleteExpired(long nowMillis) {
+        flush();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM urls WHERE expires_at < ?")) {
+            statement.setObject(1, DomainClock.toLocalDateTime(nowMillis));
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("Ошибка удаления просроченных ссылок", e);
+        }
+    }
+
+    @Override
+    public List<ShortenedUrl> findAll() {
+        flush();
+        return query(SELECT_COLUMNS);
+    }
+
+    /**
+     * Загрузить ссылки из JSON-файла; существующие ссылки с теми же кодами заменяются
+     */
+    public SnapshotLoadStats importJson(Path source, ObjectMapper objectMapper) throws IOException {
+        List<ShortenedUrl> batch = new ArrayList<>(BATCH_SIZE);
+        SnapshotLoadStats stats = new JsonSnapshotLoader(objectMapper.getFactory(), 1).load(source, url -> {
+            batch.add(url);
+            if (batch.size() == BATCH_SIZE) {
+                saveAll(batch);
+                batch.clear();
+            }
+        });
+        saveAll(batch);
+        return stats;
+    }
+
+    /**
+     * Записать накопленные счетчики переходов одной пачкой
+     */
+    public void flush() {
+        if (pendingClicks.isEmpty()) {
+            return;
+        }
+        List<ShortenedUrl> drained = new ArrayList<>();
+        for (Map.Entry<String, ShortenedUrl> entry : pendingClicks.entrySet()) {
+            drained.add(entry.getValue());
+        }
+
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_CLICKS_SQL)) {
+                for (ShortenedUrl url : drained) {
+                    statement.setInt(1, url.getCurrentClicks());
+                    statement.setBoolean(2, url.isActive());
+                    statement.setString(3, url.getShortCode().value());
+                    statement.setString(4, url.getOriginalUrl().value());
+                    statement.setObject(5, storedTime(url.getCreatedAt()));
+                    statement.setObject(6, url.getExpiresAt());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw failure("Ошибка записи счетчиков переходов", e);
+        }
+
+        // Ссылка остается в памяти, если ее заменили или снова изменили после начала записи
+        for (ShortenedUrl url : drained) {
+            pendingClicks.remove(url.getShortCode().value(), url);
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        pool.dispose();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("❌ " + e.getMessage());
+        }
+    }
+
+    private void createSchema() {
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS urls (" +
+                    "short_code VARCHAR(64) PRIMARY KEY, " +
+                    "original_url VARCHAR(8192) NOT NULL, " +
+                    "user_id UUID NOT NULL, " +
+                    "created_at TIMESTAMP NOT NULL, " +
+                    "expires_at TIMESTAMP NOT NULL, " +
+                    "max_clicks INT NOT NULL, " +
+                    "current_clicks INT NOT NULL, " +
+                    "active BOOLEAN NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_urls_user_id ON urls (user_id)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_urls_expires_at ON urls (expires_at)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_urls_user_url ON urls (user_id, original_url)");
+        } catch (SQLException e) {
+            throw failure("Не удалось подготовить базу данных", e);
+        }
+    }
+
+    // Первый запуск на пустой базе: переносим ссылки из JSON-снимка файлового хранилища
+    private void importFileStorage(ObjectMapper objectMapper, Config config) {
+        Path snapshot = Path.of(config.getStorageFile());
+        if (count() > 0 || !Files.exists(snapshot)) {
+            return;
+        }
+        try {
+            SnapshotLoadStats stats = importJson(snapshot, objectMapper);
+            System.out.println("🔄 Импортировано в базу " + stats.loaded() + " ссылок из " + snapshot);
+        } catch (IOException e) {
+            System.err.println("❌ Ошибка импорта ссылок в базу: " + e.getMessage());
+        }
+    }
+
+    private List<ShortenedUrl> query(String sql, Object... parameters) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, parameters);
+            List<ShortenedUrl> urls = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    urls.add(readUrl(rows));
+                }
+            }
+            return urls;
+        } catch (SQLException e) {
+            throw failure("Ошибка чтения ссылок", e);
+        }
+    }
+
+    private long countWhere(String condition, Object... parameters) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM urls WHERE " + condition)) {
+            bind(statement, parameters);
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return rows.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw failure("Ошибка подсчета ссылок", e);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object... parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+    }
+
+    private static ShortenedUrl readUrl(ResultSet rows) throws SQLException {
+        return new ShortenedUrl(
+                new Url(rows.getString("original_url")),
+                new ShortCode(rows.getString("short_code")),
+                new UserId(rows.getObject("user_id", UUID.class)),
+                rows.getObject("created_at", LocalDateTime.class),
+                rows.getObject("expires_at", LocalDateTime.class),
+                rows.getInt("max_clicks"),
+                rows.getInt("current_clicks"),
+                rows.getBoolean("active")
+        );
+    }
+
+    // Одна и та же версия ссылки: редактирование меняет адрес или срок, повторное создание - дату
+    private static boolean isSameVersion(ShortenedUrl url, ShortenedUrl stored) {
+        return url.getOriginalUrl().equals(stored.getOriginalUrl())
+                && storedTime(url.getCreatedAt()).equals(stored.getCreatedAt())
+                && url.getExpiresAtMillis() == stored.getExpiresAtMillis();
+    }
+
+    private static void bindUrl(PreparedStatement statement, ShortenedUrl url) throws SQLException {
+        statement.setString(1, url.getShortCode().value());
+        statement.setString(2, url.getOriginalUrl().value());
+        statement.setObject(3, url.getUserId().value());
+        statement.setObject(4, storedTime(url.getCreatedAt()));
+        statement.setObject(5, url.getExpiresAt());
+        statement.setInt(6, url.getMaxClicks());
+        statement.setInt(7, url.getCurrentClicks());
+        statement.setBoolean(8, url.isActive());
+    }
+
+    // TIMESTAMP хранит микросекунды: дата экземпляра из памяти сравнивается с базой в той же точности
+    private static LocalDateTime storedTime(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static IllegalStateException failure(String message, SQLException e) {
+        return new IllegalStateException(message + ": " + e.getMessage(), e);
+    }
+}
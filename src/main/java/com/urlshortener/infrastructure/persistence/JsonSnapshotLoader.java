@@ -0,0 +1,238 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый загрузчик JSON-снимка ссылок.
+ * Записи читаются по одной через {@link JsonParser}, без построения дерева всего файла;
+ * создание доменных объектов (с валидацией) может выполняться пачками на нескольких ядрах.
+ * Пул для этого открывает вызывающий ({@link #openExecutor()}) - один на все файлы восстановления.
+ */
+public class JsonSnapshotLoader {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private final JsonFactory jsonFactory;
+    private final int threads;
+
+    public JsonSnapshotLoader(JsonFactory jsonFactory, int threads) {
+        this.jsonFactory = jsonFactory;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Пул потоков для загрузки; null, если загрузка однопоточная. Закрывается через {@link #closeExecutor}
+     */
+    public ExecutorService openExecutor() {
+        return threads > 1 ? Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-loader");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public static void closeExecutor(ExecutorService executor) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Загрузить один файл (например, импорт) на собственном пуле, который закрывается после чтения
+     */
+    public SnapshotLoadStats load(Path file, Consumer<ShortenedUrl> sink) throws IOException {
+        ExecutorService executor = openExecutor();
+        try {
+            return load(file, sink, executor);
+        } finally {
+            closeExecutor(executor);
+        }
+    }
+
+    /**
+     * Загрузить снимок, передавая каждую ссылку в sink. Пачки разбираются на executor вызывающего
+     * (null - в текущем потоке; с пулом sink вызывается из нескольких потоков).
+     * Метод возвращается, когда разобраны все пачки этого файла; пул остается открытым.
+     */
+    public SnapshotLoadStats load(Path file, Consumer<ShortenedUrl> sink, ExecutorService executor) throws IOException {
+        long startNanos = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        AtomicLong checksum = new AtomicLong();
+        SnapshotMetadata metadata = null;
+
+        // Ограничиваем число пачек в полете, чтобы память не зависела от размера файла;
+        // все разрешения разом означают, что пачек этого файла в пуле больше нет
+        int maxInFlight = threads * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (JsonParser parser = jsonFactory.createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Ожидался JSON-объект в начале снимка");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("metadata".equals(field) && value == JsonToken.START_OBJECT) {
+                    metadata = readMetadata(parser);
+                    continue;
+                }
+                if (!"urls".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                List<RawUrl> batch = new ArrayList<>(BATCH_SIZE);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    batch.add(readRaw(parser));
+                    if (batch.size() == BATCH_SIZE) {
+                        submit(batch, executor, inFlight, sink, loaded, skipped, checksum);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                submit(batch, executor, inFlight, sink, loaded, skipped, checksum);
+            }
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+
+        return new SnapshotLoadStats(loaded.get(), skipped.get(), System.nanoTime() - startNanos,
+                checksum.get(), metadata);
+    }
+
+    /**
+     * Прочитать блок metadata; без контрольной суммы (снимки до версии 2.1) возвращает null
+     */
+    private static SnapshotMetadata readMetadata(JsonParser parser) throws IOException {
+        long records = -1;
+        Long checksum = null;
+        long walSegment = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "totalUrls" -> records = parser.getValueAsLong();
+                case "checksum" -> checksum = parser.getValueAsLong();
+                case "walSegment" -> walSegment = parser.getValueAsLong();
+                default -> parser.skipChildren();
+            }
+        }
+        return checksum != null ? new SnapshotMetadata(records, checksum, walSegment) : null;
+    }
+
+    /**
+     * Прочитать поля одной ссылки; парсер должен стоять на START_OBJECT
+     */
+    public static RawUrl readRaw(JsonParser parser) throws IOException {
+        RawUrl raw = new RawUrl();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "originalUrl" -> raw.originalUrl = parser.getValueAsString();
+                case "shortCode" -> raw.shortCode = parser.getValueAsString();
+                case "userId" -> raw.userId = parser.getValueAsString();
+                case "createdAt" -> raw.createdAt = parser.getValueAsString();
+                case "expiresAt" -> raw.expiresAt = parser.getValueAsString();
+                case "maxClicks" -> raw.maxClicks = parser.getValueAsInt();
+                case "currentClicks" -> raw.currentClicks = parser.getValueAsInt();
+                case "active" -> raw.active = parser.getValueAsBoolean();
+                default -> parser.skipChildren();
+            }
+        }
+        return raw;
+    }
+
+    private void submit(List<RawUrl> batch, ExecutorService executor, Semaphore inFlight,
+                        Consumer<ShortenedUrl> sink, AtomicLong loaded, AtomicLong skipped,
+                        AtomicLong checksum) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (executor == null) {
+            convert(batch, sink, loaded, skipped, checksum);
+            return;
+        }
+
+        inFlight.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                convert(batch, sink, loaded, skipped, checksum);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void convert(List<RawUrl> batch, Consumer<ShortenedUrl> sink,
+                         AtomicLong loaded, AtomicLong skipped, AtomicLong checksum) {
+        for (RawUrl raw : batch) {
+            try {
+                ShortenedUrl url = raw.toDomain();
+                checksum.addAndGet(SnapshotChecksum.of(url));
+                sink.accept(url);
+                loaded.incrementAndGet();
+            } catch (Exception e) {
+                skipped.incrementAndGet();
+                System.err.println("⚠️ Ошибка загрузки записи: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Поля ссылки в том виде, в каком они лежат в JSON
+     */
+    public static final class RawUrl {
+        private String originalUrl;
+        private String shortCode;
+        private String userId;
+        private String createdAt;
+        private String expiresAt;
+        private int maxClicks;
+        private int currentClicks;
+        private boolean active;
+
+        public ShortenedUrl toDomain() {
+            // Без expiresAt ссылка бессрочная (ShortenedUrl.NO_EXPIRY), как при чтении через Jackson
+            if (originalUrl == null || shortCode == null || userId == null) {
+                throw new IllegalArgumentException("В записи не хватает обязательных полей");
+            }
+            return new ShortenedUrl(
+                    new Url(originalUrl),
+                    new ShortCode(shortCode),
+                    UserId.fromString(userId),
+                    createdAt != null ? LocalDateTime.parse(createdAt) : null,
+                    expiresAt != null ? LocalDateTime.parse(expiresAt) : null,
+                    maxClicks,
+                    currentClicks,
+                    active
+            );
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.urlshortener.infrastructure.persistence;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ограниченная очередь "много писателей - один читатель" на кольцевом массиве.
+ *
+ * У каждой ячейки свой номер круга: писатель занимает позицию CAS-ом хвоста и публикует
+ * элемент записью номера ячейки, читатель забирает ячейку, когда номер совпал с ожидаемым.
+ * Без блокировок и без выделения памяти на элемент.
+ */
+final class MpscRingBuffer<E> {
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Пишет только читатель; volatile - для size() из других потоков
+    private volatile long head;
+
+    MpscRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Поставить элемент в очередь; false, если очередь заполнена
+     */
+    boolean offer(E item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Забрать элемент; null, если очередь пуста. Вызывает только поток-читатель
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E item = (E) items[index];
+        items[index] = null;
+        sequences.set(index, position + items.length);
+        head = position + 1;
+        return item;
+    }
+
+    /**
+     * Сколько позиций занято писателями за все время
+     */
+    long producedCount() {
+        return tail.get();
+    }
+
+    /**
+     * Сколько элементов забрано читателем за все время
+     */
+    long consumedCount() {
+        return head;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return items.length;
+    }
+}
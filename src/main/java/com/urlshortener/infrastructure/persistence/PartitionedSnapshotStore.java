@@ -0,0 +1,233 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Снимок, разбитый на сегменты по времени истечения ссылок.
+ *
+ * Каждый сегмент (ведро шириной expiryPartitionHours) - отдельный файл; какие файлы составляют
+ * снимок, записано в манифесте (manifest.json, предыдущее поколение - manifest.json.prev).
+ * При контрольной точке переписываются только измененные сегменты, а сегмент, срок которого
+ * целиком прошел, просто исключается из манифеста и его файл удаляется.
+ * Ссылки без срока ({@link ShortenedUrl#NO_EXPIRY}) лежат в отдельном сегменте NEVER_BUCKET, который не истекает.
+ */
+public class PartitionedSnapshotStore {
+
+    private static final String MANIFEST = "manifest.json";
+    private static final String PREVIOUS_SUFFIX = ".prev";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BUCKET_PREFIX = "bucket-";
+
+    // Сегмент ссылок без срока
+    public static final long NEVER_BUCKET = Long.MAX_VALUE;
+
+    /**
+     * Состав снимка: номер поколения, первый сегмент журнала вне снимка,
+     * ширина сегментов и файлы сегментов по номерам
+     */
+    private record Manifest(long generation, long walSegment, long bucketSeconds, Map<Long, String> buckets) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final SnapshotStore files;
+    private final Path directory;
+    private final long bucketSeconds;
+    private Manifest current;
+
+    public PartitionedSnapshotStore(ObjectMapper objectMapper, SnapshotStore files, Path storageFile, int bucketHours) {
+        this.objectMapper = objectMapper;
+        this.files = files;
+        Path absolute = storageFile.toAbsolutePath();
+        this.directory = absolute.resolveSibling(absolute.getFileName() + ".parts");
+        this.bucketSeconds = Math.max(1, bucketHours) * 3600L;
+        this.current = new Manifest(0, 0, bucketSeconds, new TreeMap<>());
+    }
+
+    /**
+     * Номер сегмента, в который попадает ссылка
+     */
+    public long bucketOf(ShortenedUrl url) {
+        if (url.getExpiresAtMillis() == ShortenedUrl.NO_EXPIRY) {
+            return NEVER_BUCKET;
+        }
+        return Math.floorDiv(url.getExpiresAt().toEpochSecond(ZoneOffset.UTC), bucketSeconds);
+    }
+
+    /**
+     * Истек ли срок всех ссылок сегмента
+     */
+    public boolean isExpired(long bucket, long nowEpochSecond) {
+        if (bucket == NEVER_BUCKET) {
+            return false;
+        }
+        return (bucket + 1) * bucketSeconds <= nowEpochSecond;
+    }
+
+    public boolean exists() {
+        return Files.exists(manifestPath()) || Files.exists(previousManifestPath());
+    }
+
+    /**
+     * Загрузить последнее целое поколение. Если манифест или один из сегментов поврежден,
+     * вызывается reset и читается предыдущее поколение. Возвращает null, если снимков нет.
+     */
+    public SnapshotStore.LoadResult load(Consumer<ShortenedUrl> sink, Runnable reset) {
+        // Один пул загрузки на все сегменты обоих поколений
+        ExecutorService executor = files.openLoadExecutor();
+        try {
+            return load(sink, reset, executor);
+        } finally {
+            JsonSnapshotLoader.closeExecutor(executor);
+        }
+    }
+
+    private SnapshotStore.LoadResult load(Consumer<ShortenedUrl> sink, Runnable reset, ExecutorService executor) {
+        long startNanos = System.nanoTime();
+        for (Path manifestFile : List.of(manifestPath(), previousManifestPath())) {
+            if (!Files.exists(manifestFile)) {
+                continue;
+            }
+            try {
+                Manifest manifest = readManifest(manifestFile);
+                long loaded = 0;
+                long skipped = 0;
+                long checksum = 0;
+                boolean intact = true;
+                for (String file : manifest.buckets().values()) {
+                    SnapshotLoadStats stats = files.readFile(directory.resolve(file), sink, executor);
+                    loaded += stats.loaded();
+                    skipped += stats.skipped();
+                    checksum += stats.checksum();
+                    intact &= stats.isIntact();
+                }
+                if (!intact) {
+                    System.err.println("⚠️ Сегменты снимка " + manifestFile.getFileName() +
+                            " повреждены: контрольная сумма не совпадает");
+                    reset.run();
+                    continue;
+                }
+                current = manifest;
+                SnapshotLoadStats total = new SnapshotLoadStats(loaded, skipped, System.nanoTime() - startNanos,
+                        checksum, new SnapshotMetadata(loaded, checksum, manifest.walSegment()));
+                return new SnapshotStore.LoadResult(total, manifestFile, false);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("❌ Ошибка загрузки снимка " + manifestFile.getFileName() + ": " + e.getMessage());
+                reset.run();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Совпадает ли ширина сегментов загруженного снимка с настройкой
+     */
+    public boolean matchesBucketWidth() {
+        return current.bucketSeconds() == bucketSeconds;
+    }
+
+    /**
+     * Записать новое поколение: измененные сегменты переписываются (пустые исключаются),
+     * удаленные исключаются, остальные переходят из прошлого манифеста без изменений.
+     */
+    public void write(Map<Long, List<ShortenedUrl>> changed, Set<Long> dropped, long walSegment) throws IOException {
+        Files.createDirectories(directory);
+        long generation = current.generation() + 1;
+        Map<Long, String> buckets = new TreeMap<>(current.buckets());
+        if (!matchesBucketWidth()) {
+            buckets.clear();
+        }
+        buckets.keySet().removeAll(dropped);
+
+        for (Map.Entry<Long, List<ShortenedUrl>> bucket : changed.entrySet()) {
+            if (bucket.getValue().isEmpty()) {
+                buckets.remove(bucket.getKey());
+                continue;
+            }
+            String file = BUCKET_PREFIX + bucket.getKey() + ".g" + generation + files.fileExtension();
+            files.writeFile(directory.resolve(file), bucket.getValue(), walSegment);
+            buckets.put(bucket.getKey(), file);
+        }
+
+        Manifest next = new Manifest(generation, walSegment, bucketSeconds, buckets);
+        writeManifest(next);
+        Manifest previous = current;
+        current = next;
+        deleteUnreferenced(previous, next);
+    }
+
+    private void writeManifest(Manifest manifest) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("generation", manifest.generation());
+        root.put("walSegment", manifest.walSegment());
+        root.put("bucketSeconds", manifest.bucketSeconds());
+        ObjectNode buckets = root.putObject("buckets");
+        manifest.buckets().forEach((bucket, file) -> buckets.put(String.valueOf(bucket), file));
+
+        Path target = manifestPath();
+        Path temp = directory.resolve(MANIFEST + TEMP_SUFFIX);
+        objectMapper.writeValue(temp.toFile(), root);
+        SnapshotStore.force(temp);
+        // Сегменты нового поколения должны оказаться на диске раньше манифеста
+        SnapshotStore.forceDirectory(directory);
+        if (Files.exists(target)) {
+            Files.move(target, previousManifestPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        SnapshotStore.forceDirectory(directory);
+    }
+
+    private Manifest readManifest(Path file) throws IOException {
+        JsonNode root = objectMapper.readTree(file.toFile());
+        if (root == null || !root.has("buckets")) {
+            throw new IOException("Манифест снимка поврежден");
+        }
+        Map<Long, String> buckets = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = root.get("buckets").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            buckets.put(Long.parseLong(field.getKey()), field.getValue().asText());
+        }
+        return new Manifest(root.path("generation").asLong(), root.path("walSegment").asLong(),
+                root.path("bucketSeconds").asLong(bucketSeconds), buckets);
+    }
+
+    // Файлы, на которые не ссылается ни текущий, ни предыдущий манифест
+    private void deleteUnreferenced(Manifest previous, Manifest next) throws IOException {
+        Set<String> referenced = new HashSet<>(previous.buckets().values());
+        referenced.addAll(next.buckets().values());
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(BUCKET_PREFIX) && !referenced.contains(name)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private Path manifestPath() {
+        return directory.resolve(MANIFEST);
+    }
+
+    private Path previousManifestPath() {
+        return directory.resolve(MANIFEST + PREVIOUS_SUFFIX);
+    }
+}
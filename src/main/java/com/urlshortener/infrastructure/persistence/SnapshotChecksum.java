@@ -0,0 +1,44 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.urlshortener.core.domain.models.ShortenedUrl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Контрольная сумма снимка: сумма CRC32C канонического представления каждой записи.
+ * Не зависит от порядка записей, поэтому считается и при параллельной загрузке.
+ */
+public final class SnapshotChecksum {
+
+    // Секунда истечения для ссылки без срока ({@link ShortenedUrl#NO_EXPIRY})
+    static final long NO_EXPIRY_SECOND = Long.MAX_VALUE;
+
+    private SnapshotChecksum() {
+    }
+
+    public static long of(ShortenedUrl url) {
+        String canonical = url.getShortCode().value() + '\n' +
+                url.getOriginalUrl().value() + '\n' +
+                url.getUserId().value() + '\n' +
+                url.getCreatedAt().toEpochSecond(ZoneOffset.UTC) + '\n' +
+                expiresAtSecond(url) + '\n' +
+                url.getMaxClicks() + '\n' +
+                url.getCurrentClicks() + '\n' +
+                url.isActive();
+        CRC32C crc = new CRC32C();
+        crc.update(canonical.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Секунда истечения в том виде, в каком она попадает в снимок; для ссылки без срока - NO_EXPIRY_SECOND
+     */
+    static long expiresAtSecond(ShortenedUrl url) {
+        if (url.getExpiresAtMillis() == ShortenedUrl.NO_EXPIRY) {
+            return NO_EXPIRY_SECOND;
+        }
+        return url.getExpiresAt().toEpochSecond(ZoneOffset.UTC);
+    }
+}
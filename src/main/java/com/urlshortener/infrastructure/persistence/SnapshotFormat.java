@@ -0,0 +1,27 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Формат файла снимка ссылок
+ */
+public enum SnapshotFormat {
+    /**
+     * Человекочитаемый JSON (также используется для импорта/экспорта)
+     */
+    JSON,
+
+    /**
+     * Компактный бинарный формат, читается через mmap
+     */
+    BINARY;
+
+    public static SnapshotFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return JSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный формат снимка: " + value);
+        }
+    }
+}
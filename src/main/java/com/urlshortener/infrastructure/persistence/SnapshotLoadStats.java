@@ -0,0 +1,28 @@
+package com.urlshortener.infrastructure.persistence;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Итоги загрузки снимка. metadata равно null для старых снимков без контрольной суммы.
+ */
+public record SnapshotLoadStats(long loaded, long skipped, long elapsedNanos,
+                                long checksum, SnapshotMetadata metadata) {
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public long recordsPerSecond() {
+        return elapsedNanos > 0 ? loaded * 1_000_000_000L / elapsedNanos : loaded;
+    }
+
+    /**
+     * Все записи прочитаны и совпадают с контрольной суммой (старые снимки без суммы считаются целыми)
+     */
+    public boolean isIntact() {
+        if (metadata == null) {
+            return skipped == 0;
+        }
+        return skipped == 0 && loaded == metadata.records() && checksum == metadata.checksum();
+    }
+}
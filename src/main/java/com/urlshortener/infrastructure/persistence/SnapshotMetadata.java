@@ -0,0 +1,8 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Служебный блок снимка: число записей, контрольная сумма
+ * и первый сегмент журнала, не вошедший в снимок
+ */
+public record SnapshotMetadata(long records, long checksum, long walSegment) {
+}
@@ -0,0 +1,274 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Файлы снимков на диске.
+ *
+ * Снимок пишется во временный файл, сбрасывается на диск и атомарно переименовывается
+ * поверх текущего; предыдущее поколение остается рядом с суффиксом .prev.
+ * Оборванная запись не портит текущий снимок, а поврежденный снимок
+ * (не сошлась контрольная сумма) заменяется предыдущим поколением.
+ */
+public class SnapshotStore {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String PREVIOUS_SUFFIX = ".prev";
+    private static final String JSON_VERSION = "2.1";
+    private static final String BINARY_EXTENSION = ".bin";
+
+    /**
+     * Результат загрузки: статистика, файл, из которого загружено,
+     * и признак импорта JSON-снимка в бинарном режиме
+     */
+    public record LoadResult(SnapshotLoadStats stats, Path file, boolean imported) {
+
+        /**
+         * Первый сегмент журнала, который нужно применить поверх снимка
+         */
+        public long walSegment() {
+            return stats.metadata() != null ? stats.metadata().walSegment() : 0;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final JsonSnapshotLoader jsonLoader;
+    private final BinarySnapshotCodec binaryCodec;
+    private final SnapshotFormat format;
+    private final Path jsonFile;
+    private final Path binaryFile;
+
+    public SnapshotStore(ObjectMapper objectMapper, Path storageFile, SnapshotFormat format, int loadThreads) {
+        this.objectMapper = objectMapper;
+        this.jsonLoader = new JsonSnapshotLoader(objectMapper.getFactory(), loadThreads);
+        this.binaryCodec = new BinarySnapshotCodec();
+        this.format = format;
+        this.jsonFile = storageFile.toAbsolutePath();
+        this.binaryFile = binaryPath(jsonFile);
+    }
+
+    public Path snapshotPath() {
+        return format == SnapshotFormat.BINARY ? binaryFile : jsonFile;
+    }
+
+    /**
+     * Есть ли на диске снимок (любого поколения, в бинарном режиме - и JSON для импорта)
+     */
+    public boolean exists() {
+        return !existing(snapshotPath()).isEmpty()
+                || (format == SnapshotFormat.BINARY && !existing(jsonFile).isEmpty());
+    }
+
+    /**
+     * Атомарно записать новое поколение снимка.
+     * walSegment - первый сегмент журнала, изменения которого в снимок не вошли.
+     */
+    public void write(List<ShortenedUrl> urls, long walSegment) throws IOException {
+        Path target = snapshotPath();
+        Path temp = sibling(target, TEMP_SUFFIX);
+        Files.createDirectories(target.getParent());
+
+        if (format == SnapshotFormat.BINARY) {
+            binaryCodec.write(temp, urls, walSegment);
+        } else {
+            writeJson(temp, urls, walSegment);
+        }
+        force(temp);
+
+        if (Files.exists(target)) {
+            Files.move(target, sibling(target, PREVIOUS_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(target.getParent());
+    }
+
+    /**
+     * Атомарно записать отдельный файл снимка (без предыдущего поколения) в текущем формате
+     */
+    void writeFile(Path target, List<ShortenedUrl> urls, long walSegment) throws IOException {
+        Path temp = sibling(target, TEMP_SUFFIX);
+        Files.createDirectories(target.getParent());
+        if (format == SnapshotFormat.BINARY) {
+            binaryCodec.write(temp, urls, walSegment);
+        } else {
+            writeJson(temp, urls, walSegment);
+        }
+        force(temp);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Прочитать отдельный файл снимка; формат определяется по расширению.
+     * executor - пул загрузки JSON из {@link #openLoadExecutor()}, общий для всех файлов восстановления
+     */
+    SnapshotLoadStats readFile(Path file, Consumer<ShortenedUrl> sink, ExecutorService executor) throws IOException {
+        return file.getFileName().toString().endsWith(BINARY_EXTENSION)
+                ? binaryCodec.load(file, sink)
+                : jsonLoader.load(file, sink, executor);
+    }
+
+    /**
+     * Пул для загрузки JSON-файлов одного восстановления (null - в текущем потоке)
+     */
+    ExecutorService openLoadExecutor() {
+        return jsonLoader.openExecutor();
+    }
+
+    /**
+     * Расширение файлов снимка в текущем формате
+     */
+    String fileExtension() {
+        return format == SnapshotFormat.BINARY ? BINARY_EXTENSION : ".json";
+    }
+
+    /**
+     * Выгрузить ссылки в JSON-файл (формат обмена), без смены поколений
+     */
+    public void exportJson(Path target, List<ShortenedUrl> urls) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        writeJson(absolute, urls, 0);
+    }
+
+    /**
+     * Прочитать JSON-файл обмена
+     */
+    public SnapshotLoadStats importJson(Path source, Consumer<ShortenedUrl> sink) throws IOException {
+        return jsonLoader.load(source, sink);
+    }
+
+    /**
+     * Загрузить последний целый снимок. Если текущий поврежден, вызывается reset
+     * (очистить уже загруженное) и читается предыдущее поколение.
+     * Возвращает null, если снимков нет.
+     */
+    public LoadResult load(Consumer<ShortenedUrl> sink, Runnable reset) {
+        List<Path> candidates = existing(snapshotPath());
+        boolean imported = false;
+        if (candidates.isEmpty() && format == SnapshotFormat.BINARY) {
+            // Переход с JSON: читаем JSON-снимок, бинарный будет записан сразу после загрузки
+            candidates = existing(jsonFile);
+            imported = true;
+        }
+
+        ExecutorService executor = jsonLoader.openExecutor();
+        try {
+            return load(candidates, imported, sink, reset, executor);
+        } finally {
+            JsonSnapshotLoader.closeExecutor(executor);
+        }
+    }
+
+    private LoadResult load(List<Path> candidates, boolean imported, Consumer<ShortenedUrl> sink,
+                            Runnable reset, ExecutorService executor) {
+        LoadResult damaged = null;
+        for (Path candidate : candidates) {
+            SnapshotLoadStats stats;
+            try {
+                stats = read(candidate, sink, executor);
+            } catch (IOException e) {
+                System.err.println("❌ Ошибка загрузки снимка " + candidate.getFileName() + ": " + e.getMessage());
+                reset.run();
+                continue;
+            }
+            if (stats.isIntact()) {
+                return new LoadResult(stats, candidate, imported);
+            }
+
+            System.err.println("⚠️ Снимок " + candidate.getFileName() + " поврежден: прочитано " +
+                    stats.loaded() + " записей, контрольная сумма не совпадает");
+            if (damaged == null) {
+                damaged = new LoadResult(stats, candidate, imported);
+            }
+            reset.run();
+        }
+
+        if (damaged == null) {
+            return null;
+        }
+        // Целых поколений нет - берем то, что удалось прочитать из самого свежего
+        System.err.println("⚠️ Загружаем поврежденный снимок " + damaged.file().getFileName() + " как есть");
+        try {
+            return new LoadResult(read(damaged.file(), sink, executor), damaged.file(), imported);
+        } catch (IOException e) {
+            reset.run();
+            return null;
+        }
+    }
+
+    private SnapshotLoadStats read(Path file, Consumer<ShortenedUrl> sink, ExecutorService executor) throws IOException {
+        return file.getFileName().toString().startsWith(binaryFile.getFileName().toString())
+                ? binaryCodec.load(file, sink)
+                : jsonLoader.load(file, sink, executor);
+    }
+
+    private void writeJson(Path file, List<ShortenedUrl> urls, long walSegment) throws IOException {
+        long checksum = 0;
+        for (ShortenedUrl url : urls) {
+            checksum += SnapshotChecksum.of(url);
+        }
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("totalUrls", urls.size());
+        metadata.put("savedAt", LocalDateTime.now().toString());
+        metadata.put("version", JSON_VERSION);
+        metadata.put("checksum", checksum);
+        metadata.put("walSegment", walSegment);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("urls", urls);
+        data.put("metadata", metadata);
+        objectMapper.writeValue(file.toFile(), data);
+    }
+
+    private List<Path> existing(Path current) {
+        List<Path> paths = new ArrayList<>(2);
+        for (Path path : List.of(current, sibling(current, PREVIOUS_SUFFIX))) {
+            if (Files.exists(path)) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    // Переименование надежно только после сброса каталога; не везде поддерживается
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static Path sibling(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    // data/url_shortener_data.json -> data/url_shortener_data.bin
+    private static Path binaryPath(Path storageFile) {
+        String name = storageFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return storageFile.resolveSibling(base + BINARY_EXTENSION);
+    }
+}
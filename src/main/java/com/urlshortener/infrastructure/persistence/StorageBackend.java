@@ -0,0 +1,27 @@
+package com.urlshortener.infrastructure.persistence;
+
+/**
+ * Где хранятся ссылки
+ */
+public enum StorageBackend {
+    /**
+     * Файлы снимков и журнал изменений ({@link FileUrlRepository})
+     */
+    FILE,
+
+    /**
+     * Встроенная база H2 в файловом режиме ({@link JdbcUrlRepository})
+     */
+    H2;
+
+    public static StorageBackend parse(String value) {
+        if (value == null || value.isBlank()) {
+            return FILE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестное хранилище ссылок: " + value);
+        }
+    }
+}
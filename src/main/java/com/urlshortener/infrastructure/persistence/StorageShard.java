@@ -0,0 +1,460 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.urlshortener.core.domain.models.ShortenedUrl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Один шард файлового хранилища: свои ссылки в памяти, свой журнал и свои снимки.
+ * Шарды не делят блокировок, поэтому изменения разных шардов пишутся на диск параллельно.
+ * С {@link PartitionedSnapshotStore} ссылки шарда дополнительно разложены по сегментам времени истечения.
+ */
+class StorageShard implements WriteAheadLog.RecordSource {
+
+    private final String label;
+    private final Path storageFile;
+    private final Map<String, ShortenedUrl> storage = new ConcurrentHashMap<>(); // shortCode -> ShortenedUrl
+    private final SnapshotStore snapshotStore;
+    private final PartitionedSnapshotStore partitions;
+    private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>(); // сегмент -> shortCodes
+    private final Set<Long> dirtyBuckets = ConcurrentHashMap.newKeySet();
+    private final Set<Long> droppedBuckets = ConcurrentHashMap.newKeySet();
+    private boolean rewriteAllBuckets;
+    private final WriteAheadLog wal;
+    private final WalRecordCodec walCodec;
+    private final int checkpointRecords;
+    private final boolean syncCommit;
+    private final DirtyTracker dirtyTracker = new DirtyTracker();
+    // Начальный сегмент журнала для предыдущего поколения снимка: более ранние сегменты не нужны
+    private long previousSnapshotSegment;
+    private long replayFrom;
+
+    private ScheduledExecutorService snapshotExecutor;
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
+    private final AtomicLong changeCount = new AtomicLong();
+    private volatile long snapshotChangeCount;
+    private volatile Instant lastSnapshotAt = Instant.now();
+
+    StorageShard(String label, Path storageFile, SnapshotStore snapshotStore, PartitionedSnapshotStore partitions,
+                 WriteAheadLog wal, WalRecordCodec walCodec, int checkpointRecords, boolean syncCommit) {
+        this.label = label;
+        this.storageFile = storageFile;
+        this.snapshotStore = snapshotStore;
+        this.partitions = partitions;
+        this.wal = wal;
+        this.walCodec = walCodec;
+        this.checkpointRecords = Math.max(1, checkpointRecords);
+        this.syncCommit = syncCommit;
+    }
+
+    Map<String, ShortenedUrl> storage() {
+        return storage;
+    }
+
+    /**
+     * Положить ссылку в память; возвращает прежнюю ссылку с тем же кодом
+     */
+    ShortenedUrl put(ShortenedUrl url) {
+        String shortCode = url.getShortCode().value();
+        ShortenedUrl previous = storage.put(shortCode, url);
+        if (partitions != null) {
+            if (previous != null) {
+                removeFromBucket(previous);
+            }
+            long bucket = partitions.bucketOf(url);
+            buckets.computeIfAbsent(bucket, k -> ConcurrentHashMap.newKeySet()).add(shortCode);
+            dirtyBuckets.add(bucket);
+        }
+        return previous;
+    }
+
+    /**
+     * Положить ссылку в память, только если код свободен; возвращает false, если код занят
+     */
+    boolean putIfAbsent(ShortenedUrl url) {
+        String shortCode = url.getShortCode().value();
+        if (storage.putIfAbsent(shortCode, url) != null) {
+            return false;
+        }
+        if (partitions != null) {
+            long bucket = partitions.bucketOf(url);
+            buckets.computeIfAbsent(bucket, k -> ConcurrentHashMap.newKeySet()).add(shortCode);
+            dirtyBuckets.add(bucket);
+        }
+        return true;
+    }
+
+    ShortenedUrl remove(String shortCode) {
+        ShortenedUrl removed = storage.remove(shortCode);
+        if (removed != null && partitions != null) {
+            removeFromBucket(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Убрать из памяти сегменты, срок всех ссылок которых прошел; файлы сегментов
+     * исключаются из снимка при следующей контрольной точке. Возвращает удаленные ссылки.
+     */
+    List<ShortenedUrl> dropExpiredBuckets(long nowEpochSecond) {
+        List<ShortenedUrl> removed = new ArrayList<>();
+        for (Long bucket : new ArrayList<>(buckets.keySet())) {
+            if (!partitions.isExpired(bucket, nowEpochSecond)) {
+                continue;
+            }
+            Set<String> codes = buckets.remove(bucket);
+            droppedBuckets.add(bucket);
+            dirtyBuckets.remove(bucket);
+            for (String shortCode : codes) {
+                ShortenedUrl url = storage.remove(shortCode);
+                if (url != null) {
+                    removed.add(url);
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            changeCount.incrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * Восстановить счетчик переходов из журнала
+     */
+    void restoreClicks(String shortCode, int clicks, boolean active) {
+        ShortenedUrl url = storage.get(shortCode);
+        if (url == null) {
+            return;
+        }
+        url.restoreClicks(clicks, active);
+        if (partitions != null) {
+            dirtyBuckets.add(partitions.bucketOf(url));
+        }
+    }
+
+    boolean isPartitioned() {
+        return partitions != null;
+    }
+
+    SnapshotStore snapshotStore() {
+        return snapshotStore;
+    }
+
+    /**
+     * Есть ли на диске данные шарда (снимок или журнал)
+     */
+    boolean hasData() throws IOException {
+        return snapshotStore.exists() || (partitions != null && partitions.exists())
+                || (wal != null && wal.hasSegments());
+    }
+
+    SnapshotStore.LoadResult loadSnapshot(Consumer<ShortenedUrl> sink, Runnable reset) {
+        SnapshotStore.LoadResult result;
+        if (partitions == null) {
+            result = snapshotStore.load(sink, reset);
+        } else if (partitions.exists()) {
+            result = partitions.load(sink, reset);
+            rewriteAllBuckets = !partitions.matchesBucketWidth();
+        } else {
+            // Переход с одного файла снимка на сегменты: все сегменты будут записаны сразу после загрузки
+            result = snapshotStore.load(sink, reset);
+            rewriteAllBuckets = result != null;
+        }
+        replayFrom = result != null ? result.walSegment() : 0;
+        previousSnapshotSegment = replayFrom;
+        if (!rewriteAllBuckets) {
+            // Загруженное уже лежит в сегментах; грязными станут только изменения из журнала
+            dirtyBuckets.clear();
+        }
+        return result;
+    }
+
+    /**
+     * Нужна ли контрольная точка сразу после загрузки (снимок переводится в сегменты)
+     */
+    boolean needsRewrite() {
+        return rewriteAllBuckets;
+    }
+
+    /**
+     * Применить журнал поверх загруженного снимка; возвращает число примененных записей
+     */
+    int replayWal(Consumer<WalRecordCodec.WalRecord> apply) {
+        if (wal == null) {
+            return 0;
+        }
+        int[] replayed = {0};
+        try {
+            wal.replay(replayFrom, line -> {
+                try {
+                    apply.accept(walCodec.decode(line));
+                    replayed[0]++;
+                } catch (Exception e) {
+                    // Оборванная запись в конце сегмента после сбоя
+                    System.err.println("⚠️ Пропущена поврежденная запись журнала: " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("❌ Ошибка чтения журнала: " + e.getMessage());
+        }
+        changeCount.addAndGet(replayed[0]);
+        return replayed[0];
+    }
+
+    /**
+     * Открыть журнал на запись и запустить периодические снимки
+     */
+    void start(ScheduledExecutorService snapshotExecutor, long intervalSeconds, long initialDelaySeconds) {
+        this.snapshotExecutor = snapshotExecutor;
+        if (wal != null) {
+            try {
+                wal.open(this, this::checkpointIfNeeded);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось открыть журнал " + storageFile, e);
+            }
+        }
+        snapshotExecutor.scheduleWithFixedDelay(this::snapshotIfChanged,
+                initialDelaySeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    void recordUpsert(String shortCode) {
+        changeCount.incrementAndGet();
+        if (wal != null) {
+            dirtyTracker.markUpsert(shortCode);
+            awaitCommit(wal.requestCommit());
+        }
+    }
+
+    void recordClick(String shortCode) {
+        changeCount.incrementAndGet();
+        if (partitions != null) {
+            ShortenedUrl url = storage.get(shortCode);
+            if (url != null) {
+                dirtyBuckets.add(partitions.bucketOf(url));
+            }
+        }
+        if (wal != null) {
+            dirtyTracker.markClick(shortCode);
+            awaitCommit(wal.requestCommit());
+        }
+    }
+
+    void recordDelete(String shortCode) {
+        changeCount.incrementAndGet();
+        if (wal != null) {
+            dirtyTracker.markDelete(shortCode);
+            awaitCommit(wal.requestCommit());
+        }
+    }
+
+    boolean isWalEnabled() {
+        return wal != null;
+    }
+
+    long getSnapshotLag() {
+        return changeCount.get() - snapshotChangeCount;
+    }
+
+    Instant getLastSnapshotAt() {
+        return lastSnapshotAt;
+    }
+
+    /**
+     * Записать последний снимок и закрыть журнал; поток снимков к этому моменту остановлен
+     */
+    void close() {
+        if (wal == null) {
+            if (getSnapshotLag() > 0) {
+                saveToFile();
+            }
+            return;
+        }
+        checkpoint();
+        try {
+            wal.close();
+        } catch (IOException e) {
+            System.err.println("❌ Ошибка закрытия журнала: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Превратить накопленные изменения в записи журнала.
+     * Состояние читается в момент сброса, поэтому записи идемпотентны при повторе.
+     */
+    @Override
+    public List<String> drain() {
+        Map<String, DirtyTracker.Change> changes = dirtyTracker.drain();
+        List<String> records = new ArrayList<>(changes.size());
+        for (Map.Entry<String, DirtyTracker.Change> change : changes.entrySet()) {
+            ShortenedUrl url = storage.get(change.getKey());
+            if (url == null || change.getValue() == DirtyTracker.Change.DELETE) {
+                records.add(walCodec.delete(change.getKey()));
+            } else if (change.getValue() == DirtyTracker.Change.CLICK) {
+                records.add(walCodec.click(url));
+            } else {
+                records.add(walCodec.put(url));
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public int pendingCount() {
+        return dirtyTracker.size();
+    }
+
+    // Вызывается потоком сброса журнала после каждой пачки: сама контрольная точка
+    // выполняется потоком снимков, чтобы не задерживать следующие сбросы
+    private void checkpointIfNeeded() {
+        if (wal.getRecordsInSegment() >= checkpointRecords && checkpointScheduled.compareAndSet(false, true)) {
+            try {
+                snapshotExecutor.execute(() -> {
+                    checkpointScheduled.set(false);
+                    checkpoint();
+                });
+            } catch (RejectedExecutionException e) {
+                // Хранилище закрывается, контрольную точку запишет close()
+                checkpointScheduled.set(false);
+            }
+        }
+    }
+
+    // Периодическая задача потока снимков
+    private void snapshotIfChanged() {
+        if (getSnapshotLag() == 0) {
+            return;
+        }
+        if (wal != null) {
+            checkpoint();
+        } else {
+            saveToFile();
+        }
+    }
+
+    // Параллельные изменения, ожидающие одну и ту же пачку, разделяют один fsync
+    private void awaitCommit(CompletableFuture<Void> commit) {
+        if (!syncCommit || commit == null) {
+            return;
+        }
+        try {
+            commit.join();
+        } catch (CompletionException e) {
+            throw new UncheckedIOException("Изменение не записано в журнал",
+                    e.getCause() instanceof IOException io ? io : new IOException(e.getCause()));
+        }
+    }
+
+    // Новый сегмент, снимок, удаление сегментов, которые не нужны ни одному из двух поколений снимка.
+    // Снимок снимается после ротации, поэтому он не старее ни одной записи в предыдущих сегментах
+    synchronized void checkpoint() {
+        if (wal == null) {
+            saveToFile();
+            return;
+        }
+        try {
+            long firstLiveSegment = wal.rotate();
+            if (writeSnapshot(firstLiveSegment)) {
+                wal.deleteSegmentsBefore(previousSnapshotSegment);
+                previousSnapshotSegment = firstLiveSegment;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Ошибка контрольной точки: " + e.getMessage());
+        }
+    }
+
+    synchronized void saveToFile() {
+        writeSnapshot(0);
+    }
+
+    private boolean writeSnapshot(long walSegment) {
+        if (partitions != null) {
+            return writePartitions(walSegment);
+        }
+        try {
+            // Изменения, сделанные во время копирования, могут не попасть в снимок - считаем их несохраненными
+            long capturedChanges = changeCount.get();
+            List<ShortenedUrl> urls = snapshotCopy();
+            snapshotStore.write(urls, walSegment);
+            snapshotChangeCount = capturedChanges;
+            lastSnapshotAt = Instant.now();
+            System.out.println("💾 " + label + "Данные сохранены (" + urls.size() + " ссылок)");
+            return true;
+
+        } catch (IOException e) {
+            System.err.println("❌ Ошибка сохранения данных: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Переписываются только сегменты, измененные с прошлой контрольной точки
+    private boolean writePartitions(long walSegment) {
+        long capturedChanges = changeCount.get();
+        Set<Long> changed = new HashSet<>(rewriteAllBuckets ? buckets.keySet() : dirtyBuckets);
+        dirtyBuckets.removeAll(changed);
+        Set<Long> dropped = new HashSet<>(droppedBuckets);
+        droppedBuckets.removeAll(dropped);
+
+        Map<Long, List<ShortenedUrl>> copies = new HashMap<>();
+        for (Long bucket : changed) {
+            List<ShortenedUrl> urls = new ArrayList<>();
+            for (String shortCode : buckets.getOrDefault(bucket, Set.of())) {
+                ShortenedUrl url = storage.get(shortCode);
+                if (url != null) {
+                    urls.add(url.copy());
+                }
+            }
+            copies.put(bucket, urls);
+        }
+
+        try {
+            partitions.write(copies, dropped, walSegment);
+            rewriteAllBuckets = false;
+            snapshotChangeCount = capturedChanges;
+            lastSnapshotAt = Instant.now();
+            System.out.println("💾 " + label + "Данные сохранены (сегментов переписано: " + copies.size() +
+                    ", удалено: " + dropped.size() + ")");
+            return true;
+        } catch (IOException e) {
+            dirtyBuckets.addAll(changed);
+            droppedBuckets.addAll(dropped);
+            System.err.println("❌ Ошибка сохранения данных: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void removeFromBucket(ShortenedUrl url) {
+        long bucket = partitions.bucketOf(url);
+        Set<String> codes = buckets.get(bucket);
+        if (codes != null) {
+            codes.remove(url.getShortCode().value());
+        }
+        dirtyBuckets.add(bucket);
+    }
+
+    // Копии, чтобы переходы во время записи не рассогласовали запись и контрольную сумму
+    List<ShortenedUrl> snapshotCopy() {
+        return storage.values().stream()
+                .map(ShortenedUrl::copy)
+                .collect(Collectors.toList());
+    }
+}
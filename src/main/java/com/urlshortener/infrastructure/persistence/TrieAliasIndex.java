@@ -0,0 +1,200 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.urlshortener.core.domain.valueobjects.AliasGrammar;
+import com.urlshortener.core.ports.output.AliasIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Псевдонимы и зарезервированные слова в префиксном дереве (trie).
+ *
+ * Проверка псевдонима - один проход по его символам, независимо от числа псевдонимов.
+ * Дети узла хранятся в отсортированных массивах символов и ссылок (двоичный поиск),
+ * а не в картах, поэтому узел занимает несколько десятков байт. Зарезервированные слова
+ * лежат в том же дереве в нижнем регистре и запрещают псевдоним без учета регистра.
+ *
+ * Варианты для занятого псевдонима - он же с номером через первый разделитель грамматики
+ * (summer-sale-2, summer-sale-3...): путь до "summer-sale-" проходится один раз,
+ * дальше для каждого номера проверяются только его цифры.
+ *
+ * Сгенерированные коды в дерево не попадают - их занятость проверяет хранилище.
+ */
+public class TrieAliasIndex implements AliasIndex {
+
+    // Варианты с номерами дальше этого не перебираются
+    private static final int MAX_SUFFIX = 10_000;
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        int size;
+        boolean taken;
+        boolean reserved;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, size, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, 0, size, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            Node child = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            size++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, 0, size, c);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            size--;
+            children[size] = null;
+        }
+
+        boolean isUnused() {
+            return size == 0 && !taken && !reserved;
+        }
+    }
+
+    private final Node root = new Node();
+    private final AliasGrammar grammar;
+    private int takenCount;
+
+    /**
+     * @param reservedWords  слова, которые нельзя занять (admin, api...)
+     * @param existingAliases псевдонимы, уже лежащие в хранилище
+     */
+    public TrieAliasIndex(AliasGrammar grammar, Collection<String> reservedWords, Iterable<String> existingAliases) {
+        this.grammar = grammar;
+        for (String word : reservedWords) {
+            String normalized = word.trim();
+            if (!normalized.isEmpty()) {
+                path(normalized, true).reserved = true;
+            }
+        }
+        for (String alias : existingAliases) {
+            add(alias);
+        }
+    }
+
+    @Override
+    public synchronized boolean isTaken(CharSequence alias) {
+        Node node = find(root, alias, 0, false);
+        return node != null && node.taken;
+    }
+
+    @Override
+    public synchronized boolean isReserved(CharSequence alias) {
+        Node node = find(root, alias, 0, true);
+        return node != null && node.reserved;
+    }
+
+    @Override
+    public synchronized void add(String alias) {
+        Node node = path(alias, false);
+        if (!node.taken) {
+            node.taken = true;
+            takenCount++;
+        }
+    }
+
+    @Override
+    public synchronized void remove(String alias) {
+        Node[] nodes = new Node[alias.length() + 1];
+        nodes[0] = root;
+        for (int i = 0; i < alias.length(); i++) {
+            nodes[i + 1] = nodes[i].child(alias.charAt(i));
+            if (nodes[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = nodes[alias.length()];
+        if (!node.taken) {
+            return;
+        }
+        node.taken = false;
+        takenCount--;
+        // Пустые узлы на конце пути больше не нужны
+        for (int i = alias.length(); i > 0 && nodes[i].isUnused(); i--) {
+            nodes[i - 1].removeChild(alias.charAt(i - 1));
+        }
+    }
+
+    @Override
+    public synchronized List<String> suggest(String alias, int limit) {
+        String separator = grammar.getSeparators().isEmpty() ? "" : grammar.getSeparators().substring(0, 1);
+        List<String> suggestions = new ArrayList<>(limit);
+        for (int suffix = 2; suffix < MAX_SUFFIX && suggestions.size() < limit; suffix++) {
+            String number = Integer.toString(suffix);
+            String base = fit(alias, grammar.getMaxLength() - separator.length() - number.length());
+            if (base.isEmpty()) {
+                break;
+            }
+            String prefix = base + separator;
+            Node prefixNode = find(root, prefix, 0, false);
+            // Нет ни одного псевдонима с таким началом - все номера свободны
+            Node numbered = prefixNode == null ? null : find(prefixNode, number, 0, false);
+            String candidate = prefix + number;
+            if ((numbered == null || !numbered.taken) && !isReserved(candidate)) {
+                suggestions.add(candidate);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Число занятых псевдонимов
+     */
+    public synchronized int size() {
+        return takenCount;
+    }
+
+    // Псевдоним, укороченный до length символов и без разделителя на конце
+    private String fit(String alias, int length) {
+        String base = alias.length() > length ? alias.substring(0, Math.max(0, length)) : alias;
+        while (!base.isEmpty() && grammar.isSeparator(base.charAt(base.length() - 1))) {
+            base = base.substring(0, base.length() - 1);
+        }
+        return base;
+    }
+
+    private Node path(String key, boolean lowerCase) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            node = node.childOrCreate(lowerCase ? Character.toLowerCase(c) : c);
+        }
+        return node;
+    }
+
+    private static Node find(Node from, CharSequence key, int start, boolean lowerCase) {
+        Node node = from;
+        for (int i = start; i < key.length() && node != null; i++) {
+            char c = key.charAt(i);
+            node = node.child(lowerCase ? Character.toLowerCase(c) : c);
+        }
+        return node;
+    }
+}
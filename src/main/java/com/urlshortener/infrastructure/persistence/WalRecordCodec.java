@@ -0,0 +1,97 @@
+package com.urlshortener.infrastructure.persistence;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Формат записей журнала: одна JSON-строка на изменение.
+ * put - полная ссылка, clk - абсолютное значение счетчика переходов, del - удаление.
+ */
+public class WalRecordCodec {
+
+    public static final String OP_PUT = "put";
+    public static final String OP_CLICK = "clk";
+    public static final String OP_DELETE = "del";
+
+    /**
+     * Разобранная запись журнала; для put заполнено raw, для остальных - code
+     */
+    public record WalRecord(String op, String code, int clicks, boolean active,
+                            JsonSnapshotLoader.RawUrl raw) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter recordWriter;
+
+    public WalRecordCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.recordWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public String put(ShortenedUrl url) {
+        return encode(Map.of("op", OP_PUT, "url", url));
+    }
+
+    public String click(ShortenedUrl url) {
+        return encode(Map.of("op", OP_CLICK, "code", url.getShortCode().value(),
+                "clicks", url.getCurrentClicks(), "active", url.isActive()));
+    }
+
+    public String delete(String shortCode) {
+        return encode(Map.of("op", OP_DELETE, "code", shortCode));
+    }
+
+    public WalRecord decode(String line) throws IOException {
+        String op = null;
+        String code = null;
+        int clicks = 0;
+        boolean active = true;
+        JsonSnapshotLoader.RawUrl raw = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Запись журнала должна быть JSON-объектом");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("op".equals(field)) {
+                    op = parser.getValueAsString();
+                } else if ("code".equals(field)) {
+                    code = parser.getValueAsString();
+                } else if ("clicks".equals(field)) {
+                    clicks = parser.getValueAsInt();
+                } else if ("active".equals(field)) {
+                    active = parser.getValueAsBoolean();
+                } else if ("url".equals(field) && value == JsonToken.START_OBJECT) {
+                    raw = JsonSnapshotLoader.readRaw(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        boolean valid = (OP_PUT.equals(op) && raw != null)
+                || ((OP_CLICK.equals(op) || OP_DELETE.equals(op)) && code != null);
+        if (!valid) {
+            throw new IOException("Неизвестная запись журнала");
+        }
+        return new WalRecord(op, code, clicks, active, raw);
+    }
+
+    private String encode(Map<String, Object> record) {
+        try {
+            return recordWriter.writeValueAsString(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка сериализации записи журнала", e);
+        }
+    }
+}
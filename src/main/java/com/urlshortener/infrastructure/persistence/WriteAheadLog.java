@@ -0,0 +1,315 @@
+package com.urlshortener.infrastructure.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Журнал предзаписи (WAL): одна строка на изменение, разбитый на сегменты.
+ * Сегменты имеют вид {@code <storageFile>.wal.000001}, {@code .000002} и т.д.
+ *
+ * Изменения от всех потоков копятся в источнике записей ({@link RecordSource}),
+ * а фоновый поток забирает их пачкой и сбрасывает одной операцией write + fsync
+ * согласно {@link FsyncPolicy}.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final String SEGMENT_INFIX = ".wal.";
+
+    private final Path directory;
+    private final String segmentPrefix;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMs;
+    private final int fsyncBatchRecords;
+
+    private final Object pendingLock = new Object();
+    private final Object writeLock = new Object();
+
+    // Защищен pendingLock
+    private CompletableFuture<Void> pendingCommit = new CompletableFuture<>();
+
+    // Защищены writeLock
+    private RecordSource source;
+    private FileChannel channel;
+    private long currentSegment;
+    private volatile long recordsInSegment;
+
+    private volatile boolean running;
+    private Thread flusher;
+    private Runnable afterFlush;
+
+    public WriteAheadLog(Path storageFile, FsyncPolicy fsyncPolicy,
+                         long fsyncIntervalMs, int fsyncBatchRecords) {
+        Path absolute = storageFile.toAbsolutePath();
+        this.directory = absolute.getParent();
+        this.segmentPrefix = absolute.getFileName().toString() + SEGMENT_INFIX;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMs = Math.max(1, fsyncIntervalMs);
+        this.fsyncBatchRecords = Math.max(1, fsyncBatchRecords);
+    }
+
+    /**
+     * Прочитать по порядку все записи сегментов, начиная с fromSegment
+     */
+    public void replay(long fromSegment, Consumer<String> consumer) throws IOException {
+        for (long segment : listSegments()) {
+            if (segment < fromSegment) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(segmentPath(segment), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        consumer.accept(line);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Открыть журнал на запись (дописываем в последний сегмент) и запустить поток сброса.
+     * afterFlush вызывается потоком сброса после каждой записанной пачки вне блокировок.
+     */
+    public void open(RecordSource source, Runnable afterFlush) throws IOException {
+        Files.createDirectories(directory);
+        this.afterFlush = afterFlush;
+        synchronized (writeLock) {
+            this.source = source;
+            List<Long> segments = listSegments();
+            currentSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+            if (!segments.isEmpty()) {
+                truncateTornTail(segmentPath(currentSegment));
+            }
+            channel = openSegment(currentSegment);
+        }
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Сообщить о новых изменениях в источнике записей.
+     * Возвращает future, который завершится, когда очередная пачка будет записана и сброшена на диск.
+     * Вызывать после того, как изменение стало видно источнику.
+     */
+    public CompletableFuture<Void> requestCommit() {
+        synchronized (pendingLock) {
+            if (fsyncPolicy == FsyncPolicy.ALWAYS
+                    || (fsyncPolicy == FsyncPolicy.RECORDS && source.pendingCount() >= fsyncBatchRecords)) {
+                pendingLock.notifyAll();
+            }
+            return pendingCommit;
+        }
+    }
+
+    /**
+     * Записать и сбросить на диск всё накопленное
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            CompletableFuture<Void> commit;
+            synchronized (pendingLock) {
+                commit = pendingCommit;
+                pendingCommit = new CompletableFuture<>();
+            }
+
+            // Забираем изменения после смены future: всё, что было видно до requestCommit(), попадет в пачку
+            List<String> batch = source.drain();
+            try {
+                if (!batch.isEmpty()) {
+                    ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+                    long remaining = 0;
+                    for (int i = 0; i < buffers.length; i++) {
+                        buffers[i] = ByteBuffer.wrap((batch.get(i) + "\n").getBytes(StandardCharsets.UTF_8));
+                        remaining += buffers[i].remaining();
+                    }
+                    while (remaining > 0) {
+                        remaining -= channel.write(buffers);
+                    }
+                    channel.force(false);
+                    recordsInSegment += batch.size();
+                }
+                commit.complete(null);
+            } catch (IOException e) {
+                commit.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Начать новый сегмент; возвращает номер сегмента, с которого начинаются новые записи
+     */
+    public long rotate() throws IOException {
+        synchronized (writeLock) {
+            flush();
+            channel.close();
+            currentSegment++;
+            channel = openSegment(currentSegment);
+            recordsInSegment = 0;
+            return currentSegment;
+        }
+    }
+
+    /**
+     * Удалить сегменты, полностью покрытые снимком
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        for (long existing : listSegments()) {
+            if (existing < segment) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    /**
+     * Есть ли на диске хотя бы один сегмент журнала
+     */
+    public boolean hasSegments() throws IOException {
+        return !listSegments().isEmpty();
+    }
+
+    public long getRecordsInSegment() {
+        return recordsInSegment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        synchronized (pendingLock) {
+            pendingLock.notifyAll();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (writeLock) {
+            if (channel != null) {
+                flush();
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                synchronized (pendingLock) {
+                    if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                        while (running && source.pendingCount() == 0) {
+                            pendingLock.wait();
+                        }
+                    } else if (running && source.pendingCount() < batchThreshold()) {
+                        pendingLock.wait(fsyncIntervalMs);
+                    }
+                }
+                flush();
+                afterFlush.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("❌ Ошибка сброса журнала: " + e.getMessage());
+            }
+        }
+    }
+
+    private int batchThreshold() {
+        return fsyncPolicy == FsyncPolicy.RECORDS ? fsyncBatchRecords : Integer.MAX_VALUE;
+    }
+
+    // После сбоя сегмент может кончаться оборванной записью: отрезаем ее, чтобы новые записи к ней не приклеились
+    private static void truncateTornTail(Path segment) throws IOException {
+        try (FileChannel repair = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long end = repair.size();
+            long position = end;
+            while (position > 0) {
+                int length = (int) Math.min(buffer.capacity(), position);
+                position -= length;
+                buffer.clear().limit(length);
+                while (buffer.hasRemaining()) {
+                    if (repair.read(buffer, position + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        long keep = position + i + 1;
+                        if (keep < end) {
+                            System.err.println("⚠️ Отрезана оборванная запись в конце журнала " + segment.getFileName());
+                            repair.truncate(keep);
+                        }
+                        return;
+                    }
+                }
+            }
+            if (end > 0) {
+                System.err.println("⚠️ Отрезана оборванная запись в конце журнала " + segment.getFileName());
+                repair.truncate(0);
+            }
+        }
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(segmentPrefix + String.format("%06d", segment));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(segmentPrefix))
+                    .forEach(name -> {
+                        try {
+                            segments.add(Long.parseLong(name.substring(segmentPrefix.length())));
+                        } catch (NumberFormatException e) {
+                            // Посторонний файл с похожим именем
+                        }
+                    });
+        }
+        segments.sort(Long::compare);
+        return segments;
+    }
+
+    /**
+     * Источник записей журнала: изменения, накопленные с прошлого сброса
+     */
+    public interface RecordSource {
+
+        /**
+         * Забрать накопленные записи для очередной пачки
+         */
+        List<String> drain();
+
+        /**
+         * Сколько изменений ждет записи
+         */
+        int pendingCount();
+    }
+}
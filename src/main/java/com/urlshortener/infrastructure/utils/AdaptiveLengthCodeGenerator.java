@@ -0,0 +1,180 @@
+package com.urlshortener.infrastructure.utils;
+
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.IdGenerator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Следит за заполненностью пространства кодов и удлиняет коды, пока повторы не стали частыми.
+ *
+ * Для каждой длины считается, сколько кодов занято, и сравнивается с тем, сколько их вообще
+ * может выдать генератор ({@link IdGenerator#capacity}). Когда доля занятых достигает порога,
+ * новые коды становятся на символ длиннее. Занятый код генерируется заново, но не более
+ * maxRetries раз: если повторы идут подряд, длина тоже растет, чтобы создание ссылки
+ * не превращалось в перебор.
+ *
+ * Повтор просит у генератора код с другой солью ({@link IdGenerator#generate(Url, UserId, int, long)}),
+ * URL при этом не меняется и заново не проверяется.
+ *
+ * Заполненность растет с каждым кодом, а уменьшается только пересчетом ({@link #recount}) -
+ * его вызывает периодическая очистка, так что удаленные и просроченные ссылки освобождают
+ * место с запаздыванием до одного интервала очистки. После пересчета длина может и уменьшиться.
+ *
+ * Предназначен для генераторов со случайными кодами (HASH): у счетчиков повторов не бывает.
+ */
+public class AdaptiveLengthCodeGenerator implements IdGenerator {
+
+    // Соль повторов этого класса - в старших битах, чтобы не совпасть с солью вызывающего
+    private static final int RETRY_SALT_SHIFT = 32;
+
+    private final IdGenerator delegate;
+    private final Predicate<ShortCode> isTaken;
+    private final int minLength;
+    private final double maxLoadFactor;
+    private final int maxRetries;
+    private final AtomicLongArray occupied = new AtomicLongArray(ShortCode.MAX_LENGTH + 1);
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder growths = new LongAdder();
+    private volatile int currentLength;
+
+    /**
+     * @param isTaken       занят ли код в хранилище
+     * @param existingCodes коды, уже лежащие в хранилище (для начальной заполненности)
+     * @param minLength     длина кодов из конфигурации - короче коды не бывают
+     * @param maxLoadFactor доля занятых кодов, при которой длина увеличивается
+     * @param maxRetries    сколько раз подряд можно получить занятый код до увеличения длины
+     */
+    public AdaptiveLengthCodeGenerator(IdGenerator delegate, Predicate<ShortCode> isTaken,
+                                       Iterable<ShortCode> existingCodes, int minLength,
+                                       double maxLoadFactor, int maxRetries) {
+        this.delegate = delegate;
+        this.isTaken = isTaken;
+        this.maxLoadFactor = maxLoadFactor;
+        this.maxRetries = Math.max(1, maxRetries);
+        this.minLength = minLength;
+        for (ShortCode code : existingCodes) {
+            occupied.incrementAndGet(code.value().length());
+        }
+        this.currentLength = fittingLength();
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId) {
+        return generate(originalUrl, userId, 6);
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId, int length) {
+        return generate(originalUrl, userId, length, 0);
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId, int length, long salt) {
+        int current = Math.max(length, currentLength);
+        long retries = 0;
+        int attempts = 0;
+        while (true) {
+            ShortCode code = delegate.generate(originalUrl, userId, current, salt + (retries << RETRY_SALT_SHIFT));
+            if (!isTaken.test(code)) {
+                generated.increment();
+                occupied.incrementAndGet(current);
+                if (loadFactor(current) >= maxLoadFactor) {
+                    grow(current);
+                }
+                return code;
+            }
+            collisions.increment();
+            retries++;
+            attempts++;
+            if (attempts >= maxRetries) {
+                current = grow(current);
+                attempts = 0;
+            }
+        }
+    }
+
+    /**
+     * Пересчитать заполненность по кодам, которые сейчас лежат в хранилище, и подобрать длину заново.
+     * Коды, выданные во время пересчета, могут не попасть в счет - до следующего пересчета
+     */
+    public synchronized void recount(Iterable<ShortCode> existingCodes) {
+        long[] counts = new long[occupied.length()];
+        for (ShortCode code : existingCodes) {
+            counts[code.value().length()]++;
+        }
+        for (int length = 0; length < counts.length; length++) {
+            occupied.set(length, counts[length]);
+        }
+        int length = fittingLength();
+        if (length != currentLength) {
+            System.out.println("📏 Длина новых кодов после пересчета: " + length);
+            currentLength = length;
+        }
+    }
+
+    @Override
+    public ShortCode generateForUser(Url originalUrl, UserId userId, int length,
+                                     Map<String, String> existingCodes) {
+        return generate(originalUrl, userId, length);
+    }
+
+    @Override
+    public boolean isValid(String code) {
+        return delegate.isValid(code);
+    }
+
+    @Override
+    public long capacity(int length) {
+        return delegate.capacity(length);
+    }
+
+    public CodeSpaceStats getStats() {
+        int length = currentLength;
+        return new CodeSpaceStats(length, occupied.get(length), delegate.capacity(length),
+                generated.sum(), collisions.sum(), growths.sum());
+    }
+
+    @Override
+    public Map<String, Object> getGeneratorStats() {
+        CodeSpaceStats stats = getStats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("codeLength", stats.length());
+        result.put("codeSpaceOccupied", stats.occupied());
+        result.put("codeSpaceCapacity", stats.capacity());
+        result.put("codeSpaceLoad", stats.loadFactor());
+        result.put("codeLengthGrowths", stats.growths());
+        return result;
+    }
+
+    // Наименьшая длина не короче заданной, у которой заполненность ниже порога
+    private int fittingLength() {
+        int length = minLength;
+        while (length < ShortCode.MAX_LENGTH && loadFactor(length) >= maxLoadFactor) {
+            length++;
+        }
+        return length;
+    }
+
+    private double loadFactor(int length) {
+        return (double) occupied.get(length) / delegate.capacity(length);
+    }
+
+    // Длина растет на символ один раз, даже если порог заметили несколько потоков
+    private synchronized int grow(int from) {
+        if (currentLength == from && from < ShortCode.MAX_LENGTH) {
+            currentLength = from + 1;
+            growths.increment();
+            System.out.println("📏 Длина новых кодов увеличена до " + currentLength +
+                    " (занято " + occupied.get(from) + " кодов длины " + from + ")");
+        }
+        return Math.max(from, currentLength);
+    }
+}
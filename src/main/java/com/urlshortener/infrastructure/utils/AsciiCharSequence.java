@@ -0,0 +1,41 @@
+package com.urlshortener.infrastructure.utils;
+
+/**
+ * Изменяемое окно над байтами ASCII как последовательность символов.
+ *
+ * Позволяет передать код из сетевого буфера в {@code UrlShortenerUseCase.resolve} без
+ * декодирования в строку. Один экземпляр переиспользуется для запросов одного потока.
+ */
+public final class AsciiCharSequence implements CharSequence {
+
+    private byte[] bytes = new byte[0];
+    private int offset;
+    private int length;
+
+    public AsciiCharSequence wrap(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes[offset + index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, java.nio.charset.StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.urlshortener.infrastructure.utils;
+
+/**
+ * Запись чисел кодами фиксированной длины в алфавите из 62 латинских букв и цифр
+ */
+public final class Base62 {
+
+    public static final int RADIX = 62;
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    // 62^5 < 2^31: пять разрядов помещаются в int
+    private static final int HALF_DIGITS = 5;
+    private static final long HALF_CAPACITY = 916_132_832L;
+
+    private Base62() {
+    }
+
+    /**
+     * Сколько разных кодов данной длины (62^length); длина до 10 помещается в long
+     */
+    public static long capacity(int length) {
+        long capacity = 1;
+        for (int i = 0; i < length; i++) {
+            capacity = Math.multiplyExact(capacity, RADIX);
+        }
+        return capacity;
+    }
+
+    /**
+     * Код ровно из length символов, старший разряд первым; value в пределах [0, capacity(length))
+     */
+    public static String encode(long value, int length) {
+        char[] chars = new char[length];
+        int i = length - 1;
+        // Младшие пять разрядов отделяются одним делением long, дальше делится int:
+        // деление int на константу JIT заменяет умножением
+        if (length > HALF_DIGITS) {
+            int low = (int) (value % HALF_CAPACITY);
+            value /= HALF_CAPACITY;
+            for (int digit = 0; digit < HALF_DIGITS; digit++, i--) {
+                chars[i] = ALPHABET[low % RADIX];
+                low /= RADIX;
+            }
+        }
+        int high = (int) value;
+        for (; i >= 0; i--) {
+            chars[i] = ALPHABET[high % RADIX];
+            high /= RADIX;
+        }
+        return new String(chars);
+    }
+}
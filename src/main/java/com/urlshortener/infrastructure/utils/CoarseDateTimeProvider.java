@@ -0,0 +1,57 @@
+package com.urlshortener.infrastructure.utils;
+
+import com.urlshortener.core.domain.models.DomainClock;
+import com.urlshortener.core.ports.output.DateTimeProvider;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Грубые часы: время обновляет фоновый таймер раз в tickMillis, а чтение - это одно volatile-поле.
+ *
+ * Погрешность не больше шага таймера; для сроков действия ссылок (часы и дни) этого достаточно,
+ * а массовые проверки истечения не читают системные часы на каждую ссылку.
+ */
+public class CoarseDateTimeProvider implements DateTimeProvider, AutoCloseable {
+
+    private final ScheduledExecutorService ticker;
+    private volatile long currentMillis = System.currentTimeMillis();
+
+    public CoarseDateTimeProvider(long tickMillis) {
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "clock-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, tickMillis);
+        ticker.scheduleAtFixedRate(() -> currentMillis = System.currentTimeMillis(),
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentMillis;
+    }
+
+    @Override
+    public LocalDateTime now() {
+        return DomainClock.toLocalDateTime(currentMillis);
+    }
+
+    @Override
+    public LocalDateTime plusHours(long hours) {
+        return now().plusHours(hours);
+    }
+
+    @Override
+    public LocalDateTime plusDays(long days) {
+        return now().plusDays(days);
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+}
@@ -41,9 +41,16 @@ public class CodeGeneratorImpl implements IdGenerator {
 
     @Override
     public ShortCode generate(Url originalUrl, UserId userId, int length) {
+        return generate(originalUrl, userId, length, 0);
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId, int length, long salt) {
         validateLength(length);
 
-        String uniqueString = originalUrl.value() + userId.toString() + System.currentTimeMillis();
+        // Без соли повтор в ту же миллисекунду дал бы тот же код
+        String uniqueString = originalUrl.value() + userId.toString() + System.currentTimeMillis()
+                + (salt == 0 ? "" : "#" + salt);
 
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
@@ -108,6 +115,19 @@ public class CodeGeneratorImpl implements IdGenerator {
         return true;
     }
 
+    /**
+     * Похожие символы заменяются, поэтому в кодах встречаются только 53 символа из 62
+     */
+    @Override
+    public long capacity(int length) {
+        int alphabet = BASE62_ALPHABET.length() - SIMILAR_CHARS.size();
+        long capacity = 1;
+        for (int i = 0; i < length; i++) {
+            capacity = Math.multiplyExact(capacity, alphabet);
+        }
+        return capacity;
+    }
+
     // Приватные вспомогательные методы
     private void validateLength(int length) {
         if (length < 4 || length > 10) {
@@ -0,0 +1,44 @@
+package com.urlshortener.infrastructure.utils;
+
+/**
+ * Способ получения коротких кодов
+ */
+public enum CodeGeneratorMode {
+    /**
+     * Хеш от URL, пользователя и времени ({@link CodeGeneratorImpl})
+     */
+    HASH,
+
+    /**
+     * Быстрый некриптографический хеш с ключом вместо SHA-256 ({@link FastHashCodeGenerator})
+     */
+    FAST_HASH,
+
+    /**
+     * Сохраняемый счетчик и перестановка по ключу - без коллизий ({@link CounterCodeGenerator})
+     */
+    COUNTER,
+
+    /**
+     * То же, но каждый поток берет номера из своего арендованного блока без синхронизации
+     * ({@link LeasedCodeGenerator})
+     */
+    LEASED,
+
+    /**
+     * Время, номер узла и последовательность - для нескольких экземпляров без согласования
+     * ({@link SnowflakeCodeGenerator})
+     */
+    SNOWFLAKE;
+
+    public static CodeGeneratorMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return HASH;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный генератор кодов: " + value);
+        }
+    }
+}
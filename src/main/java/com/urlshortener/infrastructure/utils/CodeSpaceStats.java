@@ -0,0 +1,26 @@
+package com.urlshortener.infrastructure.utils;
+
+/**
+ * Заполненность пространства кодов и частота повторов при генерации
+ *
+ * @param length     текущая длина новых кодов
+ * @param occupied   занято кодов этой длины (оценка сверху: удаления учитываются при перезапуске)
+ * @param capacity   сколько всего кодов этой длины может выдать генератор
+ * @param generated  выдано кодов
+ * @param collisions сколько раз код оказался занят и генерацию пришлось повторить
+ * @param growths    сколько раз длина кодов увеличивалась
+ */
+public record CodeSpaceStats(int length, long occupied, long capacity,
+                             long generated, long collisions, long growths) {
+
+    public double loadFactor() {
+        return capacity == 0 ? 1.0 : (double) occupied / capacity;
+    }
+
+    /**
+     * Повторов на один выданный код
+     */
+    public double collisionRate() {
+        return generated == 0 ? 0.0 : (double) collisions / generated;
+    }
+}
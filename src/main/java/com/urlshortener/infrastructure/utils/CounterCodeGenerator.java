@@ -0,0 +1,79 @@
+package com.urlshortener.infrastructure.utils;
+
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.IdGenerator;
+import com.urlshortener.infrastructure.persistence.CodeSequenceStore;
+
+import java.util.Map;
+
+/**
+ * Генератор кодов без коллизий: сохраняемый счетчик и перестановка по ключу.
+ *
+ * Каждый код - это очередной номер счетчика, переставленный {@link FeistelPermutation}
+ * в пределах 62^length и записанный в {@link Base62}. Перестановка взаимно однозначна,
+ * поэтому коды не повторяются без хеширования и проверок в хранилище, а по кодам не видно,
+ * что они идут подряд. Номера резервируются в {@link CodeSequenceStore} диапазонами.
+ */
+public class CounterCodeGenerator implements IdGenerator {
+
+    private final CodeSequenceStore sequenceStore;
+    private final int reserveSize;
+    // Перестановка своя для каждой длины кода
+    private final FeistelPermutation[] permutations = new FeistelPermutation[ShortCode.MAX_LENGTH + 1];
+    private long next;
+    private long ceiling;
+
+    /**
+     * @param reserveSize сколько номеров резервировать одной записью на диск
+     */
+    public CounterCodeGenerator(CodeSequenceStore sequenceStore, int reserveSize) {
+        this.sequenceStore = sequenceStore;
+        this.reserveSize = Math.max(1, reserveSize);
+        for (int length = ShortCode.MIN_LENGTH; length <= ShortCode.MAX_LENGTH; length++) {
+            permutations[length] = new FeistelPermutation(Base62.RADIX, length, sequenceStore.getKey());
+        }
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId) {
+        return generate(originalUrl, userId, 6);
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId, int length) {
+        if (length < 4 || length > ShortCode.MAX_LENGTH) {
+            throw new IllegalArgumentException("Длина кода должна быть от 4 до 10 символов");
+        }
+        FeistelPermutation permutation = permutations[length];
+        long index = nextIndex();
+        if (index >= permutation.domain()) {
+            throw new IllegalStateException("Коды длины " + length + " закончились: увеличьте shortCodeLength");
+        }
+        return new ShortCode(Base62.encode(permutation.permute(index), length));
+    }
+
+    @Override
+    public ShortCode generateForUser(Url originalUrl, UserId userId, int length,
+                                     Map<String, String> existingCodes) {
+        // Коды и так не повторяются
+        return generate(originalUrl, userId, length);
+    }
+
+    @Override
+    public boolean isValid(String code) {
+        return ShortCode.isValid(code);
+    }
+
+    /**
+     * Очередной еще не выданный номер
+     */
+    protected synchronized long nextIndex() {
+        if (next == ceiling) {
+            next = sequenceStore.reserve(reserveSize);
+            ceiling = next + reserveSize;
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,119 @@
+package com.urlshortener.infrastructure.utils;
+
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.IdGenerator;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор кодов на быстром некриптографическом хэше вместо SHA-256.
+ *
+ * 64-битный хэш с ключом (seed) считается прямо по символам URL (по четыре за шаг),
+ * двум long идентификатора пользователя и номеру вызова; затем хэш записывается
+ * в {@link Base62}. 64 бит хватает на любую длину: 62^10 < 2^63. Никаких промежуточных
+ * строк, массивов байт и MessageDigest - выделяется только сам код.
+ *
+ * Номер вызова заменяет время из {@link CodeGeneratorImpl}: два вызова в одну миллисекунду
+ * дают разные коды, поэтому повтор после коллизии сразу получает новый код. Ключ случаен
+ * для каждого запуска, так что коды нельзя предсказать по URL.
+ */
+public class FastHashCodeGenerator implements IdGenerator {
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+
+    private static final long[] CAPACITY = new long[ShortCode.MAX_LENGTH + 1];
+
+    static {
+        for (int length = 0; length < CAPACITY.length; length++) {
+            CAPACITY[length] = Base62.capacity(length);
+        }
+    }
+
+    private final long seed;
+    private final AtomicLong sequence;
+
+    public FastHashCodeGenerator(long seed) {
+        this.seed = seed;
+        this.sequence = new AtomicLong();
+    }
+
+    public FastHashCodeGenerator() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId) {
+        return generate(originalUrl, userId, 6);
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId, int length) {
+        if (length < 4 || length > ShortCode.MAX_LENGTH) {
+            throw new IllegalArgumentException("Длина кода должна быть от 4 до 10 символов");
+        }
+        long hash = hash(originalUrl.value(), userId.value(), sequence.getAndIncrement());
+        // Старшие биты (hash >>> 1) * capacity / 2^63 - число в [0, capacity) без деления
+        return new ShortCode(Base62.encode(Math.multiplyHigh(hash >>> 1, CAPACITY[length] << 1), length));
+    }
+
+    @Override
+    public ShortCode generateForUser(Url originalUrl, UserId userId, int length,
+                                     Map<String, String> existingCodes) {
+        // Каждый вызов дает новый код - достаточно повторить
+        ShortCode code = generate(originalUrl, userId, length);
+        for (int attempts = 0; existingCodes.containsKey(code.value()) && attempts < 10; attempts++) {
+            code = generate(originalUrl, userId, length);
+        }
+        return code;
+    }
+
+    @Override
+    public boolean isValid(String code) {
+        return ShortCode.isValid(code);
+    }
+
+    /**
+     * Хэш URL, пользователя и номера вызова (раунды и перемешивание - как в xxHash64)
+     */
+    private long hash(String url, UUID userId, long counter) {
+        long hash = seed + PRIME_3 + url.length();
+        int length = url.length();
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long word = url.charAt(i)
+                    | (long) url.charAt(i + 1) << 16
+                    | (long) url.charAt(i + 2) << 32
+                    | (long) url.charAt(i + 3) << 48;
+            hash = round(hash, word);
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) url.charAt(i) << shift;
+        }
+        hash = round(hash, tail);
+        hash = round(hash, userId.getMostSignificantBits());
+        hash = round(hash, userId.getLeastSignificantBits());
+        hash = round(hash, counter);
+        return mix(hash);
+    }
+
+    private static long round(long hash, long word) {
+        hash ^= Long.rotateLeft(word * PRIME_2, 31) * PRIME_1;
+        return Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_3;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -0,0 +1,69 @@
+package com.urlshortener.infrastructure.utils;
+
+/**
+ * Перестановка чисел [0, radix^length) по ключу - сеть Фейстеля со смешанным основанием.
+ *
+ * Число делится на старшую и младшую части (radix^ceil(length/2) и radix^floor(length/2)).
+ * Раунд (L, R) -> (R, (L + F(R)) mod |L|) обратим при любой функции F, поэтому вся сеть -
+ * взаимно однозначное отображение: разные номера всегда дают разные коды, а соседние номера
+ * дают непохожие коды. Части меняются местами каждый раунд; после четного числа раундов
+ * разбиение возвращается к исходному.
+ */
+public final class FeistelPermutation {
+
+    private static final int ROUNDS = 8;
+
+    private final long highRadix;
+    private final long lowRadix;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public FeistelPermutation(int radix, int length, long key) {
+        long high = 1;
+        long low = 1;
+        for (int i = 0; i < length; i++) {
+            if (i % 2 == 0) {
+                high = Math.multiplyExact(high, radix);
+            } else {
+                low = Math.multiplyExact(low, radix);
+            }
+        }
+        this.highRadix = high;
+        this.lowRadix = low;
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = mix(key + (i + 1) * 0x9E3779B97F4A7C15L);
+        }
+    }
+
+    /**
+     * Размер области: radix^length
+     */
+    public long domain() {
+        return highRadix * lowRadix;
+    }
+
+    public long permute(long value) {
+        if (value < 0 || value >= domain()) {
+            throw new IllegalArgumentException("Номер вне области перестановки: " + value);
+        }
+        long left = value / lowRadix;
+        long right = value % lowRadix;
+        long leftRadix = highRadix;
+        long rightRadix = lowRadix;
+        for (int i = 0; i < ROUNDS; i++) {
+            long mixed = (left + Long.remainderUnsigned(mix(roundKeys[i] ^ right), leftRadix)) % leftRadix;
+            left = right;
+            right = mixed;
+            long radix = leftRadix;
+            leftRadix = rightRadix;
+            rightRadix = radix;
+        }
+        return left * rightRadix + right;
+    }
+
+    // Финальное перемешивание SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
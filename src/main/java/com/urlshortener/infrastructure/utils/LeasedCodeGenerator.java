@@ -0,0 +1,88 @@
+package com.urlshortener.infrastructure.utils;
+
+import com.urlshortener.infrastructure.persistence.CodeSequenceStore;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Генератор кодов из счетчика, в котором потоки не делят ни одной блокировки.
+ *
+ * Каждый поток арендует блок номеров и выдает их из своих полей без синхронизации.
+ * Блоки заранее резервирует в {@link CodeSequenceStore} фоновый поток "code-lease", так что
+ * запись границы на диск не попадает в создание ссылки; только если запас кончился,
+ * поток резервирует блок сам. Блоки, не израсходованные до остановки, после перезапуска
+ * пропускаются - граница на диске всегда выше любого выданного номера.
+ */
+public class LeasedCodeGenerator extends CounterCodeGenerator implements AutoCloseable {
+
+    /**
+     * Арендованный блок номеров [next, end)
+     */
+    private static final class Lease {
+        long next;
+        long end;
+    }
+
+    private final CodeSequenceStore sequenceStore;
+    private final int blockSize;
+    private final BlockingQueue<Long> readyBlocks;
+    private final ThreadLocal<Lease> leases = ThreadLocal.withInitial(Lease::new);
+    private final Thread renewer;
+    private volatile boolean running = true;
+
+    /**
+     * @param blockSize      номеров в одном блоке
+     * @param prefetchBlocks сколько блоков держать зарезервированными про запас
+     */
+    public LeasedCodeGenerator(CodeSequenceStore sequenceStore, int blockSize, int prefetchBlocks) {
+        super(sequenceStore, blockSize);
+        this.sequenceStore = sequenceStore;
+        this.blockSize = Math.max(1, blockSize);
+        this.readyBlocks = new ArrayBlockingQueue<>(Math.max(1, prefetchBlocks));
+        this.renewer = new Thread(this::renew, "code-lease");
+        this.renewer.setDaemon(true);
+        this.renewer.start();
+    }
+
+    @Override
+    protected long nextIndex() {
+        Lease lease = leases.get();
+        if (lease.next == lease.end) {
+            Long start = readyBlocks.poll();
+            lease.next = start != null ? start : sequenceStore.reserve(blockSize);
+            lease.end = lease.next + blockSize;
+        }
+        return lease.next++;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        renewer.interrupt();
+        // После закрытия файл границы больше не переписывается
+        try {
+            renewer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Поддерживает запас блоков: put ждет, пока кто-нибудь заберет блок из очереди
+    private void renew() {
+        while (running) {
+            try {
+                readyBlocks.put(sequenceStore.reserve(blockSize));
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Ошибка резервирования кодов: " + e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.urlshortener.infrastructure.utils;
+
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.IdGenerator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Генератор кодов для нескольких экземпляров сервиса без согласования между ними (по схеме Snowflake).
+ *
+ * Код - число из трех полей, записанное в {@link Base62}: секунды от 2026-01-01, номер узла
+ * и номер кода в пределах секунды на этом узле. Разные узлы не могут выдать один код,
+ * потому что различаются полем узла. Поля занимают столько бит, сколько помещается
+ * в 62^length: под время остается все, что не занято узлом и последовательностью.
+ *
+ * Поэтому длину кодов проверяют при запуске ({@link #requireLifetime}): коды настроенной длины
+ * должны выдаваться еще заданный срок, иначе генератор не запускается.
+ *
+ * Если коды секунды кончились, генератор ждет следующую секунду; если часы ушли назад -
+ * ждет, пока они догонят последнюю выданную секунду. При запуске первая секунда
+ * пропускается, чтобы не повторить коды, выданные прошлым запуском в ту же секунду.
+ */
+public class SnowflakeCodeGenerator implements IdGenerator {
+
+    // 2026-01-01T00:00:00Z
+    private static final long EPOCH_MILLIS = 1_767_225_600_000L;
+
+    private final long nodeId;
+    private final int nodeBits;
+    private final int sequenceBits;
+    private final long maxSequence;
+    private final LongSupplier clockMillis;
+    private long lastSecond;
+    private long sequence;
+
+    /**
+     * @param nodeId       номер этого экземпляра, от 0 до 2^nodeBits - 1
+     * @param nodeBits     бит под номер узла
+     * @param sequenceBits бит под номер кода в пределах секунды
+     */
+    public SnowflakeCodeGenerator(long nodeId, int nodeBits, int sequenceBits, LongSupplier clockMillis) {
+        if (nodeBits < 0 || sequenceBits < 1 || nodeBits + sequenceBits > 40) {
+            throw new IllegalArgumentException("Недопустимое разбиение кода: узел " + nodeBits +
+                    " бит, последовательность " + sequenceBits + " бит");
+        }
+        if (nodeId < 0 || nodeId >= 1L << nodeBits) {
+            throw new IllegalArgumentException("Номер узла должен быть от 0 до " + ((1L << nodeBits) - 1) + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = nodeBits;
+        this.sequenceBits = sequenceBits;
+        this.maxSequence = (1L << sequenceBits) - 1;
+        this.clockMillis = clockMillis;
+        this.lastSecond = currentSecond();
+        this.sequence = maxSequence;
+    }
+
+    public SnowflakeCodeGenerator(long nodeId, int nodeBits, int sequenceBits) {
+        this(nodeId, nodeBits, sequenceBits, System::currentTimeMillis);
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId) {
+        return generate(originalUrl, userId, 6);
+    }
+
+    @Override
+    public ShortCode generate(Url originalUrl, UserId userId, int length) {
+        if (length < 4 || length > ShortCode.MAX_LENGTH) {
+            throw new IllegalArgumentException("Длина кода должна быть от 4 до 10 символов");
+        }
+        int timeBits = timeBits(length);
+        if (timeBits < 1) {
+            throw new IllegalArgumentException("Код длины " + length + " не вмещает номер узла и последовательность");
+        }
+
+        long second;
+        long number;
+        synchronized (this) {
+            second = nextSecond();
+            number = sequence;
+        }
+        if (second < 0) {
+            throw new IllegalStateException("Часы показывают время до 2026 года - коды не могут быть выданы");
+        }
+        if (second >= 1L << timeBits) {
+            throw new IllegalStateException("Время в кодах длины " + length + " исчерпано: увеличьте shortCodeLength");
+        }
+        long value = (second << (nodeBits + sequenceBits)) | (nodeId << sequenceBits) | number;
+        return new ShortCode(Base62.encode(value, length));
+    }
+
+    @Override
+    public ShortCode generateForUser(Url originalUrl, UserId userId, int length,
+                                     Map<String, String> existingCodes) {
+        // Коды и так не повторяются
+        return generate(originalUrl, userId, length);
+    }
+
+    @Override
+    public boolean isValid(String code) {
+        return ShortCode.isValid(code);
+    }
+
+    /**
+     * Бит под время в кодах данной длины: на сколько секунд от 2026 года хватит кодов
+     */
+    public int timeBits(int length) {
+        return 63 - Long.numberOfLeadingZeros(Base62.capacity(length)) - nodeBits - sequenceBits;
+    }
+
+    /**
+     * Момент, с которого коды данной длины больше не выдаются
+     */
+    public Instant exhaustedAt(int length) {
+        int bits = timeBits(length);
+        return Instant.ofEpochMilli(bits < 1 ? EPOCH_MILLIS : EPOCH_MILLIS + (1L << bits) * 1000L);
+    }
+
+    /**
+     * Наименьшая длина кода, время в которой не кончится раньше, чем через lifetime от текущего момента
+     */
+    public int minLength(Duration lifetime) {
+        long lastSecond = currentSecond() + lifetime.toSeconds();
+        for (int length = 4; length <= ShortCode.MAX_LENGTH; length++) {
+            int bits = timeBits(length);
+            if (bits > 0 && lastSecond < 1L << bits) {
+                return length;
+            }
+        }
+        throw new IllegalArgumentException("Даже коды длины " + ShortCode.MAX_LENGTH +
+                " не вмещают " + lifetime.toDays() + " дней: уменьшите codeNodeBits или codeSequenceBits");
+    }
+
+    /**
+     * Проверка при запуске: коды длины length должны выдаваться еще хотя бы lifetime
+     *
+     * @throws IllegalArgumentException если время в кодах этой длины кончится раньше
+     */
+    public SnowflakeCodeGenerator requireLifetime(int length, Duration lifetime) {
+        int minLength = minLength(lifetime);
+        if (length < minLength) {
+            LocalDate end = LocalDate.ofInstant(exhaustedAt(length), ZoneOffset.UTC);
+            throw new IllegalArgumentException("Коды длины " + length + " выдаются только до " + end +
+                    ": чтобы их хватило на " + lifetime.toDays() + " дней, задайте shortCodeLength не меньше " +
+                    minLength);
+        }
+        return this;
+    }
+
+    // Вызывается под блокировкой; оставляет в sequence номер для выдачи
+    private long nextSecond() {
+        while (true) {
+            long now = currentSecond();
+            if (now > lastSecond) {
+                lastSecond = now;
+                sequence = 0;
+                return now;
+            }
+            if (now == lastSecond && sequence < maxSequence) {
+                sequence++;
+                return now;
+            }
+            // Коды этой секунды кончились или часы отстали - ждем
+            try {
+                Thread.sleep(Math.max(1, 1000 - Math.floorMod(clockMillis.getAsLong() - EPOCH_MILLIS, 1000L)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Ожидание следующей секунды прервано", e);
+            }
+        }
+    }
+
+    private long currentSecond() {
+        return Math.floorDiv(clockMillis.getAsLong() - EPOCH_MILLIS, 1000L);
+    }
+}
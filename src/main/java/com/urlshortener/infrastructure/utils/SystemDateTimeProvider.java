@@ -14,6 +14,11 @@ public class SystemDateTimeProvider implements DateTimeProvider {
         return LocalDateTime.now();
     }
 
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
     @Override
     public LocalDateTime plusHours(long hours) {
         return LocalDateTime.now().plusHours(hours);
@@ -12,7 +12,7 @@ import java.util.List;
 public class CommandParser {
 
     public enum CommandType {
-        SHORTEN, GO, LIST, INFO, EDIT, DELETE,
+        SHORTEN, ALIAS, GO, LIST, INFO, EDIT, DELETE,
         SWITCH, NEWUSER, WHOAMI, STATS,
         CONFIG, HELP, EXIT, UNKNOWN
     }
@@ -59,6 +59,7 @@ public class CommandParser {
     private CommandType parseCommandType(String command) {
         return switch (command) {
             case "sh" -> CommandType.SHORTEN;
+            case "alias" -> CommandType.ALIAS;
             case "go" -> CommandType.GO;
             case "list" -> CommandType.LIST;
             case "info" -> CommandType.INFO;
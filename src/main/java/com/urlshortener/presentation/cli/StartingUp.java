@@ -6,6 +6,8 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.urlshortener.core.domain.models.Config;
 import com.urlshortener.core.domain.models.ShortenedUrl;
 import com.urlshortener.core.domain.models.User;
+import com.urlshortener.core.domain.valueobjects.AliasGrammar;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
 import com.urlshortener.core.domain.valueobjects.UserId;
 import com.urlshortener.core.ports.input.StatisticsUseCase;
 import com.urlshortener.core.ports.input.UrlShortenerUseCase;
@@ -14,19 +16,40 @@ import com.urlshortener.core.ports.output.*;
 import com.urlshortener.core.services.StatisticsServiceImpl;
 import com.urlshortener.core.services.UrlShortenerServiceImpl;
 import com.urlshortener.core.services.UserServiceImpl;
+import com.urlshortener.infrastructure.persistence.AsyncClickRecorder;
+import com.urlshortener.infrastructure.persistence.CachingUrlRepository;
+import com.urlshortener.infrastructure.persistence.ClickBackpressure;
+import com.urlshortener.infrastructure.persistence.CodeSequenceStore;
 import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.FilteredUrlRepository;
 import com.urlshortener.infrastructure.persistence.InMemoryUserRepository;
+import com.urlshortener.infrastructure.persistence.JdbcUrlRepository;
 import com.urlshortener.infrastructure.persistence.JsonConfigLoader;
+import com.urlshortener.infrastructure.persistence.StorageBackend;
+import com.urlshortener.infrastructure.persistence.TrieAliasIndex;
+import com.urlshortener.infrastructure.utils.AdaptiveLengthCodeGenerator;
 import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.CodeGeneratorMode;
+import com.urlshortener.infrastructure.utils.CounterCodeGenerator;
+import com.urlshortener.infrastructure.utils.FastHashCodeGenerator;
+import com.urlshortener.infrastructure.utils.LeasedCodeGenerator;
+import com.urlshortener.infrastructure.utils.SnowflakeCodeGenerator;
+import com.urlshortener.infrastructure.utils.CoarseDateTimeProvider;
 import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
 import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.urlshortener.presentation.http.NioRedirectListener;
+import com.urlshortener.presentation.http.RedirectHttpServer;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class StartingUp {
     public void start() {
@@ -38,44 +61,66 @@ public class StartingUp {
             // 2. Загрузка конфигурации
             Config config = configLoader.load();
 
+            // Часы приложения: хранилища и сервисы получают их в конструкторе и по ним проверяют сроки
+            DateTimeProvider dateTimeProvider = config.getClockTickMillis() > 0
+                    ? new CoarseDateTimeProvider(config.getClockTickMillis())
+                    : new SystemDateTimeProvider();
+            // Грамматика псевдонимов нужна уже при загрузке ссылок из хранилища
+            ShortCode.useAliasGrammar(createAliasGrammar(config));
+
             // 3. Инициализация репозиториев
-            UrlRepository urlRepository = new FileUrlRepository(objectMapper, config);
+            UrlRepository urlRepository = createUrlRepository(objectMapper, config, dateTimeProvider);
             UserRepository userRepository = new InMemoryUserRepository();
+            ClickRecorder clickRecorder = createClickRecorder(urlRepository, config);
 
             // 4. ЗАГРУЗИТЬ ПОЛЬЗОВАТЕЛЕЙ ИЗ ССЫЛОК
             loadUsersFromUrls(urlRepository, userRepository);
 
             // 5. Инициализация утилит
-            IdGenerator idGenerator = new CodeGeneratorImpl();
+            IdGenerator idGenerator = createIdGenerator(config, urlRepository);
             UrlValidator urlValidator = new UrlValidatorImpl();
-            DateTimeProvider dateTimeProvider = new SystemDateTimeProvider();
+            AliasIndex aliasIndex = createAliasIndex(urlRepository, config);
 
             // 6. Создание сервисов (Use Cases)
-            UrlShortenerUseCase urlShortenerService = new UrlShortenerServiceImpl(
+            UrlShortenerServiceImpl urlShortenerService = new UrlShortenerServiceImpl(
                     urlRepository,
+                    clickRecorder,
                     idGenerator,
                     urlValidator,
                     dateTimeProvider,
                     config.getDefaultTTLHours(),
                     config.getDefaultMaxClicks(),
                     config.getShortCodeLength(),
-                    config.getMaxTTLDays()
+                    config.getMaxTTLDays(),
+                    config.getShortenMaxAttempts(),
+                    aliasIndex
             );
 
             UserManagementUseCase userService = new UserServiceImpl(userRepository);
 
             // Наладить статистику
             StatisticsUseCase statisticsService = new StatisticsServiceImpl(
-                    urlRepository, userRepository, config);
+                    urlRepository, userRepository, config, dateTimeProvider, urlShortenerService::getAttemptStats,
+                    List.of(clickRecorder::getRecorderStats, idGenerator::getGeneratorStats));
 
             // 7. Автоматическая очистка
-            ScheduledExecutorService scheduler = startScheduler(urlRepository, config);
+            ScheduledExecutorService scheduler = startScheduler(urlRepository, idGenerator, config, dateTimeProvider);
+
+            // HTTP-сервер переходов (GET /{код})
+            RedirectHttpServer httpServer = startHttpServer(urlShortenerService, config);
+            NioRedirectListener nioListener = startNioListener(urlShortenerService, config);
+
+            // Ctrl+C и завершение JVM тоже дописывают очередь переходов и закрывают хранилище
+            Runnable shutdown = shutdownOnce(httpServer, nioListener, scheduler,
+                    idGenerator, clickRecorder, urlRepository, dateTimeProvider);
+            Runtime.getRuntime().addShutdownHook(new Thread(shutdown, "shutdown-drain"));
 
             // 8. Создание и запуск CLI
             URLShortenerCLI cli = new URLShortenerCLI(
                     urlShortenerService,
                     userService,
                     statisticsService,
+                    dateTimeProvider,
                     config.getBaseUrl(),
                     config.isEnableAutoRedirect()
             );
@@ -84,10 +129,7 @@ public class StartingUp {
             cli.start();
 
             // 9. Завершение работы
-            scheduler.shutdown();
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
+            shutdown.run();
 
             System.out.println("👋 Приложение завершило работу");
 
@@ -98,6 +140,159 @@ public class StartingUp {
         }
     }
 
+    private static UrlRepository createUrlRepository(ObjectMapper objectMapper, Config config,
+                                                     DateTimeProvider dateTimeProvider) {
+        UrlRepository repository = switch (StorageBackend.parse(config.getStorageBackend())) {
+            case FILE -> new FileUrlRepository(objectMapper, config, dateTimeProvider);
+            // Файловое хранилище и так держит все ссылки в памяти - кэш нужен только перед базой
+            case H2 -> withCache(new JdbcUrlRepository(objectMapper, config, dateTimeProvider), config,
+                    dateTimeProvider);
+        };
+        // Фильтр кодов - снаружи, чтобы несуществующие коды не доходили ни до кэша, ни до хранилища
+        return config.isLookupFilterEnabled() ? new FilteredUrlRepository(repository) : repository;
+    }
+
+    private static IdGenerator createIdGenerator(Config config, UrlRepository urlRepository) {
+        return switch (CodeGeneratorMode.parse(config.getCodeGenerator())) {
+            // Повторы бывают только у хэшей - счетчикам и SNOWFLAKE следить за заполненностью незачем
+            case HASH -> withAdaptiveLength(new CodeGeneratorImpl(), urlRepository, config);
+            case FAST_HASH -> withAdaptiveLength(new FastHashCodeGenerator(), urlRepository, config);
+            case COUNTER -> new CounterCodeGenerator(
+                    new CodeSequenceStore(Path.of(config.getCodeSequenceFile())), config.getCodeReserveSize());
+            case LEASED -> new LeasedCodeGenerator(
+                    new CodeSequenceStore(Path.of(config.getCodeSequenceFile())), config.getCodeReserveSize(),
+                    config.getCodeLeasePrefetchBlocks());
+            // Короткие коды SNOWFLAKE кончаются за месяцы - такую длину лучше не принять сразу
+            case SNOWFLAKE -> new SnowflakeCodeGenerator(
+                    config.getCodeNodeId(), config.getCodeNodeBits(), config.getCodeSequenceBits())
+                    .requireLifetime(config.getShortCodeLength(),
+                            Duration.ofDays(365L * config.getCodeLifetimeYears()));
+        };
+    }
+
+    private static AliasGrammar createAliasGrammar(Config config) {
+        if (!config.isAliasEnabled()) {
+            return AliasGrammar.NONE;
+        }
+        return new AliasGrammar(config.getAliasMinLength(), config.getAliasMaxLength(), config.getAliasSeparators());
+    }
+
+    // В дерево попадают только коды, которые не могли быть сгенерированы - остальные проверяет хранилище
+    private static AliasIndex createAliasIndex(UrlRepository urlRepository, Config config) {
+        if (!config.isAliasEnabled()) {
+            return null;
+        }
+        return new TrieAliasIndex(ShortCode.aliasGrammar(), config.getAliasReservedWords(),
+                urlRepository.findAll().stream()
+                        .map(url -> url.getShortCode().value())
+                        .filter(code -> !ShortCode.hasGeneratedFormat(code))
+                        .toList());
+    }
+
+    private static IdGenerator withAdaptiveLength(IdGenerator generator, UrlRepository urlRepository,
+                                                  Config config) {
+        if (!config.isCodeAdaptiveLength()) {
+            return generator;
+        }
+        return new AdaptiveLengthCodeGenerator(generator, urlRepository::existsByShortCode,
+                urlRepository.findAll().stream().map(ShortenedUrl::getShortCode).toList(),
+                config.getShortCodeLength(), config.getCodeMaxLoadFactor(), config.getCodeMaxRetries());
+    }
+
+    private static ClickRecorder createClickRecorder(UrlRepository urlRepository, Config config) {
+        if (config.getClickQueueCapacity() <= 0) {
+            return urlRepository::updateClicks;
+        }
+        return new AsyncClickRecorder(urlRepository, config.getClickQueueCapacity(),
+                config.getClickFlushIntervalMs(), ClickBackpressure.parse(config.getClickBackpressure()));
+    }
+
+    private static RedirectHttpServer startHttpServer(UrlShortenerUseCase urlShortenerService,
+                                                      Config config) throws IOException {
+        if (!config.isHttpEnabled()) {
+            return null;
+        }
+        RedirectHttpServer server = new RedirectHttpServer(
+                urlShortenerService,
+                config.getHttpPort(),
+                config.getHttpRedirectStatus(),
+                config.isHttpKeepAlive(),
+                config.getHttpIdleTimeoutSeconds(),
+                config.getHttpMaxConnections(),
+                config.isHttpVirtualThreads()
+        );
+        server.start();
+        System.out.println("🌐 HTTP-сервер переходов: порт " + server.getPort() +
+                (server.isUsingVirtualThreads() ? " (виртуальные потоки)" : ""));
+        return server;
+    }
+
+    private static NioRedirectListener startNioListener(UrlShortenerUseCase urlShortenerService,
+                                                        Config config) throws IOException {
+        if (!config.isNioEnabled()) {
+            return null;
+        }
+        NioRedirectListener listener = new NioRedirectListener(
+                urlShortenerService,
+                config.getNioPort(),
+                config.getHttpRedirectStatus(),
+                config.getNioEventLoops(),
+                config.getNioResponseCacheEntries()
+        );
+        listener.start();
+        System.out.println("⚡ Приемник переходов NIO: порт " + listener.getPort());
+        return listener;
+    }
+
+    // Порядок важен: сначала перестают приходить переходы, затем очередь переходов
+    // дописывается в хранилище до его закрытия, часы - последними
+    private static Runnable shutdownOnce(RedirectHttpServer httpServer, NioRedirectListener nioListener,
+                                         ScheduledExecutorService scheduler, IdGenerator idGenerator,
+                                         ClickRecorder clickRecorder, UrlRepository urlRepository,
+                                         DateTimeProvider dateTimeProvider) {
+        AtomicBoolean done = new AtomicBoolean();
+        return () -> {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (httpServer != null) {
+                    httpServer.close();
+                }
+                if (nioListener != null) {
+                    nioListener.close();
+                }
+                scheduler.shutdown();
+                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                    scheduler.shutdownNow();
+                }
+                if (idGenerator instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+                if (clickRecorder instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+                if (urlRepository instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+                if (dateTimeProvider instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+            } catch (Exception e) {
+                System.err.println("❌ Ошибка при завершении работы: " + e.getMessage());
+            }
+        };
+    }
+
+    private static UrlRepository withCache(UrlRepository repository, Config config,
+                                           DateTimeProvider dateTimeProvider) {
+        if (config.getCacheMaxEntries() <= 0 && config.getCacheMaxBytes() <= 0) {
+            return repository;
+        }
+        return new CachingUrlRepository(repository, config.getCacheMaxEntries(), config.getCacheMaxBytes(),
+                dateTimeProvider);
+    }
+
     private static void loadUsersFromUrls(UrlRepository urlRepository, UserRepository userRepository) {
         try {
             // Получаем все ссылки
@@ -127,14 +322,19 @@ public class StartingUp {
         return mapper;
     }
 
-    private static ScheduledExecutorService startScheduler(UrlRepository urlRepository, Config config) {
+    private static ScheduledExecutorService startScheduler(UrlRepository urlRepository, IdGenerator idGenerator,
+                                                           Config config, DateTimeProvider dateTimeProvider) {
         ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
         // Задача очистки просроченных ссылок
         scheduler.scheduleAtFixedRate(() -> {
                     try {
-                        long before = urlRepository.count();
-                        // В этой реализации очистка происходит при загрузке
-                        System.out.println("🧹 Очистка выполнена");
+                        long removed = urlRepository.deleteExpired(dateTimeProvider.currentTimeMillis());
+                        System.out.println("🧹 Очистка выполнена: удалено просроченных ссылок - " + removed);
+                        // Удаленные коды освобождают место - длина новых кодов может снова уменьшиться
+                        if (idGenerator instanceof AdaptiveLengthCodeGenerator adaptive) {
+                            adaptive.recount(urlRepository.findAll().stream()
+                                    .map(ShortenedUrl::getShortCode).toList());
+                        }
                     } catch (Exception e) {
                         System.err.println("❌ Ошибка очистки: " + e.getMessage());
                     }
@@ -7,6 +7,7 @@ import com.urlshortener.core.domain.valueobjects.UserId;
 import com.urlshortener.core.ports.input.StatisticsUseCase;
 import com.urlshortener.core.ports.input.UrlShortenerUseCase;
 import com.urlshortener.core.ports.input.UserManagementUseCase;
+import com.urlshortener.core.ports.output.DateTimeProvider;
 import com.urlshortener.core.services.UserServiceImpl;
 
 import java.awt.Desktop;
@@ -33,13 +34,14 @@ public class URLShortenerCLI {
     public URLShortenerCLI(UrlShortenerUseCase urlShortenerUseCase,
                            UserManagementUseCase userManagementUseCase,
                            StatisticsUseCase statisticsUseCase,
+                           DateTimeProvider dateTimeProvider,
                            String baseUrl,
                            boolean enableAutoRedirect) {
         this.urlShortenerUseCase = urlShortenerUseCase;
         this.userManagementUseCase = userManagementUseCase;
         this.statisticsUseCase = statisticsUseCase;
         this.commandParser = new CommandParser();
-        this.urlPrinter = new UrlPrinter();
+        this.urlPrinter = new UrlPrinter(dateTimeProvider);
         this.scanner = new Scanner(System.in);
         this.baseUrl = baseUrl;
         this.enableAutoRedirect = enableAutoRedirect;
@@ -130,6 +132,7 @@ public class URLShortenerCLI {
         try {
             switch (parsed.getType()) {
                 case SHORTEN -> handleShorten(parsed);
+                case ALIAS -> handleAlias(parsed);
                 case GO -> handleGo(parsed);
                 case LIST -> handleList();
                 case INFO -> handleInfo(parsed);
@@ -240,6 +243,20 @@ public class URLShortenerCLI {
         }
     }
 
+    private void handleAlias(CommandParser.ParsedCommand parsed) {
+        if (parsed.getArgCount() < 2) {
+            urlPrinter.printError("Используйте: alias <url> <псевдоним>");
+            return;
+        }
+
+        var currentUser = userManagementUseCase.getCurrentUser()
+                .orElseThrow(() -> new IllegalStateException("Пользователь не найден"));
+
+        ShortenedUrl shortenedUrl = urlShortenerUseCase.shortenUrlWithAlias(
+                new Url(parsed.getArg(0)), currentUser.getId(), parsed.getArg(1));
+        urlPrinter.printSuccess("Создана короткая ссылка: " + shortenedUrl.getShortUrl(baseUrl));
+    }
+
     private void handleGo(CommandParser.ParsedCommand parsed) {
         if (parsed.getArgCount() < 1) {
             urlPrinter.printError("Используйте: go <короткая_ссылка>");
@@ -1,6 +1,7 @@
 package com.urlshortener.presentation.cli;
 
 import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.ports.output.DateTimeProvider;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -11,6 +12,13 @@ import java.util.Map;
  */
 public class UrlPrinter {
 
+    // Оставшееся время и статус ссылок считаются по часам приложения
+    private final DateTimeProvider dateTimeProvider;
+
+    public UrlPrinter(DateTimeProvider dateTimeProvider) {
+        this.dateTimeProvider = dateTimeProvider;
+    }
+
     public void printBanner() {
         System.out.println();
         System.out.println(ConsoleColors.cyan("╔══════════════════════════════════════════════════════════════════════╗"));
@@ -24,6 +32,7 @@ public class UrlPrinter {
         System.out.println(ConsoleColors.bold(ConsoleColors.blue("📖 ДОСТУПНЫЕ КОМАНДЫ:")));
         System.out.println("┌─────────────────────────────────────────────────────────────────────-");
         System.out.println("│ " + ConsoleColors.green("sh <url> [дата] [переходы]") + " - Сократить URL с параметами ");
+        System.out.println("│ " + ConsoleColors.green("alias <url> <псевдоним>") + "      - Ссылка с собственным кодом   ");
         System.out.println("│ " + ConsoleColors.green("go <короткая_ссылка>") + "         - Перейти по короткой ссылке    ");
         System.out.println("│ " + ConsoleColors.green("list") + "                       - Мои ссылки                   ");
         System.out.println("│ " + ConsoleColors.green("info <короткая_ссылка>") + "       - Информация о ссылке          ");
@@ -45,6 +54,7 @@ public class UrlPrinter {
     }
 
     public void printUrlInfo(ShortenedUrl url, String baseUrl, DateTimeFormatter formatter) {
+        long now = dateTimeProvider.currentTimeMillis();
         System.out.println();
         System.out.println(ConsoleColors.bold(ConsoleColors.blue("📊 ИНФОРМАЦИЯ О ССЫЛКЕ")));
         System.out.println("┌────────────────────────────────────────────────────────────┐");
@@ -53,12 +63,12 @@ public class UrlPrinter {
                 truncate(url.getOriginalUrl().value(), 50));
         System.out.println("│ " + ConsoleColors.cyan("Создана: ") + url.getCreatedAt().format(formatter));
         System.out.println("│ " + ConsoleColors.cyan("Истекает: ") + url.getExpiresAt().format(formatter) +
-                " (" + url.getRemainingHours() + "ч осталось)");
+                " (" + url.getRemainingHours(now) + "ч осталось)");
 
         String status;
-        if (url.canBeAccessed()) {
+        if (url.canBeAccessedAt(now)) {
             status = ConsoleColors.green("Активна");
-        } else if (url.isExpired()) {
+        } else if (url.isExpiredAt(now)) {
             status = ConsoleColors.red("Истекла");
         } else {
             status = ConsoleColors.yellow("Неактивна");
@@ -89,6 +99,7 @@ public class UrlPrinter {
         System.out.println("├──────────────────────────────────┼──────────────────────────────────────────┼──────────┼────────────┼────────────────────┤");
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
+        long now = dateTimeProvider.currentTimeMillis();
 
         for (ShortenedUrl url : urls) {
             String shortUrl = url.getShortUrl(baseUrl);
@@ -102,7 +113,7 @@ public class UrlPrinter {
                     displayUrl,
                     url.getCurrentClicks(),
                     url.getMaxClicks(),
-                    url.getStatus(),
+                    url.getStatus(now),
                     expiresAt
             );
         }
@@ -110,7 +121,7 @@ public class UrlPrinter {
         System.out.println("└──────────────────────────────────┴──────────────────────────────────────────┴──────────┴────────────┴────────────────────┘");
 
         // Статистика
-        long activeCount = urls.stream().filter(ShortenedUrl::canBeAccessed).count();
+        long activeCount = urls.stream().filter(url -> url.canBeAccessedAt(now)).count();
         int totalClicks = urls.stream().mapToInt(ShortenedUrl::getCurrentClicks).sum();
 
         System.out.println();
@@ -127,6 +138,40 @@ public class UrlPrinter {
         printStatRow("Всего пользователей", globalStats.get("totalUsers"));
         printStatRow("Активных ссылок", globalStats.get("activeUrls"));
         printStatRow("Просроченных ссылок", globalStats.get("expiredUrls"));
+        if (globalStats.containsKey("snapshotLag")) {
+            printStatRow("Снимок сделан (с назад)", globalStats.get("snapshotAgeSeconds"));
+            printStatRow("Изменений вне снимка", globalStats.get("snapshotLag"));
+        }
+        if (globalStats.containsKey("filterRejectedLookups")) {
+            printStatRow("Отсечено фильтром кодов", globalStats.get("filterRejectedLookups"));
+        }
+        if (globalStats.containsKey("cacheHits")) {
+            printStatRow("Ссылок в кэше", globalStats.get("cacheSize"));
+            printStatRow("Попаданий в кэш",
+                    String.format("%.1f%%", (double) globalStats.get("cacheHitRate") * 100));
+            printStatRow("Промахов кэша", globalStats.get("cacheMisses"));
+            printStatRow("Вытеснено из кэша", globalStats.get("cacheEvictions"));
+        }
+        if (globalStats.containsKey("codeCollisions")) {
+            printStatRow("Занятых кодов при создании", globalStats.get("codeCollisions"));
+            printStatRow("Код не подобран", globalStats.get("codeExhausted"));
+            printStatRow("Ссылок с повтором",
+                    String.format("%.1f%%", (double) globalStats.get("codeRetryRate") * 100));
+        }
+        if (globalStats.containsKey("codeLength")) {
+            printStatRow("Длина новых кодов", globalStats.get("codeLength"));
+            printStatRow("Занято кодов этой длины", globalStats.get("codeSpaceOccupied") + " из "
+                    + globalStats.get("codeSpaceCapacity") + String.format(" (%.2f%%)",
+                    (double) globalStats.get("codeSpaceLoad") * 100));
+            printStatRow("Удлинений кода", globalStats.get("codeLengthGrowths"));
+        }
+        if (globalStats.containsKey("clickQueueDepth")) {
+            printStatRow("Переходов в очереди", globalStats.get("clickQueueDepth") + " из "
+                    + globalStats.get("clickQueueCapacity") + " (макс. " + globalStats.get("clickQueueMaxDepth") + ")");
+            printStatRow("Записей счетчиков", globalStats.get("clickWrites"));
+            printStatRow("Записано без очереди", globalStats.get("clickCallerRuns"));
+            printStatRow("Отброшено переходов", globalStats.get("clickDropped"));
+        }
         System.out.println("└────────────────────────────────────────────────────────────┘");
 
         if (userStats != null && !userStats.isEmpty()) {
@@ -0,0 +1,458 @@
+package com.urlshortener.presentation.http;
+
+import com.urlshortener.core.domain.exceptions.UrlNotFoundException;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.ports.input.UrlShortenerUseCase;
+import com.urlshortener.infrastructure.persistence.CodeLookupKey;
+import com.urlshortener.infrastructure.utils.AsciiCharSequence;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Неблокирующий HTTP/1.1-приемник переходов на селекторах NIO - для наибольшей пропускной способности.
+ *
+ * Из запроса разбирается только стартовая строка (метод, путь, версия), заголовки пропускаются.
+ * HEAD получает тот же ответ, что GET, но переход не засчитывает.
+ * Ответ для каждой ссылки (строка статуса и заголовок Location) кодируется один раз и копируется
+ * в буфер соединения готовыми байтами. Запись ответа сверяется с целевым URL, который вернул
+ * {@link UrlShortenerUseCase#resolve}: после редактирования ссылки ответ кодируется заново.
+ * Готовые ответы у каждого цикла событий свои, в LRU-списке без блокировок; ответ недоступной
+ * ссылки выбрасывается при первом же запросе к ней.
+ *
+ * Соединения распределяются по нескольким циклам событий, каждый со своим селектором.
+ * Поддерживаются keep-alive (HTTP/1.1 по умолчанию) и конвейерные запросы: все запросы,
+ * пришедшие одним пакетом, получают ответы одной записью.
+ */
+public class NioRedirectListener implements AutoCloseable {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int WRITE_BUFFER_SIZE = 16384;
+
+    private static final ByteBuffer NOT_FOUND = encode(
+            "HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n\r\n");
+    private static final ByteBuffer METHOD_NOT_ALLOWED = encode(
+            "HTTP/1.1 405 Method Not Allowed\r\nAllow: GET, HEAD\r\nContent-Length: 0\r\n\r\n");
+    private static final ByteBuffer BAD_REQUEST = encode(
+            "HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+    private static final ByteBuffer VERSION_NOT_SUPPORTED = encode(
+            "HTTP/1.1 505 HTTP Version Not Supported\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+    private static final ByteBuffer SERVER_ERROR = encode(
+            "HTTP/1.1 500 Internal Server Error\r\nContent-Length: 0\r\n\r\n");
+    private static final byte[] HTTP_PREFIX = "HTTP/1.".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Готовый ответ-перенаправление и URL, для которого он собран
+     */
+    private record EncodedRedirect(Url target, ByteBuffer response) {
+    }
+
+    private final UrlShortenerUseCase urlShortenerUseCase;
+    private final String statusLine;
+    private final String cacheControl;
+    private final int maxCachedResponses;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    /**
+     * @param port               порт (0 - любой свободный)
+     * @param redirectStatus     301 или 302
+     * @param eventLoops         число циклов событий (0 - по числу процессоров)
+     * @param maxCachedResponses сколько готовых ответов держать в памяти
+     */
+    public NioRedirectListener(UrlShortenerUseCase urlShortenerUseCase, int port, int redirectStatus,
+                               int eventLoops, int maxCachedResponses) throws IOException {
+        if (redirectStatus != 301 && redirectStatus != 302) {
+            throw new IllegalArgumentException("Код перенаправления должен быть 301 или 302: " + redirectStatus);
+        }
+        this.urlShortenerUseCase = urlShortenerUseCase;
+        this.statusLine = redirectStatus == 301 ? "HTTP/1.1 301 Moved Permanently\r\n" : "HTTP/1.1 302 Found\r\n";
+        // Временное перенаправление не кэшируется браузером, иначе переходы перестанут учитываться
+        this.cacheControl = redirectStatus == 302 ? "Cache-Control: no-store\r\n" : "";
+        this.maxCachedResponses = Math.max(0, maxCachedResponses);
+
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port), 1024);
+
+        int count = eventLoops > 0 ? eventLoops : Runtime.getRuntime().availableProcessors();
+        int responsesPerLoop = (this.maxCachedResponses + count - 1) / count;
+        this.loops = new EventLoop[count];
+        for (int i = 0; i < count; i++) {
+            loops[i] = new EventLoop(Selector.open(), "nio-redirect-" + i, responsesPerLoop);
+        }
+        this.acceptor = new Thread(this::acceptLoop, "nio-accept");
+        this.acceptor.setDaemon(true);
+    }
+
+    public void start() {
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Сколько готовых ответов закодировано и хранится сейчас
+     */
+    public int getCachedResponses() {
+        int total = 0;
+        for (EventLoop loop : loops) {
+            total += loop.cachedResponses;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+        }
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        try {
+            acceptor.join(1000);
+            for (EventLoop loop : loops) {
+                loop.thread.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("❌ Ошибка приема соединения: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer encode(String response) {
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    /**
+     * Состояние соединения: непрочитанные запросы и еще не отправленные ответы
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        final ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        boolean closeAfterWrite;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        // Код из буфера запроса без создания строки
+        final AsciiCharSequence code = new AsciiCharSequence();
+        // Готовые ответы этого цикла: читаются и меняются только его потоком, давние вытесняются
+        final Map<String, EncodedRedirect> responses;
+        volatile int cachedResponses;
+
+        EventLoop(Selector selector, String name, int maxResponses) {
+            this.selector = selector;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+            this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, EncodedRedirect> eldest) {
+                    return size() > maxResponses;
+                }
+            };
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = pending.poll()) != null) {
+                        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("❌ Ошибка цикла событий: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeQuietly(key);
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isValid() && key.isWritable() && !flush(key, connection)) {
+                    return;
+                }
+                if (key.isValid() && key.isReadable()) {
+                    if (connection.channel.read(connection.in) < 0) {
+                        closeQuietly(key);
+                        return;
+                    }
+                }
+                if (key.isValid()) {
+                    process(connection);
+                    flush(key, connection);
+                }
+            } catch (IOException e) {
+                closeQuietly(key);
+            } catch (RuntimeException e) {
+                // Сбой одного соединения не должен останавливать цикл и остальные его соединения
+                System.err.println("❌ Ошибка обработки соединения: " + e.getMessage());
+                closeQuietly(key);
+            }
+        }
+
+        // Отвечает на все полностью пришедшие запросы, пока хватает места в буфере ответов
+        private void process(Connection connection) {
+            ByteBuffer in = connection.in;
+            byte[] bytes = in.array();
+            int end = in.position();
+            int start = 0;
+            while (!connection.closeAfterWrite) {
+                int headersEnd = indexOfHeadersEnd(bytes, start, end);
+                if (headersEnd < 0) {
+                    if (start == 0 && end == in.capacity()) {
+                        // Запрос не помещается в буфер - для переходов таких не бывает
+                        reply(connection, BAD_REQUEST);
+                        connection.closeAfterWrite = true;
+                    }
+                    break;
+                }
+                // Худший случай: перенаправление с URL предельной длины
+                if (connection.out.remaining() < 2048 + 256) {
+                    break;
+                }
+                respond(connection, bytes, start, headersEnd);
+                start = headersEnd + 4;
+            }
+            in.limit(end).position(start);
+            in.compact();
+        }
+
+        private void respond(Connection connection, byte[] bytes, int start, int end) {
+            int methodEnd = indexOf(bytes, (byte) ' ', start, end);
+            int pathEnd = methodEnd < 0 ? -1 : indexOf(bytes, (byte) ' ', methodEnd + 1, end);
+            if (pathEnd < 0 || bytes[methodEnd + 1] != '/') {
+                reply(connection, BAD_REQUEST);
+                connection.closeAfterWrite = true;
+                return;
+            }
+            int minorVersion = httpMinorVersion(bytes, pathEnd + 1, end);
+            if (minorVersion < 0) {
+                reply(connection, minorVersion == -1 ? BAD_REQUEST : VERSION_NOT_SUPPORTED);
+                connection.closeAfterWrite = true;
+                return;
+            }
+            // HTTP/1.0 закрывает соединение после ответа
+            if (minorVersion == 0) {
+                connection.closeAfterWrite = true;
+            }
+            boolean head = isMethod(bytes, start, methodEnd, "HEAD");
+            if (!head && !isMethod(bytes, start, methodEnd, "GET")) {
+                reply(connection, METHOD_NOT_ALLOWED);
+                return;
+            }
+
+            int codeStart = methodEnd + 2;
+            int codeEnd = indexOf(bytes, (byte) '?', codeStart, pathEnd);
+            code.wrap(bytes, codeStart, (codeEnd < 0 ? pathEnd : codeEnd) - codeStart);
+            Url target;
+            try {
+                target = head ? peek(code) : urlShortenerUseCase.resolve(code);
+            } catch (RuntimeException e) {
+                // Например, сбой хранилища: отвечаем только на этот запрос, соединение и цикл живут дальше
+                System.err.println("❌ Ошибка перехода: " + e.getMessage());
+                reply(connection, SERVER_ERROR);
+                return;
+            }
+            if (target == null) {
+                // Ссылку удалили, она истекла или исчерпана - готовый ответ больше не нужен
+                if (responses.remove(CodeLookupKey.of(code)) != null) {
+                    cachedResponses = responses.size();
+                }
+                reply(connection, NOT_FOUND);
+                return;
+            }
+            reply(connection, redirectResponse(code, target));
+        }
+
+        // Целевой URL для HEAD: ссылка ищется, но переход не засчитывается
+        private Url peek(CharSequence code) {
+            if (!ShortCode.isValid(code)) {
+                return null;
+            }
+            try {
+                return urlShortenerUseCase.peek(new ShortCode(code.toString()));
+            } catch (UrlNotFoundException | IllegalStateException e) {
+                return null;
+            }
+        }
+
+        private ByteBuffer redirectResponse(CharSequence code, Url target) {
+            EncodedRedirect encoded = responses.get(CodeLookupKey.of(code));
+            if (encoded != null && (encoded.target() == target || encoded.target().equals(target))) {
+                return encoded.response();
+            }
+            ByteBuffer response = encode(statusLine + "Location: " + target.value() + "\r\n" +
+                    cacheControl + "Content-Length: 0\r\n\r\n");
+            if (maxCachedResponses > 0) {
+                responses.put(code.toString(), new EncodedRedirect(target, response));
+                cachedResponses = responses.size();
+            }
+            return response;
+        }
+
+        private void reply(Connection connection, ByteBuffer response) {
+            ByteBuffer out = connection.out;
+            int length = response.limit();
+            out.put(out.position(), response, 0, length);
+            out.position(out.position() + length);
+        }
+
+        // true, если все ответы отправлены
+        private boolean flush(SelectionKey key, Connection connection) throws IOException {
+            ByteBuffer out = connection.out;
+            if (out.position() > 0) {
+                out.flip();
+                connection.channel.write(out);
+                out.compact();
+            }
+            if (out.position() > 0) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return false;
+            }
+            if (connection.closeAfterWrite) {
+                closeQuietly(key);
+                return false;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            return true;
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static int indexOfHeadersEnd(byte[] bytes, int from, int to) {
+        for (int i = from; i + 3 < to; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+            if (bytes[i] == '\r') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Младшая цифра версии из стартовой строки ("HTTP/1.0" - 0, "HTTP/1.1" - 1);
+     * -1 - строка не заканчивается версией, -2 - версия не HTTP/1.x
+     */
+    private static int httpMinorVersion(byte[] bytes, int from, int to) {
+        int lineEnd = from;
+        while (lineEnd < to && bytes[lineEnd] != '\r') {
+            lineEnd++;
+        }
+        int length = lineEnd - from;
+        if (length < 5 || bytes[from] != 'H' || bytes[from + 1] != 'T' || bytes[from + 2] != 'T'
+                || bytes[from + 3] != 'P' || bytes[from + 4] != '/') {
+            return -1;
+        }
+        if (length != HTTP_PREFIX.length + 1) {
+            return -2;
+        }
+        for (int i = 5; i < HTTP_PREFIX.length; i++) {
+            if (bytes[from + i] != HTTP_PREFIX[i]) {
+                return -2;
+            }
+        }
+        byte minor = bytes[from + HTTP_PREFIX.length];
+        return minor >= '0' && minor <= '9' ? minor - '0' : -2;
+    }
+
+    private static boolean isMethod(byte[] bytes, int from, int to, String method) {
+        if (to - from != method.length()) {
+            return false;
+        }
+        for (int i = 0; i < method.length(); i++) {
+            if (bytes[from + i] != method.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+package com.urlshortener.presentation.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.urlshortener.core.domain.exceptions.UrlNotFoundException;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.ports.input.UrlShortenerUseCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP-сервер переходов: GET /{код} отвечает перенаправлением на исходный URL.
+ * HEAD отвечает тем же, но переход не засчитывает - ботам предпросмотра и проверкам
+ * доступности незачем тратить лимит переходов.
+ *
+ * Построен на встроенном в JDK com.sun.net.httpserver. Каждый запрос обрабатывается
+ * в виртуальном потоке, если JVM их поддерживает (Java 21+), иначе - в обычном пуле.
+ * Число одновременно обрабатываемых запросов ограничено: сверх лимита сервер сразу
+ * отвечает 503, а не копит очередь.
+ */
+public class RedirectHttpServer implements AutoCloseable {
+
+    private final UrlShortenerUseCase urlShortenerUseCase;
+    private final int redirectStatus;
+    private final boolean keepAlive;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final HttpServer server;
+
+    /**
+     * @param port               порт (0 - любой свободный)
+     * @param redirectStatus     301 или 302
+     * @param keepAlive          держать соединение открытым между запросами
+     * @param idleTimeoutSeconds сколько держать простаивающее соединение
+     * @param maxConnections     наибольшее число соединений и одновременных запросов
+     * @param useVirtualThreads  обрабатывать запросы в виртуальных потоках, если они есть
+     */
+    public RedirectHttpServer(UrlShortenerUseCase urlShortenerUseCase, int port, int redirectStatus,
+                              boolean keepAlive, int idleTimeoutSeconds, int maxConnections,
+                              boolean useVirtualThreads) throws IOException {
+        if (redirectStatus != 301 && redirectStatus != 302) {
+            throw new IllegalArgumentException("Код перенаправления должен быть 301 или 302: " + redirectStatus);
+        }
+        this.urlShortenerUseCase = urlShortenerUseCase;
+        this.redirectStatus = redirectStatus;
+        this.keepAlive = keepAlive;
+        this.permits = new Semaphore(Math.max(1, maxConnections));
+
+        // Настройки встроенного сервера читаются один раз при загрузке его классов;
+        // значения, заданные через -D, не перекрываются
+        setDefaultProperty("sun.net.httpserver.idleInterval", String.valueOf(Math.max(1, idleTimeoutSeconds)));
+        setDefaultProperty("sun.net.httpserver.maxConnections", String.valueOf(Math.max(1, maxConnections)));
+
+        ExecutorService virtual = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformThreadExecutor();
+
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void close() {
+        // Секунда на то, чтобы дописать уже начатые ответы
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!permits.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, "Сервер перегружен");
+            return;
+        }
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                respond(exchange, 405, "Метод не поддерживается");
+                return;
+            }
+
+            String code = exchange.getRequestURI().getPath().substring(1);
+            if (!ShortCode.isValid(code)) {
+                respond(exchange, 404, "Ссылка не найдена");
+                return;
+            }
+
+            Url target;
+            try {
+                ShortCode shortCode = new ShortCode(code);
+                target = "HEAD".equals(method)
+                        ? urlShortenerUseCase.peek(shortCode)
+                        : urlShortenerUseCase.redirect(shortCode);
+            } catch (UrlNotFoundException e) {
+                respond(exchange, 404, "Ссылка не найдена");
+                return;
+            } catch (IllegalStateException e) {
+                // Лимит исчерпан, срок истек или ссылка заблокирована - ссылки больше нет
+                respond(exchange, 410, e.getMessage());
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Location", target.value());
+            if (redirectStatus == 302) {
+                // Иначе браузер запомнит перенаправление, и переходы перестанут учитываться
+                exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            }
+            respond(exchange, redirectStatus, null);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String message) throws IOException {
+        if (!keepAlive) {
+            exchange.getResponseHeaders().set("Connection", "close");
+        }
+        byte[] body = message == null || "HEAD".equals(exchange.getRequestMethod())
+                ? new byte[0]
+                : message.getBytes(StandardCharsets.UTF_8);
+        if (body.length > 0) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private static void setDefaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    // Сборка остается на Java 17, поэтому виртуальные потоки (Java 21) ищутся через рефлексию
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-redirect-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,181 @@
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.IdGenerator;
+import com.urlshortener.core.ports.output.UrlRepository;
+import com.urlshortener.core.ports.output.UserRepository;
+import com.urlshortener.core.services.StatisticsServiceImpl;
+import com.urlshortener.infrastructure.utils.AdaptiveLengthCodeGenerator;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.CodeSpaceStats;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AdaptiveCodeLengthTest {
+
+    private final Url url = new Url("https://example.com/space");
+    private final UserId userId = UserId.generate();
+
+    // Случайные коды из цифр: маленькое пространство, которое быстро заполняется
+    private static class DigitCodeGenerator implements IdGenerator {
+        private final Random random = new Random(42);
+
+        @Override
+        public ShortCode generate(Url originalUrl, UserId userId) {
+            return generate(originalUrl, userId, 4);
+        }
+
+        @Override
+        public ShortCode generate(Url originalUrl, UserId userId, int length) {
+            StringBuilder code = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                code.append((char) ('0' + random.nextInt(10)));
+            }
+            return new ShortCode(code.toString());
+        }
+
+        @Override
+        public ShortCode generateForUser(Url originalUrl, UserId userId, int length,
+                                         Map<String, String> existingCodes) {
+            return generate(originalUrl, userId, length);
+        }
+
+        @Override
+        public boolean isValid(String code) {
+            return ShortCode.isValid(code);
+        }
+
+        @Override
+        public long capacity(int length) {
+            return (long) Math.pow(10, length);
+        }
+    }
+
+    @Test
+    void codesGrowLongerAsTheSpaceFillsUp() {
+        System.out.println("🟡 ТЕСТ: Длина кодов растет по заполненности");
+        System.out.println("=============================================");
+
+        Set<String> taken = new HashSet<>();
+        AdaptiveLengthCodeGenerator generator = new AdaptiveLengthCodeGenerator(new DigitCodeGenerator(),
+                code -> taken.contains(code.value()), List.of(), 4, 0.1, 3);
+
+        // Шаг 1: 10% из 10 000 кодов длины 4 - затем длина 5
+        System.out.println("✅ Шаг 1: Выдача 1000 кодов длины 4...");
+        for (int i = 0; i < 1000; i++) {
+            ShortCode code = generator.generate(url, userId, 4);
+            assertEquals(4, code.value().length());
+            assertTrue(taken.add(code.value()), "Выданный код не должен быть занят");
+        }
+        assertEquals(5, generator.generate(url, userId, 4).value().length());
+
+        // Шаг 2: Повторы редки, пока заполненность ниже порога
+        System.out.println("✅ Шаг 2: Статистика пространства кодов...");
+        CodeSpaceStats stats = generator.getStats();
+        assertEquals(5, stats.length());
+        assertEquals(1001, stats.generated());
+        assertEquals(1, stats.growths());
+        assertTrue(stats.collisionRate() < 0.1, "Повторов слишком много: " + stats.collisionRate());
+        assertEquals(100_000, stats.capacity());
+
+        // Шаг 3: Заполненность пространства кодов видна в глобальной статистике
+        System.out.println("✅ Шаг 3: Показатели генератора в статистике...");
+        Map<String, Object> global = new StatisticsServiceImpl(mock(UrlRepository.class), mock(UserRepository.class),
+                Config.createDefault(), new SystemDateTimeProvider(), null, List.of(generator::getGeneratorStats))
+                .getGlobalStatistics();
+        assertEquals(5, global.get("codeLength"));
+        assertEquals(stats.occupied(), global.get("codeSpaceOccupied"));
+        assertEquals(100_000L, global.get("codeSpaceCapacity"));
+        assertEquals(stats.loadFactor(), (double) global.get("codeSpaceLoad"), 1e-9);
+        assertEquals(1L, global.get("codeLengthGrowths"));
+        assertTrue(new DigitCodeGenerator().getGeneratorStats().isEmpty(), "У обычного генератора показателей нет");
+
+        System.out.println("🎉 Тест пройден: коды удлиняются раньше, чем повторы станут частыми\n");
+    }
+
+    @Test
+    void startupAndRepeatedCollisionsPickALongerLength() {
+        System.out.println("🟡 ТЕСТ: Выбор длины при запуске и при повторах подряд");
+        System.out.println("======================================================");
+
+        // Шаг 1: Хранилище уже заполнено кодами длины 4 - начинаем с длины 5
+        System.out.println("✅ Шаг 1: Запуск с заполненным хранилищем...");
+        List<ShortCode> existing = IntStream.range(0, 1000)
+                .mapToObj(i -> new ShortCode(String.format("%04d", i)))
+                .toList();
+        Set<String> taken = existing.stream().map(ShortCode::value).collect(Collectors.toSet());
+        AdaptiveLengthCodeGenerator restarted = new AdaptiveLengthCodeGenerator(new DigitCodeGenerator(),
+                code -> taken.contains(code.value()), existing, 4, 0.1, 3);
+        assertEquals(5, restarted.getStats().length());
+
+        // Шаг 2: Все коды длины 4 заняты - после трех повторов длина растет
+        System.out.println("✅ Шаг 2: Три повтора подряд...");
+        AdaptiveLengthCodeGenerator crowded = new AdaptiveLengthCodeGenerator(new DigitCodeGenerator(),
+                code -> code.value().length() == 4, List.of(), 4, 0.1, 3);
+        assertEquals(5, crowded.generate(url, userId, 4).value().length());
+        assertEquals(3, crowded.getStats().collisions());
+        assertEquals(1, crowded.getStats().growths());
+
+        // Шаг 3: Пространство генератора по умолчанию - без 9 похожих символов
+        System.out.println("✅ Шаг 3: Емкость кодов CodeGeneratorImpl...");
+        assertEquals(53L * 53 * 53 * 53, new CodeGeneratorImpl().capacity(4));
+
+        System.out.println("🎉 Тест пройден: длина выбирается по заполненности хранилища\n");
+    }
+
+    @Test
+    void retriesChangeTheSaltAndRecountFreesSpace() {
+        System.out.println("🟡 ТЕСТ: Повторы с солью и пересчет заполненности");
+        System.out.println("==================================================");
+
+        // Шаг 1: URL предельной длины - повторы не меняют URL, а просят другую соль
+        System.out.println("✅ Шаг 1: Повторы для URL длиной 2048 символов...");
+        String prefix = "https://example.com/";
+        Url longUrl = new Url(prefix + "a".repeat(2048 - prefix.length()));
+        List<Long> salts = new ArrayList<>();
+        CodeGeneratorImpl hashing = new CodeGeneratorImpl();
+        IdGenerator recording = new DigitCodeGenerator() {
+            @Override
+            public ShortCode generate(Url originalUrl, UserId userId, int length, long salt) {
+                assertSame(longUrl, originalUrl, "URL не должен переписываться");
+                salts.add(salt);
+                return hashing.generate(originalUrl, userId, length, salt);
+            }
+        };
+        Set<String> rejected = new HashSet<>();
+        AdaptiveLengthCodeGenerator generator = new AdaptiveLengthCodeGenerator(recording,
+                code -> rejected.size() < 2 && rejected.add(code.value()), List.of(), 6, 0.5, 5);
+        ShortCode code = generator.generate(longUrl, userId, 6);
+        assertFalse(rejected.contains(code.value()));
+        assertEquals(3, salts.size());
+        assertEquals(3, Set.copyOf(salts).size(), "Каждый повтор - с новой солью");
+        assertEquals(2, generator.getStats().collisions());
+
+        // Шаг 2: Освободившиеся коды возвращают короткую длину
+        System.out.println("✅ Шаг 2: Пересчет после удаления ссылок...");
+        List<ShortCode> existing = IntStream.range(0, 1000)
+                .mapToObj(i -> new ShortCode(String.format("%04d", i)))
+                .toList();
+        AdaptiveLengthCodeGenerator crowded = new AdaptiveLengthCodeGenerator(new DigitCodeGenerator(),
+                c -> false, existing, 4, 0.1, 3);
+        assertEquals(5, crowded.getStats().length());
+        crowded.recount(existing.subList(0, 100));
+        assertEquals(4, crowded.getStats().length());
+        assertEquals(100, crowded.getStats().occupied());
+
+        System.out.println("🎉 Тест пройден: повторы не трогают URL, удаления освобождают место\n");
+    }
+}
@@ -0,0 +1,120 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.SnapshotChecksum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    @Test
+    void jsonSnapshotIsImportedIntoBinaryAndExportedBack() throws Exception {
+        System.out.println("🟡 ТЕСТ: Бинарный снимок и импорт/экспорт JSON");
+        System.out.println("==============================================================");
+
+        // Шаг 1: Снимок в формате JSON
+        System.out.println("✅ Шаг 1: Создание JSON-снимка...");
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setWalEnabled(false);
+
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(3).withNano(0);
+        FileUrlRepository jsonRepository = new FileUrlRepository(createObjectMapper(), config);
+        jsonRepository.save(new ShortenedUrl(new Url("https://example.com/путь?q=1"), new ShortCode("BIN001"),
+                userId, LocalDateTime.now().withNano(0), expiresAt, 7, 3, true));
+        jsonRepository.save(new ShortenedUrl(new Url("https://second.org"), new ShortCode("BIN002"),
+                userId, LocalDateTime.now().withNano(0), expiresAt, 1, 1, false));
+        assertEquals(2, jsonRepository.getSnapshotLag(), "Снимок пишет фоновый поток, а не вызывающий");
+        jsonRepository.close();
+        assertEquals(0, jsonRepository.getSnapshotLag(), "При закрытии должен записаться последний снимок");
+
+        // Шаг 2: Запуск в бинарном режиме импортирует JSON
+        System.out.println("✅ Шаг 2: Переход на бинарный формат...");
+        config.setSnapshotFormat("BINARY");
+        new FileUrlRepository(createObjectMapper(), config);
+        assertTrue(tempDir.resolve("links.bin").toFile().exists(), "Должен появиться бинарный снимок");
+
+        // Шаг 3: Загрузка из бинарного снимка
+        System.out.println("✅ Шаг 3: Загрузка из бинарного снимка...");
+        assertTrue(tempDir.resolve("links.json").toFile().delete());
+        FileUrlRepository binaryRepository = new FileUrlRepository(createObjectMapper(), config);
+
+        assertEquals(2, binaryRepository.count());
+        ShortenedUrl restored = binaryRepository.findByShortCode(new ShortCode("BIN001")).orElseThrow();
+        assertEquals("https://example.com/путь?q=1", restored.getOriginalUrl().value());
+        assertEquals(userId, restored.getUserId());
+        assertEquals(expiresAt, restored.getExpiresAt());
+        assertEquals(7, restored.getMaxClicks());
+        assertEquals(3, restored.getCurrentClicks());
+        assertFalse(binaryRepository.findByShortCode(new ShortCode("BIN002")).orElseThrow().isActive());
+
+        // Шаг 4: Экспорт в JSON и импорт в чистое хранилище
+        System.out.println("✅ Шаг 4: Экспорт и импорт JSON...");
+        Path export = tempDir.resolve("export.json");
+        binaryRepository.exportJson(export);
+
+        Config otherConfig = Config.createDefault();
+        otherConfig.setStorageFile(tempDir.resolve("other/links.json").toString());
+        otherConfig.setWalEnabled(false);
+        FileUrlRepository imported = new FileUrlRepository(createObjectMapper(), otherConfig);
+        imported.importJson(export);
+        assertEquals(2, imported.count());
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void linkWithoutExpiryRoundTripsThroughBinarySnapshot() throws Exception {
+        System.out.println("🟡 ТЕСТ: Ссылка без срока в бинарном снимке");
+        System.out.println("==============================================================");
+
+        // Шаг 1: Запись без expiresAt (так она загружается из старого JSON)
+        System.out.println("✅ Шаг 1: Сохранение ссылки без срока...");
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setWalEnabled(false);
+        config.setSnapshotFormat("BINARY");
+
+        ShortenedUrl forever = new ShortenedUrl(new Url("https://forever.com"), new ShortCode("NOEXP1"),
+                UserId.generate(), LocalDateTime.now().withNano(0), null, 5, 2, true);
+        assertEquals(ShortenedUrl.NO_EXPIRY, forever.getExpiresAtMillis());
+        SnapshotChecksum.of(forever);
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+        repository.save(forever);
+        repository.close();
+
+        // Шаг 2: После загрузки срок по-прежнему не задан, контрольная сумма сходится
+        System.out.println("✅ Шаг 2: Загрузка из бинарного снимка...");
+        FileUrlRepository reopened = new FileUrlRepository(createObjectMapper(), config);
+        ShortenedUrl restored = reopened.findByShortCode(new ShortCode("NOEXP1")).orElseThrow();
+        assertNull(restored.getExpiresAt());
+        assertEquals(2, restored.getCurrentClicks());
+        assertEquals(SnapshotChecksum.of(forever), SnapshotChecksum.of(restored));
+        assertTrue(restored.canBeAccessedAt(System.currentTimeMillis()), "Ссылка без срока не истекает");
+        reopened.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
@@ -0,0 +1,144 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.UserRepository;
+import com.urlshortener.core.services.StatisticsServiceImpl;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.CacheStats;
+import com.urlshortener.infrastructure.persistence.CachingUrlRepository;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CachingRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileUrlRepository createBackingRepository() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setWalEnabled(false);
+        return new FileUrlRepository(objectMapper, config);
+    }
+
+    private static ShortCode code(String prefix, int i) {
+        return new ShortCode(String.format("%s%04d", prefix, i));
+    }
+
+    @Test
+    void hotLinksSurviveScanOfColdLinks() throws Exception {
+        System.out.println("🟡 ТЕСТ: Горячие ссылки остаются в кэше W-TinyLFU");
+        System.out.println("==============================================================");
+
+        FileUrlRepository backing = createBackingRepository();
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 2000; i++) {
+            backing.save(ShortenedUrl.createWithCustomExpiration(new Url("https://cold.com/" + i),
+                    code("CL", i), userId, expiresAt, 100, System.currentTimeMillis()));
+        }
+        for (int i = 0; i < 20; i++) {
+            backing.save(ShortenedUrl.createWithCustomExpiration(new Url("https://hot.com/" + i),
+                    code("HT", i), userId, expiresAt, 100_000, System.currentTimeMillis()));
+        }
+        CachingUrlRepository cache = new CachingUrlRepository(backing, 100, 0);
+
+        // Шаг 1: Популярные ссылки набирают частоту
+        System.out.println("✅ Шаг 1: Разогрев горячих ссылок...");
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(cache.findByShortCode(code("HT", i)).isPresent());
+            }
+        }
+
+        // Шаг 2: Однократный проход по холодным ссылкам не вытесняет горячие
+        System.out.println("✅ Шаг 2: Проход по 2000 холодным ссылкам...");
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(cache.findByShortCode(code("CL", i)).isPresent());
+        }
+        CacheStats afterScan = cache.getStats();
+        assertTrue(afterScan.size() <= 100, "Размер кэша ограничен");
+        assertTrue(afterScan.evictions() > 0);
+
+        for (int i = 0; i < 20; i++) {
+            cache.findByShortCode(code("HT", i));
+        }
+        CacheStats afterHot = cache.getStats();
+        System.out.println("   • Попаданий: " + afterHot.hits() + ", промахов: " + afterHot.misses()
+                + ", вытеснений: " + afterHot.evictions());
+        assertTrue(afterHot.hits() - afterScan.hits() >= 19, "Горячие ссылки должны остаться в кэше");
+
+        // Шаг 3: Счетчики кэша видны в глобальной статистике вместе с показателями хранилища под ним
+        System.out.println("✅ Шаг 3: Показатели кэша в статистике...");
+        Map<String, Object> stats = new StatisticsServiceImpl(cache, mock(UserRepository.class),
+                Config.createDefault(), new SystemDateTimeProvider()).getGlobalStatistics();
+        assertEquals(afterHot.hits(), stats.get("cacheHits"));
+        assertEquals(afterHot.misses(), stats.get("cacheMisses"));
+        assertEquals(afterHot.evictions(), stats.get("cacheEvictions"));
+        assertEquals(afterHot.hitRate(), (double) stats.get("cacheHitRate"), 1e-9);
+        assertTrue(stats.containsKey("snapshotLag"), "Показатели хранилища под кэшем не теряются");
+
+        cache.close();
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void editDeleteAndExhaustionInvalidateCache() throws Exception {
+        System.out.println("🟡 ТЕСТ: Инвалидация кэша при изменении, удалении и исчерпании лимита");
+        System.out.println("==============================================================");
+
+        CachingUrlRepository cache = new CachingUrlRepository(createBackingRepository(), 0, 64 * 1024);
+        UserId userId = UserId.generate();
+        UrlShortenerServiceImpl service = new UrlShortenerServiceImpl(cache, new CodeGeneratorImpl(),
+                new UrlValidatorImpl(), new SystemDateTimeProvider(), 24, 100, 6, 365);
+        ShortCode editCode = new ShortCode("EDIT01");
+        ShortCode limitCode = new ShortCode("LIMIT1");
+        cache.save(ShortenedUrl.createWithCustomExpiration(new Url("https://before.com"),
+                editCode, userId, LocalDateTime.now().plusDays(1), 10, System.currentTimeMillis()));
+        cache.save(ShortenedUrl.createWithCustomExpiration(new Url("https://limit.com"),
+                limitCode, userId, LocalDateTime.now().plusDays(1), 2, System.currentTimeMillis()));
+
+        // Шаг 1: Изменение URL сразу видно через кэш
+        System.out.println("✅ Шаг 1: Изменение ссылки...");
+        assertEquals("https://before.com", cache.findByShortCode(editCode).orElseThrow().getOriginalUrl().value());
+        service.editUrl(editCode, userId, new Url("https://after.com"), null);
+        assertEquals("https://after.com", cache.findByShortCode(editCode).orElseThrow().getOriginalUrl().value());
+
+        // Шаг 2: Удаленная ссылка не отдается из кэша
+        System.out.println("✅ Шаг 2: Удаление ссылки...");
+        service.deleteUrl(editCode, userId);
+        assertTrue(cache.findByShortCode(editCode).isEmpty());
+        assertFalse(cache.existsByShortCode(editCode));
+
+        // Шаг 3: Исчерпанная ссылка уходит из кэша
+        System.out.println("✅ Шаг 3: Исчерпание лимита переходов...");
+        service.redirect(limitCode);
+        long sizeBefore = cache.getStats().size();
+        service.redirect(limitCode);
+        assertEquals(sizeBefore - 1, cache.getStats().size(), "Исчерпанная ссылка должна покинуть кэш");
+        assertThrows(IllegalStateException.class, () -> service.redirect(limitCode));
+        assertTrue(cache.getStats().weight() <= 64 * 1024);
+
+        cache.close();
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
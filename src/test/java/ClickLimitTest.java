@@ -37,17 +37,19 @@ class ClickLimitTest {
                 UserId.generate(),
                 now.plusHours(24),
                 3 // Максимум 3 клика
-        );
+        , System.currentTimeMillis());
 
         // Шаг 3: Создание моков
         System.out.println("✅ Шаг 3: Создание и настройка моков...");
         UrlRepository urlRepository = mock(UrlRepository.class);
+        doCallRealMethod().when(urlRepository).claimClick(any(), anyLong());
         IdGenerator idGenerator = mock(IdGenerator.class);
         UrlValidator urlValidator = mock(UrlValidator.class);
         DateTimeProvider dateTimeProvider = mock(DateTimeProvider.class);
 
         when(urlValidator.isValid(anyString())).thenReturn(true);
         when(dateTimeProvider.now()).thenReturn(now);
+        doCallRealMethod().when(dateTimeProvider).currentTimeMillis();
         when(dateTimeProvider.plusHours(anyLong())).thenReturn(now.plusHours(24));
         when(dateTimeProvider.plusDays(anyLong())).thenReturn(now.plusDays(365));
 
@@ -0,0 +1,239 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.UrlRepository;
+import com.urlshortener.core.ports.output.UserRepository;
+import com.urlshortener.core.services.StatisticsServiceImpl;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.AsyncClickRecorder;
+import com.urlshortener.infrastructure.persistence.ClickBackpressure;
+import com.urlshortener.infrastructure.persistence.ClickQueueStats;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ClickPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config createConfig() {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("clicks_data.json").toString());
+        config.setWalEnabled(true);
+        config.setWalFsyncPolicy("ALWAYS");
+        return config;
+    }
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    private UrlShortenerServiceImpl createService(UrlRepository repository, AsyncClickRecorder recorder) {
+        return new UrlShortenerServiceImpl(repository, recorder, new CodeGeneratorImpl(),
+                new UrlValidatorImpl(), new SystemDateTimeProvider(), 24, 100, 6, 365);
+    }
+
+    @Test
+    void queuedClicksSurviveRestartAfterDrain() throws Exception {
+        System.out.println("🟡 ТЕСТ: Фоновая запись переходов и дописывание очереди при закрытии");
+        System.out.println("======================================================================");
+
+        // Шаг 1: Переходы из нескольких потоков через очередь
+        System.out.println("✅ Шаг 1: 8 потоков по 500 переходов...");
+        Config config = createConfig();
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+        AsyncClickRecorder recorder = new AsyncClickRecorder(repository, 1024, 1, ClickBackpressure.BLOCK);
+        UrlShortenerServiceImpl service = createService(repository, recorder);
+
+        ShortenedUrl url = service.shortenUrlWithClicks(new Url("https://queued.com"), UserId.generate(), 10_000);
+        ShortCode code = url.getShortCode();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    service.redirect(code);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Шаг 2: Закрытие дописывает очередь до закрытия хранилища
+        System.out.println("✅ Шаг 2: Закрытие очереди и хранилища...");
+        recorder.close();
+        ClickQueueStats stats = recorder.getStats();
+        assertEquals(4000, stats.published(), "Все переходы должны пройти через очередь");
+        assertEquals(stats.published(), stats.processed(), "Очередь должна быть разобрана полностью");
+        assertEquals(0, stats.depth());
+        assertTrue(stats.writes() <= stats.processed(), "Переходы одной ссылки объединяются в пачке");
+
+        // Показатели очереди видны в глобальной статистике
+        Map<String, Object> globalStats = new StatisticsServiceImpl(repository, mock(UserRepository.class), config,
+                new SystemDateTimeProvider(), null, List.of(recorder::getRecorderStats)).getGlobalStatistics();
+        assertEquals(0L, globalStats.get("clickQueueDepth"));
+        assertEquals((long) recorder.getCapacity(), globalStats.get("clickQueueCapacity"));
+        assertEquals(stats.writes(), globalStats.get("clickWrites"));
+        repository.close();
+
+        // Шаг 3: Счетчик восстанавливается после перезапуска
+        System.out.println("✅ Шаг 3: Повторное открытие хранилища...");
+        FileUrlRepository restored = new FileUrlRepository(createObjectMapper(), config);
+        assertEquals(4000, restored.findByShortCode(code).orElseThrow().getCurrentClicks(),
+                "Все переходы должны попасть в хранилище");
+        restored.close();
+
+        System.out.println("🎉 Тест пройден: засчитанные переходы не теряются при завершении\n");
+    }
+
+    @Test
+    void overflowFollowsBackpressurePolicy() throws Exception {
+        System.out.println("🟡 ТЕСТ: Переполнение очереди переходов");
+        System.out.println("=========================================");
+
+        ShortenedUrl url = ShortenedUrl.createWithCustomExpiration(new Url("https://slow.com"),
+                new ShortCode("SLOW01"), UserId.generate(), LocalDateTime.now().plusHours(1), 1000, System.currentTimeMillis());
+
+        // Хранилище, которое "зависает" на записи, пока тест его не отпустит
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger storageWrites = new AtomicInteger();
+        UrlRepository slowRepository = mock(UrlRepository.class);
+        doAnswer(invocation -> {
+            if (!Thread.currentThread().getName().equals("click-recorder")) {
+                storageWrites.incrementAndGet();
+                return null;
+            }
+            release.await(5, TimeUnit.SECONDS);
+            storageWrites.incrementAndGet();
+            return null;
+        }).when(slowRepository).updateClicks(any());
+
+        // Шаг 1: CALLER_RUNS - лишние переходы записываются сразу в потоке перехода
+        System.out.println("✅ Шаг 1: Политика CALLER_RUNS...");
+        AsyncClickRecorder callerRuns = new AsyncClickRecorder(slowRepository, 4, 1, ClickBackpressure.CALLER_RUNS);
+        for (int i = 0; i < 100; i++) {
+            callerRuns.record(url);
+        }
+        assertTrue(callerRuns.getStats().callerRuns() > 0, "Переполнение должно записываться в потоке перехода");
+        assertTrue(callerRuns.getQueueDepth() <= callerRuns.getCapacity());
+
+        // Шаг 2: DROP - лишние переходы не ставятся в очередь
+        System.out.println("✅ Шаг 2: Политика DROP...");
+        AsyncClickRecorder dropping = new AsyncClickRecorder(slowRepository, 4, 1, ClickBackpressure.DROP);
+        for (int i = 0; i < 100; i++) {
+            dropping.record(url);
+        }
+        assertTrue(dropping.getStats().dropped() > 0, "Переполнение должно отбрасываться");
+        assertEquals(0, dropping.getStats().callerRuns());
+
+        // Шаг 3: После освобождения хранилища обе очереди разбираются до конца
+        System.out.println("✅ Шаг 3: Разбор очередей...");
+        release.countDown();
+        callerRuns.close();
+        dropping.close();
+        assertEquals(0, callerRuns.getQueueDepth());
+        assertEquals(0, dropping.getQueueDepth());
+        assertTrue(callerRuns.getStats().maxDepth() > 0, "Глубина очереди должна учитываться");
+        assertEquals(ClickBackpressure.BLOCK, ClickBackpressure.parse(" block "));
+        assertEquals(ClickBackpressure.CALLER_RUNS, ClickBackpressure.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> ClickBackpressure.parse("LATER"));
+
+        System.out.println("🎉 Тест пройден: переполнение обрабатывается выбранной политикой\n");
+    }
+
+    @Test
+    void deleteFlushesQueueBeforeRemoval() throws Exception {
+        System.out.println("🟡 ТЕСТ: Удаление ссылки с переходами в очереди");
+        System.out.println("================================================");
+
+        // Шаг 1: Переходы в очереди, затем удаление
+        System.out.println("✅ Шаг 1: Переходы и удаление ссылки...");
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        AsyncClickRecorder recorder = new AsyncClickRecorder(repository, 1024, 50, ClickBackpressure.BLOCK);
+        UrlShortenerServiceImpl service = createService(repository, recorder);
+        UserId userId = UserId.generate();
+        ShortCode code = service.shortenUrl(new Url("https://deleted.com"), userId).getShortCode();
+        for (int i = 0; i < 20; i++) {
+            service.redirect(code);
+        }
+        service.deleteUrl(code, userId);
+
+        // Шаг 2: Отложенная запись не возвращает удаленную ссылку
+        System.out.println("✅ Шаг 2: Проверка после разбора очереди...");
+        recorder.close();
+        assertFalse(repository.existsByShortCode(code), "Удаленная ссылка не должна вернуться");
+        repository.close();
+
+        System.out.println("🎉 Тест пройден: очередь дописывается до удаления ссылки\n");
+    }
+
+    @Test
+    void lateClickRecordDoesNotRestoreDeletedOrEditedLink() throws Exception {
+        System.out.println("🟡 ТЕСТ: Запоздалая запись счетчика после удаления и редактирования");
+        System.out.println("====================================================================");
+
+        Config config = createConfig();
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+        AsyncClickRecorder recorder = new AsyncClickRecorder(repository, 1024, 1, ClickBackpressure.BLOCK);
+        UrlShortenerServiceImpl service = createService(repository, recorder);
+        UserId userId = UserId.generate();
+        long now = System.currentTimeMillis();
+
+        // Шаг 1: Переход засчитан, ссылку удалили до того, как счетчик попал в очередь
+        System.out.println("✅ Шаг 1: Переход -> удаление -> запись счетчика...");
+        ShortCode deletedCode = service.shortenUrl(new Url("https://deleted.com"), userId).getShortCode();
+        ShortenedUrl deleted = repository.findByShortCode(deletedCode).orElseThrow();
+        assertTrue(repository.claimClick(deleted, now).isGranted());
+        service.deleteUrl(deletedCode, userId);
+        recorder.record(deleted);
+        recorder.flush();
+        assertFalse(repository.existsByShortCode(deletedCode), "Удаленная ссылка не должна вернуться");
+
+        // Шаг 2: То же при редактировании - остается новый адрес
+        System.out.println("✅ Шаг 2: Переход -> редактирование -> запись счетчика...");
+        ShortCode editedCode = service.shortenUrl(new Url("https://before.com"), userId).getShortCode();
+        ShortenedUrl stale = repository.findByShortCode(editedCode).orElseThrow();
+        assertTrue(repository.claimClick(stale, now).isGranted());
+        service.editUrl(editedCode, userId, new Url("https://after.com"), null);
+        recorder.record(stale);
+        recorder.flush();
+        assertEquals("https://after.com", repository.findByShortCode(editedCode).orElseThrow().getOriginalUrl().value());
+
+        // Шаг 3: После перезапуска (восстановление из журнала) картина та же
+        System.out.println("✅ Шаг 3: Повторное открытие хранилища...");
+        recorder.close();
+        repository.close();
+        FileUrlRepository restored = new FileUrlRepository(createObjectMapper(), config);
+        assertFalse(restored.existsByShortCode(deletedCode));
+        assertEquals("https://after.com", restored.findByShortCode(editedCode).orElseThrow().getOriginalUrl().value());
+        restored.close();
+
+        System.out.println("🎉 Тест пройден: устаревший экземпляр не перезаписывает хранилище\n");
+    }
+}
@@ -0,0 +1,145 @@
+import com.urlshortener.core.domain.models.ClickClaim;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentClickLimitTest {
+
+    private static final int THREADS = 256;
+    private static final int ATTEMPTS_PER_THREAD = 40;
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    // Запускает все потоки одновременно и ждет их завершения
+    private void hammer(Runnable attempt) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                    attempt.run();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    void claimClickGrantsExactlyMaxClicks() throws InterruptedException {
+        System.out.println("🟡 ТЕСТ: Точный лимит переходов при параллельных обращениях");
+        System.out.println("==============================================================");
+
+        // Шаг 1: Горячая ссылка и потоков больше, чем разрешено переходов
+        System.out.println("✅ Шаг 1: " + THREADS + " потоков по " + ATTEMPTS_PER_THREAD + " попыток, лимит 5000...");
+        ShortenedUrl url = ShortenedUrl.createWithCustomExpiration(new Url("https://hot.com"),
+                new ShortCode("HOT001"), UserId.generate(), LocalDateTime.now().plusHours(1), 5000, System.currentTimeMillis());
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger exhausted = new AtomicInteger();
+        hammer(() -> {
+            ClickClaim claim = url.claimClick(System.currentTimeMillis());
+            if (claim == ClickClaim.GRANTED) {
+                granted.incrementAndGet();
+            } else if (claim == ClickClaim.EXHAUSTED) {
+                exhausted.incrementAndGet();
+            }
+        });
+
+        // Шаг 2: Засчитано ровно maxClicks, остальные попытки отклонены
+        System.out.println("✅ Шаг 2: Проверка счетчиков...");
+        assertEquals(5000, granted.get(), "Переходов должно быть засчитано ровно столько, сколько разрешено");
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - 5000, exhausted.get());
+        assertEquals(5000, url.getCurrentClicks());
+        assertFalse(url.isActive(), "Исчерпанная ссылка блокируется");
+        assertEquals(ClickClaim.EXHAUSTED, url.claimClick(System.currentTimeMillis()));
+
+        // Шаг 3: Просроченная ссылка не засчитывает переходы
+        ShortenedUrl expired = new ShortenedUrl(new Url("https://old.com"), new ShortCode("OLD001"),
+                UserId.generate(), LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), 10, 0, true);
+        assertEquals(ClickClaim.EXPIRED, expired.claimClick(System.currentTimeMillis()));
+        assertEquals(0, expired.getCurrentClicks());
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void redirectsThroughServiceRespectLimitAndPersist() throws InterruptedException {
+        System.out.println("🟡 ТЕСТ: Параллельные переходы через сервис и хранилище");
+        System.out.println("==============================================================");
+
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        ShortCode code = new ShortCode("HOT002");
+
+        // Шаг 1: Переходы по одной ссылке из многих потоков
+        System.out.println("✅ Шаг 1: Параллельные переходы через redirect()...");
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+        repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://hot.com"),
+                code, UserId.generate(), LocalDateTime.now().plusHours(1), 3000, System.currentTimeMillis()));
+        UrlShortenerServiceImpl service = new UrlShortenerServiceImpl(repository, new CodeGeneratorImpl(),
+                new UrlValidatorImpl(), new SystemDateTimeProvider(), 24, 100, 6, 365);
+
+        AtomicInteger redirects = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        hammer(() -> {
+            try {
+                service.redirect(code);
+                redirects.incrementAndGet();
+            } catch (IllegalStateException e) {
+                rejected.incrementAndGet();
+            }
+        });
+        assertEquals(3000, redirects.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - 3000, rejected.get());
+        repository.close();
+
+        // Шаг 2: Счетчик без потерь восстанавливается после перезапуска
+        System.out.println("✅ Шаг 2: Проверка после перезапуска...");
+        FileUrlRepository reopened = new FileUrlRepository(createObjectMapper(), config);
+        ShortenedUrl restored = reopened.findByShortCode(code).orElseThrow();
+        assertEquals(3000, restored.getCurrentClicks());
+        assertFalse(restored.isActive());
+        reopened.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
@@ -0,0 +1,90 @@
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.CodeSequenceStore;
+import com.urlshortener.infrastructure.utils.Base62;
+import com.urlshortener.infrastructure.utils.CounterCodeGenerator;
+import com.urlshortener.infrastructure.utils.FeistelPermutation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CounterCodeGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void permutationIsBijective() {
+        System.out.println("🟡 ТЕСТ: Перестановка номеров взаимно однозначна");
+        System.out.println("=================================================");
+
+        // Шаг 1: Полный перебор небольших областей (четная и нечетная длина)
+        System.out.println("✅ Шаг 1: Перебор областей 62^2 и 62^3...");
+        for (int length = 2; length <= 3; length++) {
+            FeistelPermutation permutation = new FeistelPermutation(Base62.RADIX, length, 42L);
+            long domain = permutation.domain();
+            assertEquals(Base62.capacity(length), domain);
+            BitSet seen = new BitSet((int) domain);
+            for (long i = 0; i < domain; i++) {
+                long permuted = permutation.permute(i);
+                assertTrue(permuted >= 0 && permuted < domain, "Результат вне области");
+                assertFalse(seen.get((int) permuted), "Два номера дали один код");
+                seen.set((int) permuted);
+            }
+        }
+
+        // Шаг 2: Соседние номера не дают соседних кодов, другой ключ - другие коды
+        System.out.println("✅ Шаг 2: Перемешивание и зависимость от ключа...");
+        FeistelPermutation first = new FeistelPermutation(Base62.RADIX, 6, 1L);
+        FeistelPermutation second = new FeistelPermutation(Base62.RADIX, 6, 2L);
+        assertNotEquals(first.permute(0) + 1, first.permute(1));
+        assertNotEquals(first.permute(0), second.permute(0));
+        assertEquals("000000", Base62.encode(0, 6));
+        assertEquals("00000z", Base62.encode(61, 6));
+        assertThrows(IllegalArgumentException.class, () -> first.permute(first.domain()));
+
+        System.out.println("🎉 Тест пройден: разные номера всегда дают разные коды\n");
+    }
+
+    @Test
+    void codesStayUniqueAcrossRestarts() {
+        System.out.println("🟡 ТЕСТ: Уникальность кодов счетчика после перезапуска");
+        System.out.println("========================================================");
+
+        Path sequenceFile = tempDir.resolve("code_sequence.properties");
+        Url url = new Url("https://example.com");
+        UserId userId = UserId.generate();
+        Set<String> codes = new HashSet<>();
+
+        // Шаг 1: Коды одной и той же ссылки в одну миллисекунду не повторяются
+        System.out.println("✅ Шаг 1: 50 000 кодов одного URL...");
+        CodeSequenceStore store = new CodeSequenceStore(sequenceFile);
+        CounterCodeGenerator generator = new CounterCodeGenerator(store, 100);
+        for (int i = 0; i < 50_000; i++) {
+            ShortCode code = generator.generate(url, userId, 6);
+            assertEquals(6, code.value().length());
+            assertTrue(codes.add(code.value()), "Код повторился: " + code.value());
+        }
+        assertEquals(50_000, store.getHighWaterMark(), "Граница сохраняется диапазонами");
+
+        // Шаг 2: Перезапуск - тот же ключ, выдача продолжается с границы
+        System.out.println("✅ Шаг 2: Перезапуск генератора...");
+        CodeSequenceStore reopened = new CodeSequenceStore(sequenceFile);
+        assertEquals(store.getKey(), reopened.getKey(), "Ключ должен сохраняться");
+        CounterCodeGenerator restarted = new CounterCodeGenerator(reopened, 100);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(codes.add(restarted.generate(url, userId, 6).value()),
+                    "После перезапуска коды не должны повторяться");
+        }
+        assertEquals(60_000, reopened.getHighWaterMark());
+
+        System.out.println("🎉 Тест пройден: коды не повторяются и после перезапуска\n");
+    }
+}
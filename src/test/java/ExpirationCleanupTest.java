@@ -98,9 +98,9 @@ class ExpirationCleanupTest {
 
         // Шаг 4: Проверка доступности ссылок
         System.out.println("✅ Шаг 4: Проверка доступности ссылок...");
-        boolean canAccessExpired1H = expired1Hour.canBeAccessed();
-        boolean canAccessExpired24H = expired24Hours.canBeAccessed();
-        boolean canAccessActive = active.canBeAccessed();
+        boolean canAccessExpired1H = expired1Hour.canBeAccessedAt(System.currentTimeMillis());
+        boolean canAccessExpired24H = expired24Hours.canBeAccessedAt(System.currentTimeMillis());
+        boolean canAccessActive = active.canBeAccessedAt(System.currentTimeMillis());
 
         System.out.println("   • Доступность click.by/EXP1H (истек час): " + canAccessExpired1H + " (ожидается: false)");
         System.out.println("   • Доступность click.by/EXP24H (истекли сутки): " + canAccessExpired24H + " (ожидается: false)");
@@ -113,9 +113,9 @@ class ExpirationCleanupTest {
 
         // Шаг 5: Проверка метода isExpired
         System.out.println("✅ Шаг 5: Проверка метода isExpired()...");
-        boolean isExpired1H = expired1Hour.isExpired();
-        boolean isExpired24H = expired24Hours.isExpired();
-        boolean isExpiredActive = active.isExpired();
+        boolean isExpired1H = expired1Hour.isExpiredAt(System.currentTimeMillis());
+        boolean isExpired24H = expired24Hours.isExpiredAt(System.currentTimeMillis());
+        boolean isExpiredActive = active.isExpiredAt(System.currentTimeMillis());
 
         System.out.println("   • isExpired(click.by/EXP1H): " + isExpired1H + " (ожидается: true)");
         System.out.println("   • isExpired(click.by/EXP24H): " + isExpired24H + " (ожидается: true)");
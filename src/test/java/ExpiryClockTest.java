@@ -0,0 +1,124 @@
+import com.urlshortener.core.domain.models.ClickClaim;
+import com.urlshortener.core.domain.models.DomainClock;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.DateTimeProvider;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.utils.CoarseDateTimeProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryClockTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    Path tempDir;
+
+    // Часы теста: время двигается вручную
+    private static DateTimeProvider manualClock(AtomicLong clock) {
+        return new DateTimeProvider() {
+            @Override
+            public LocalDateTime now() {
+                return DomainClock.toLocalDateTime(clock.get());
+            }
+
+            @Override
+            public long currentTimeMillis() {
+                return clock.get();
+            }
+
+            @Override
+            public LocalDateTime plusHours(long hours) {
+                return now().plusHours(hours);
+            }
+
+            @Override
+            public LocalDateTime plusDays(long days) {
+                return now().plusDays(days);
+            }
+        };
+    }
+
+    @Test
+    void expiryFollowsInjectedClock() throws Exception {
+        System.out.println("🟡 ТЕСТ: Проверка срока действия по подставленным часам");
+        System.out.println("==============================================================");
+
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        DateTimeProvider dateTimeProvider = manualClock(clock);
+        UserId userId = UserId.generate();
+
+        // Шаг 1: Срок хранится в миллисекундах и сравнивается с переданным временем
+        System.out.println("✅ Шаг 1: Ссылка на 5 часов...");
+        LocalDateTime expiresAt = dateTimeProvider.now().plusHours(5).withNano(0);
+        ShortenedUrl url = ShortenedUrl.createWithCustomExpiration(new Url("https://clock.com"),
+                new ShortCode("CLK001"), userId, expiresAt, 10, clock.get());
+        assertEquals(expiresAt, url.getExpiresAt());
+        assertEquals(DomainClock.toEpochMillis(expiresAt), url.getExpiresAtMillis());
+        assertTrue(url.canBeAccessedAt(clock.get()));
+        assertEquals(4, url.getRemainingHours(clock.get()));
+
+        // Шаг 2: Часы ушли вперед - ссылка истекла без обращения к системному времени
+        System.out.println("✅ Шаг 2: Сдвиг часов на 6 часов...");
+        clock.addAndGet(6 * HOUR);
+        assertTrue(url.isExpiredAt(clock.get()));
+        assertFalse(url.canBeAccessedAt(clock.get()));
+        assertEquals(ClickClaim.EXPIRED, url.claimClick(clock.get()));
+        assertEquals("Истекла", url.getStatus(clock.get()));
+        assertEquals(0, url.getRemainingHours(clock.get()));
+        // По системным часам срок еще впереди, но новая ссылка проверяется по переданному времени
+        assertThrows(IllegalArgumentException.class, () -> ShortenedUrl.createWithCustomExpiration(
+                new Url("https://late.com"), new ShortCode("CLK002"), userId, expiresAt, 10, clock.get()));
+
+        // Шаг 3: Подсчеты и очистка хранилища используют часы из конструктора
+        System.out.println("✅ Шаг 3: Подсчет и очистка в хранилище...");
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        FileUrlRepository repository = new FileUrlRepository(objectMapper, config, dateTimeProvider);
+        repository.save(url);
+        repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://fresh.com"),
+                new ShortCode("CLK003"), userId, dateTimeProvider.now().plusHours(1), 10, clock.get()));
+        assertEquals(1, repository.countExpired());
+        assertEquals(1, repository.countActive());
+        assertFalse(repository.existsActiveByUserIdAndUrl(userId, new Url("https://clock.com"), clock.get()));
+        assertTrue(repository.existsActiveByUserIdAndUrl(userId, new Url("https://fresh.com"), clock.get()));
+        assertEquals(ClickClaim.EXPIRED, repository.claimClick(url, dateTimeProvider.currentTimeMillis()));
+        assertEquals(1, repository.deleteExpired(dateTimeProvider.currentTimeMillis()));
+        repository.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void coarseClockIsUpdatedByTicker() throws Exception {
+        System.out.println("🟡 ТЕСТ: Грубые часы, обновляемые таймером");
+        System.out.println("==============================================================");
+
+        try (CoarseDateTimeProvider provider = new CoarseDateTimeProvider(5)) {
+            long first = provider.currentTimeMillis();
+            assertTrue(Math.abs(first - System.currentTimeMillis()) < 1000);
+            Thread.sleep(50);
+            assertTrue(provider.currentTimeMillis() > first, "Таймер должен продвигать время");
+            assertEquals(DomainClock.toLocalDateTime(provider.currentTimeMillis()).getYear(),
+                    provider.now().getYear());
+        }
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
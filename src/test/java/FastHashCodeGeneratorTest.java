@@ -0,0 +1,83 @@
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.utils.FastHashCodeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastHashCodeGeneratorTest {
+
+    private final Url url = new Url("https://example.com/fast");
+    private final UserId userId = new UserId(UUID.fromString("dbe3393a-17a9-475e-9d88-05237db214bb"));
+
+    @Test
+    void repeatedCallsGiveDistinctCodes() {
+        System.out.println("🟡 ТЕСТ: Быстрый хэш дает разные коды для одного URL");
+        System.out.println("=====================================================");
+
+        // Шаг 1: 100 000 кодов длины 8 для одного URL и пользователя
+        System.out.println("✅ Шаг 1: Генерация 100 000 кодов...");
+        FastHashCodeGenerator generator = new FastHashCodeGenerator();
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ShortCode code = generator.generate(url, userId, 8);
+            assertEquals(8, code.value().length());
+            assertTrue(generator.isValid(code.value()));
+            codes.add(code.value());
+        }
+        // Ожидаемое число повторов среди 10^5 кодов из 62^8 - меньше 0.1
+        assertEquals(100_000, codes.size(), "Коды не должны повторяться");
+
+        // Шаг 2: Все длины от 4 до 10
+        System.out.println("✅ Шаг 2: Допустимые длины...");
+        for (int length = 4; length <= 10; length++) {
+            assertEquals(length, generator.generate(url, userId, length).value().length());
+        }
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(url, userId, 11));
+
+        System.out.println("🎉 Тест пройден: номер вызова делает каждый код новым\n");
+    }
+
+    @Test
+    void codesDependOnTheSeed() {
+        System.out.println("🟡 ТЕСТ: Коды зависят от ключа");
+        System.out.println("===============================");
+
+        // Шаг 1: Один ключ - одна и та же последовательность кодов
+        System.out.println("✅ Шаг 1: Повтор с тем же ключом...");
+        assertEquals(codes(new FastHashCodeGenerator(7)), codes(new FastHashCodeGenerator(7)));
+
+        // Шаг 2: Другой ключ - другие коды
+        System.out.println("✅ Шаг 2: Другой ключ...");
+        assertNotEquals(codes(new FastHashCodeGenerator(7)), codes(new FastHashCodeGenerator(8)));
+
+        // Шаг 3: Символы распределены равномерно
+        System.out.println("✅ Шаг 3: Распределение последнего символа...");
+        FastHashCodeGenerator generator = new FastHashCodeGenerator(7);
+        int[] counts = new int[128];
+        int total = 62_000;
+        for (int i = 0; i < total; i++) {
+            counts[generator.generate(url, userId, 6).value().charAt(5)]++;
+        }
+        for (char c : "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray()) {
+            assertTrue(counts[c] > 800 && counts[c] < 1200, "Неравномерно: '" + c + "' = " + counts[c]);
+        }
+
+        System.out.println("🎉 Тест пройден: коды воспроизводимы только при известном ключе\n");
+    }
+
+    private List<String> codes(FastHashCodeGenerator generator) {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            codes.add(generator.generate(url, userId, 6).value());
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,117 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.urlshortener.presentation.http.RedirectHttpServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpRedirectServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private UrlShortenerServiceImpl createService(FileUrlRepository repository) {
+        return new UrlShortenerServiceImpl(repository, new CodeGeneratorImpl(), new UrlValidatorImpl(),
+                new SystemDateTimeProvider(), 24, 100, 6, 365);
+    }
+
+    private FileUrlRepository createRepository() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("http_data.json").toString());
+        return new FileUrlRepository(objectMapper, config);
+    }
+
+    private HttpResponse<String> send(HttpClient client, RedirectHttpServer server, String method, String path)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void redirectsByShortCodeOverHttp() throws Exception {
+        System.out.println("🟡 ТЕСТ: Переход по короткой ссылке через HTTP");
+        System.out.println("===============================================");
+
+        FileUrlRepository repository = createRepository();
+        UrlShortenerServiceImpl service = createService(repository);
+        ShortenedUrl url = service.shortenUrlWithClicks(new Url("https://example.com/page"), UserId.generate(), 2);
+        String path = "/" + url.getShortCode().value();
+
+        RedirectHttpServer server = new RedirectHttpServer(service, 0, 302, true, 30, 64, true);
+        server.start();
+        HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        try {
+            // Шаг 1: Перенаправление на исходный URL
+            System.out.println("✅ Шаг 1: GET /{код} → 302...");
+            HttpResponse<String> response = send(client, server, "GET", path);
+            assertEquals(302, response.statusCode());
+            assertEquals("https://example.com/page", response.headers().firstValue("Location").orElseThrow());
+            assertEquals("no-store", response.headers().firstValue("Cache-Control").orElseThrow(),
+                    "Временное перенаправление не должно кэшироваться браузером");
+            assertEquals(1, url.getCurrentClicks(), "Переход должен засчитываться");
+
+            // Шаг 2: HEAD отвечает тем же перенаправлением, но не тратит лимит
+            System.out.println("✅ Шаг 2: HEAD /{код} → 302 без перехода...");
+            for (int i = 0; i < 3; i++) {
+                HttpResponse<String> head = send(client, server, "HEAD", path);
+                assertEquals(302, head.statusCode());
+                assertEquals("https://example.com/page", head.headers().firstValue("Location").orElseThrow());
+            }
+            assertEquals(1, url.getCurrentClicks(), "HEAD не должен засчитываться как переход");
+            assertEquals(404, send(client, server, "HEAD", "/NOPE42").statusCode());
+
+            // Шаг 3: Исчерпанный лимит - ссылки больше нет
+            System.out.println("✅ Шаг 3: Лимит переходов → 410...");
+            assertEquals(302, send(client, server, "GET", path).statusCode());
+            HttpResponse<String> gone = send(client, server, "GET", path);
+            assertEquals(410, gone.statusCode());
+            assertTrue(gone.body().contains("Лимит переходов исчерпан"));
+            assertEquals(410, send(client, server, "HEAD", path).statusCode());
+
+            // Шаг 4: Неизвестные коды и методы
+            System.out.println("✅ Шаг 4: Неизвестный код → 404, POST → 405...");
+            assertEquals(404, send(client, server, "GET", "/NOPE42").statusCode());
+            assertEquals(404, send(client, server, "GET", "/").statusCode());
+            assertEquals(404, send(client, server, "GET", "/bad$code").statusCode());
+            assertEquals(405, send(client, server, "POST", path).statusCode());
+        } finally {
+            server.close();
+            repository.close();
+        }
+
+        System.out.println("🎉 Тест пройден: HTTP-сервер отвечает перенаправлением\n");
+    }
+
+    @Test
+    void rejectsUnsupportedRedirectStatus() {
+        System.out.println("🟡 ТЕСТ: Недопустимый код перенаправления");
+        System.out.println("==========================================");
+
+        FileUrlRepository repository = createRepository();
+        assertThrows(IllegalArgumentException.class,
+                () -> new RedirectHttpServer(createService(repository), 0, 200, true, 30, 64, false));
+        repository.close();
+
+        System.out.println("🎉 Тест пройден: допускаются только 301 и 302\n");
+    }
+}
@@ -0,0 +1,220 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.CachingUrlRepository;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.JdbcUrlRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    @Test
+    void linksAreStoredInEmbeddedDatabase() {
+        System.out.println("🟡 ТЕСТ: Хранение ссылок во встроенной базе H2");
+        System.out.println("==============================================================");
+
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setDatabaseFile(tempDir.resolve("links_db").toString());
+        config.setStorageBackend("H2");
+        UserId userId = UserId.generate();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Шаг 1: Файловое хранилище с одной ссылкой переносится в пустую базу
+        System.out.println("✅ Шаг 1: Импорт файлового хранилища...");
+        config.setWalEnabled(false);
+        FileUrlRepository fileRepository = new FileUrlRepository(createObjectMapper(), config);
+        fileRepository.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://imported.com"), new ShortCode("IMP001"), userId, now.plusHours(5), 3, System.currentTimeMillis()));
+        fileRepository.close();
+
+        JdbcUrlRepository repository = new JdbcUrlRepository(createObjectMapper(), config);
+        assertEquals(1, repository.count(), "Ссылка из JSON-снимка должна попасть в базу");
+
+        // Шаг 2: Запросы по индексам
+        System.out.println("✅ Шаг 2: Сохранение и выборки...");
+        repository.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://active.com"), new ShortCode("ACT001"), userId, now.plusHours(1), 2, System.currentTimeMillis()));
+        repository.save(new ShortenedUrl(new Url("https://expired.com"), new ShortCode("EXP001"),
+                userId, now.minusDays(2), now.minusDays(1), 5, 0, true));
+
+        assertEquals(3, repository.findByUserId(userId).size());
+        assertEquals(2, repository.countActive());
+        assertEquals(1, repository.countExpired());
+        assertTrue(repository.existsActiveByUserIdAndUrl(userId, new Url("https://active.com"), System.currentTimeMillis()));
+        assertFalse(repository.existsActiveByUserIdAndUrl(userId, new Url("https://expired.com"), System.currentTimeMillis()));
+
+        // Шаг 3: Переходы пишутся пачкой, но сразу видны при чтении
+        System.out.println("✅ Шаг 3: Счетчики переходов...");
+        for (int i = 0; i < 2; i++) {
+            ShortenedUrl url = repository.findByShortCode(new ShortCode("ACT001")).orElseThrow();
+            url.incrementClicks(System.currentTimeMillis());
+            repository.updateClicks(url);
+        }
+        assertEquals(2, repository.findByShortCode(new ShortCode("ACT001")).orElseThrow().getCurrentClicks());
+        assertEquals(1, repository.countActive(), "Лимит переходов исчерпан - ссылка неактивна");
+
+        repository.delete(new ShortCode("EXP001"));
+        repository.close();
+
+        // Шаг 4: Данные сохраняются между запусками
+        System.out.println("✅ Шаг 4: Повторное открытие базы...");
+        JdbcUrlRepository reopened = new JdbcUrlRepository(createObjectMapper(), config);
+        assertEquals(2, reopened.count());
+        ShortenedUrl restored = reopened.findByShortCode(new ShortCode("ACT001")).orElseThrow();
+        assertEquals(2, restored.getCurrentClicks());
+        assertFalse(restored.isActive());
+        reopened.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void concurrentRedirectsRespectLimitInDatabase() throws Exception {
+        System.out.println("🟡 ТЕСТ: Параллельные переходы по ссылке в базе H2");
+        System.out.println("==============================================================");
+
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("missing.json").toString());
+        config.setDatabaseFile(tempDir.resolve("race_db").toString());
+        // Счетчики сбрасываются в базу почти сразу - чтения часто получают новые экземпляры ссылки
+        config.setDatabaseFlushIntervalMs(1);
+        UserId userId = UserId.generate();
+        ShortCode code = new ShortCode("RACE01");
+        int maxClicks = 50;
+
+        JdbcUrlRepository database = new JdbcUrlRepository(createObjectMapper(), config);
+        database.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://race.com"), code, userId, LocalDateTime.now().plusHours(1), maxClicks, System.currentTimeMillis()));
+        // Переходы идут и через общий экземпляр в кэше, и через чтения из базы
+        CachingUrlRepository repository = new CachingUrlRepository(database, 100, 0);
+        UrlShortenerServiceImpl cached = new UrlShortenerServiceImpl(repository,
+                new CodeGeneratorImpl(), new UrlValidatorImpl(), new SystemDateTimeProvider(),
+                24, 100, 6, 365);
+        UrlShortenerServiceImpl direct = new UrlShortenerServiceImpl(database,
+                new CodeGeneratorImpl(), new UrlValidatorImpl(), new SystemDateTimeProvider(),
+                24, 100, 6, 365);
+
+        // Шаг 1: Восемь потоков по 40 переходов при лимите 50
+        System.out.println("✅ Шаг 1: 320 параллельных переходов...");
+        int threads = 8;
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            UrlShortenerServiceImpl service = t % 2 == 0 ? cached : direct;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 40; i++) {
+                    if (service.resolve("RACE01") != null) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(maxClicks, granted.get(), "Засчитано ровно maxClicks переходов");
+        repository.close();
+
+        // Шаг 2: В базе тот же счетчик, ссылка заблокирована
+        System.out.println("✅ Шаг 2: Счетчик в базе...");
+        JdbcUrlRepository reopened = new JdbcUrlRepository(createObjectMapper(), config);
+        ShortenedUrl stored = reopened.findByShortCode(code).orElseThrow();
+        assertEquals(maxClicks, stored.getCurrentClicks());
+        assertFalse(stored.isActive());
+        reopened.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void lateClickRecordIsIgnoredAfterDeleteOrEdit() {
+        System.out.println("🟡 ТЕСТ: Запоздалый счетчик после удаления и редактирования в базе H2");
+        System.out.println("==============================================================");
+
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("missing.json").toString());
+        config.setDatabaseFile(tempDir.resolve("stale_db").toString());
+        // Счетчики не сбрасываются сами - устаревший экземпляр дольше лежит в памяти
+        config.setDatabaseFlushIntervalMs(60_000);
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        long now = System.currentTimeMillis();
+        JdbcUrlRepository repository = new JdbcUrlRepository(createObjectMapper(), config);
+
+        // Шаг 1: Переход засчитан, ссылку удалили, затем пришел ее счетчик
+        System.out.println("✅ Шаг 1: Переход -> удаление -> запись счетчика...");
+        ShortCode deletedCode = new ShortCode("GONE01");
+        repository.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://deleted.com"), deletedCode, userId, expiresAt, 10, System.currentTimeMillis()));
+        ShortenedUrl deleted = repository.findByShortCode(deletedCode).orElseThrow();
+        assertTrue(repository.claimClick(deleted, now).isGranted());
+        repository.delete(deletedCode);
+        repository.updateClicks(deleted);
+        assertTrue(repository.findByShortCode(deletedCode).isEmpty(), "Удаленная ссылка не должна читаться");
+        assertFalse(repository.existsByShortCode(deletedCode));
+
+        // Шаг 2: То же при редактировании - читается и записывается новая версия
+        System.out.println("✅ Шаг 2: Переход -> редактирование -> запись счетчика...");
+        ShortCode editedCode = new ShortCode("EDIT01");
+        repository.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://before.com"), editedCode, userId, expiresAt, 10, System.currentTimeMillis()));
+        ShortenedUrl stale = repository.findByShortCode(editedCode).orElseThrow();
+        assertTrue(repository.claimClick(stale, now).isGranted());
+        repository.save(stale.withUpdatedParams(new Url("https://after.com"), null));
+        stale.restoreClicks(5, true);
+        repository.updateClicks(stale);
+        ShortenedUrl current = repository.findByShortCode(editedCode).orElseThrow();
+        assertEquals("https://after.com", current.getOriginalUrl().value());
+        assertEquals(1, current.getCurrentClicks());
+
+        // Шаг 3: Сброс пачки не трогает новую версию и не возвращает удаленную
+        System.out.println("✅ Шаг 3: Запись пачки и повторное открытие...");
+        repository.updateClicks(stale);
+        repository.flush();
+        repository.close();
+        JdbcUrlRepository reopened = new JdbcUrlRepository(createObjectMapper(), config);
+        assertFalse(reopened.existsByShortCode(deletedCode));
+        ShortenedUrl restored = reopened.findByShortCode(editedCode).orElseThrow();
+        assertEquals("https://after.com", restored.getOriginalUrl().value());
+        assertEquals(1, restored.getCurrentClicks(), "Счетчик устаревшего экземпляра не записывается");
+        reopened.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
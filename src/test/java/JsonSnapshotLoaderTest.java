@@ -0,0 +1,173 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.JsonSnapshotLoader;
+import com.urlshortener.infrastructure.persistence.SnapshotLoadStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSnapshotLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    // Снимок из n ссылок, записанный тем же кодом, что и снимки хранилища
+    private Path exportSnapshot(int count, UserId userId, LocalDateTime expiresAt) throws IOException {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("source/links.json").toString());
+        config.setWalEnabled(false);
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+        for (int i = 0; i < count; i++) {
+            ShortenedUrl url = ShortenedUrl.createWithCustomExpiration(new Url("https://big.com/" + i),
+                    new ShortCode(String.format("BG%05d", i)), userId, expiresAt, 10 + i % 5, System.currentTimeMillis());
+            for (int c = 0; c < i % 3; c++) {
+                url.incrementClicks(System.currentTimeMillis());
+            }
+            repository.save(url);
+        }
+        Path export = tempDir.resolve("export.json");
+        repository.exportJson(export);
+        repository.close();
+        return export;
+    }
+
+    @Test
+    void largeSnapshotRoundTrip() throws Exception {
+        System.out.println("🟡 ТЕСТ: Экспорт и потоковая загрузка большого снимка");
+        System.out.println("==============================================================");
+
+        int count = 50_000;
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1).withNano(0);
+        Path export = exportSnapshot(count, userId, expiresAt);
+
+        // Шаг 1: Параллельная загрузка - все записи, контрольная сумма сходится с metadata
+        System.out.println("✅ Шаг 1: Загрузка " + count + " ссылок в 4 потока...");
+        Map<String, ShortenedUrl> loaded = new ConcurrentHashMap<>();
+        SnapshotLoadStats stats = new JsonSnapshotLoader(createObjectMapper().getFactory(), 4)
+                .load(export, url -> loaded.put(url.getShortCode().value(), url));
+        System.out.println("   • Загружено за " + stats.elapsedMillis() + " мс");
+        assertEquals(count, stats.loaded());
+        assertEquals(0, stats.skipped());
+        assertEquals(count, loaded.size());
+        assertTrue(stats.isIntact(), "Число записей и контрольная сумма должны совпасть с metadata");
+
+        // Шаг 2: Поля ссылок не меняются при круговом переходе
+        System.out.println("✅ Шаг 2: Сверка полей...");
+        for (int i = 0; i < count; i += 997) {
+            ShortenedUrl url = loaded.get(String.format("BG%05d", i));
+            assertEquals("https://big.com/" + i, url.getOriginalUrl().value());
+            assertEquals(userId, url.getUserId());
+            assertEquals(expiresAt, url.getExpiresAt());
+            assertEquals(10 + i % 5, url.getMaxClicks());
+            assertEquals(i % 3, url.getCurrentClicks());
+        }
+
+        // Шаг 3: Однопоточная загрузка дает ту же контрольную сумму
+        System.out.println("✅ Шаг 3: Загрузка в один поток...");
+        SnapshotLoadStats single = new JsonSnapshotLoader(createObjectMapper().getFactory(), 1)
+                .load(export, url -> { });
+        assertEquals(stats.checksum(), single.checksum());
+
+        // Шаг 4: Несколько файлов на одном пуле вызывающего (как сегменты при восстановлении)
+        System.out.println("✅ Шаг 4: Три загрузки на общем пуле...");
+        JsonSnapshotLoader shared = new JsonSnapshotLoader(createObjectMapper().getFactory(), 4);
+        ExecutorService executor = shared.openExecutor();
+        try {
+            for (int i = 0; i < 3; i++) {
+                AtomicLong delivered = new AtomicLong();
+                SnapshotLoadStats again = shared.load(export, url -> delivered.incrementAndGet(), executor);
+                assertEquals(count, delivered.get(), "Загрузка возвращается, когда все пачки файла разобраны");
+                assertEquals(stats.checksum(), again.checksum());
+            }
+            assertFalse(executor.isShutdown(), "Пул принадлежит вызывающему и остается открытым");
+        } finally {
+            JsonSnapshotLoader.closeExecutor(executor);
+        }
+        assertTrue(executor.isTerminated());
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void malformedAndTruncatedSnapshots() throws Exception {
+        System.out.println("🟡 ТЕСТ: Поврежденные и оборванные снимки");
+        System.out.println("==============================================================");
+
+        JsonSnapshotLoader loader = new JsonSnapshotLoader(createObjectMapper().getFactory(), 2);
+        String userId = UserId.generate().value().toString();
+        String expiresAt = LocalDateTime.now().plusDays(1).withNano(0).toString();
+
+        // Шаг 1: Испорченные записи пропускаются, остальные загружаются, снимок не считается целым;
+        // запись без expiresAt не испорчена - это бессрочная ссылка
+        System.out.println("✅ Шаг 1: Записи без полей и с неверным кодом...");
+        Path malformed = tempDir.resolve("malformed.json");
+        Files.writeString(malformed, "{\"metadata\":{\"totalUrls\":4,\"checksum\":0},\"urls\":["
+                + record("https://ok.com", "OK0001", userId, expiresAt) + ","
+                + "{\"shortCode\":\"NOURL1\",\"userId\":\"" + userId + "\"},"
+                + "{\"originalUrl\":\"https://forever.com\",\"shortCode\":\"NOEXP1\",\"userId\":\"" + userId
+                + "\",\"expiresAt\":null,\"maxClicks\":5,\"currentClicks\":0,\"active\":true},"
+                + record("https://bad.com", "bad code!", userId, expiresAt) + "]}", StandardCharsets.UTF_8);
+        Map<String, ShortenedUrl> loaded = new ConcurrentHashMap<>();
+        SnapshotLoadStats stats = loader.load(malformed, url -> loaded.put(url.getShortCode().value(), url));
+        assertEquals(2, stats.loaded());
+        assertEquals(2, stats.skipped());
+        assertTrue(loaded.containsKey("OK0001"));
+        assertNull(loaded.get("NOEXP1").getExpiresAt());
+        assertFalse(stats.isIntact());
+
+        // Шаг 2: Файл оборван посреди записи - ошибка чтения, а не тихая частичная загрузка
+        System.out.println("✅ Шаг 2: Оборванный большой снимок...");
+        Path export = exportSnapshot(10_000, UserId.generate(), LocalDateTime.now().plusDays(1));
+        byte[] bytes = Files.readAllBytes(export);
+        for (int cut : new int[]{bytes.length / 3, bytes.length - 5, 1}) {
+            Path truncated = tempDir.resolve("truncated_" + cut + ".json");
+            Files.write(truncated, Arrays.copyOf(bytes, cut));
+            assertThrows(IOException.class, () -> loader.load(truncated, url -> { }),
+                    "Оборванный снимок должен давать ошибку (обрыв на байте " + cut + ")");
+        }
+
+        // Шаг 3: Не JSON-объект и пустой файл
+        System.out.println("✅ Шаг 3: Не JSON-объект и пустой файл...");
+        Path array = tempDir.resolve("array.json");
+        Files.writeString(array, "[]", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> loader.load(array, url -> { }));
+        Path empty = tempDir.resolve("empty.json");
+        Files.writeString(empty, "", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> loader.load(empty, url -> { }));
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    private static String record(String originalUrl, String shortCode, String userId, String expiresAt) {
+        return "{\"originalUrl\":\"" + originalUrl + "\",\"shortCode\":\"" + shortCode
+                + "\",\"userId\":\"" + userId + "\",\"expiresAt\":\"" + expiresAt
+                + "\",\"maxClicks\":5,\"currentClicks\":0,\"active\":true}";
+    }
+}
@@ -0,0 +1,83 @@
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.CodeSequenceStore;
+import com.urlshortener.infrastructure.utils.LeasedCodeGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeasedCodeGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int CODES_PER_THREAD = 20_000;
+
+    @TempDir
+    Path tempDir;
+
+    // Все потоки создают коды одновременно; повторы считаются
+    private int generateConcurrently(LeasedCodeGenerator generator, Set<String> codes) throws InterruptedException {
+        Url url = new Url("https://example.com/bulk");
+        UserId userId = UserId.generate();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < CODES_PER_THREAD; j++) {
+                    if (!codes.add(generator.generate(url, userId, 7).value())) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return duplicates.get();
+    }
+
+    @Test
+    void threadsMintUniqueCodesFromLeasedBlocks() throws Exception {
+        System.out.println("🟡 ТЕСТ: Коды из арендованных блоков в нескольких потоках");
+        System.out.println("===========================================================");
+
+        Path sequenceFile = tempDir.resolve("code_sequence.properties");
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+
+        // Шаг 1: 8 потоков по 20 000 кодов
+        System.out.println("✅ Шаг 1: Параллельное создание кодов...");
+        CodeSequenceStore store = new CodeSequenceStore(sequenceFile);
+        LeasedCodeGenerator generator = new LeasedCodeGenerator(store, 500, 4);
+        assertEquals(0, generateConcurrently(generator, codes), "Коды не должны повторяться");
+        assertEquals(THREADS * CODES_PER_THREAD, codes.size());
+        assertTrue(store.getHighWaterMark() >= THREADS * CODES_PER_THREAD,
+                "Граница на диске должна быть не ниже числа выданных номеров");
+        generator.close();
+
+        // Шаг 2: После перезапуска номера из старых блоков не выдаются
+        System.out.println("✅ Шаг 2: Перезапуск и повторное создание...");
+        LeasedCodeGenerator restarted = new LeasedCodeGenerator(new CodeSequenceStore(sequenceFile), 500, 4);
+        assertEquals(0, generateConcurrently(restarted, codes), "После перезапуска коды не должны повторяться");
+        assertEquals(2 * THREADS * CODES_PER_THREAD, codes.size());
+        restarted.close();
+
+        System.out.println("🎉 Тест пройден: потоки создают коды без общих блокировок и повторов\n");
+    }
+}
@@ -0,0 +1,149 @@
+import com.urlshortener.core.domain.exceptions.UrlNotFoundException;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.UserRepository;
+import com.urlshortener.core.services.StatisticsServiceImpl;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.FilteredUrlRepository;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LookupFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    private FileUrlRepository createBackingRepository() {
+        ObjectMapper objectMapper = createObjectMapper();
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setWalEnabled(false);
+        return new FileUrlRepository(objectMapper, config);
+    }
+
+    private static ShortCode code(String prefix, int i) {
+        return new ShortCode(String.format("%s%05d", prefix, i));
+    }
+
+    @Test
+    void unknownCodesAreRejectedBeforeStorage() throws Exception {
+        System.out.println("🟡 ТЕСТ: Фильтр несуществующих кодов перед хранилищем");
+        System.out.println("==============================================================");
+
+        FileUrlRepository backing = createBackingRepository();
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 2000; i++) {
+            backing.save(ShortenedUrl.createWithCustomExpiration(new Url("https://known.com/" + i),
+                    code("KN", i), userId, expiresAt, 10, System.currentTimeMillis()));
+        }
+
+        // Шаг 1: Фильтр строится по существующим ссылкам, новые добавляются при сохранении
+        System.out.println("✅ Шаг 1: Сохранение ссылок через фильтр (с пересборкой при переполнении)...");
+        FilteredUrlRepository repository = new FilteredUrlRepository(backing);
+        for (int i = 0; i < 20000; i++) {
+            repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://new.com/" + i),
+                    code("NW", i), userId, expiresAt, 10, System.currentTimeMillis()));
+        }
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(repository.findByShortCode(code("KN", i)).isPresent(), "Фильтр не дает ложных отказов");
+        }
+        for (int i = 0; i < 20000; i++) {
+            assertTrue(repository.existsByShortCode(code("NW", i)), "Фильтр не дает ложных отказов");
+        }
+
+        // Шаг 2: Перебор случайных кодов почти целиком отсекается фильтром
+        System.out.println("✅ Шаг 2: Перебор 100000 несуществующих кодов...");
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(repository.findByShortCode(code("BT", i)).isEmpty());
+        }
+        System.out.println("   • Отсечено фильтром: " + repository.getRejectedLookups());
+        assertTrue(repository.getRejectedLookups() >= 99_000, "Почти все несуществующие коды отсекаются фильтром");
+        assertEquals(repository.getRejectedLookups(), new StatisticsServiceImpl(repository, mock(UserRepository.class),
+                Config.createDefault(), new SystemDateTimeProvider()).getGlobalStatistics().get("filterRejectedLookups"),
+                "Число отсеченных поисков видно в глобальной статистике");
+
+        // Шаг 3: Удаленная ссылка больше не проходит фильтр
+        System.out.println("✅ Шаг 3: Удаление и повторное сохранение...");
+        repository.delete(code("KN", 7));
+        assertTrue(repository.findByShortCode(code("KN", 7)).isEmpty());
+        repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://known.com/again"),
+                code("KN", 7), userId, expiresAt, 10, System.currentTimeMillis()));
+        assertTrue(repository.findByShortCode(code("KN", 7)).isPresent());
+
+        // Шаг 4: Очистка просроченных пересобирает фильтр
+        System.out.println("✅ Шаг 4: Очистка просроченных...");
+        repository.save(new ShortenedUrl(new Url("https://old.com"), new ShortCode("OLD001"), userId,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), 10, 0, true));
+        assertEquals(1, repository.deleteExpired(System.currentTimeMillis()));
+        assertFalse(repository.existsByShortCode(new ShortCode("OLD001")));
+        assertTrue(repository.existsByShortCode(code("NW", 19999)));
+
+        // Шаг 5: Импорт JSON через фильтр - новые коды сразу находятся
+        System.out.println("✅ Шаг 5: Импорт JSON и запись в обход фильтра...");
+        Config otherConfig = Config.createDefault();
+        otherConfig.setStorageFile(tempDir.resolve("other/links.json").toString());
+        otherConfig.setWalEnabled(false);
+        FileUrlRepository other = new FileUrlRepository(createObjectMapper(), otherConfig);
+        for (int i = 0; i < 100; i++) {
+            other.save(ShortenedUrl.createWithCustomExpiration(new Url("https://imported.com/" + i),
+                    code("IM", i), userId, expiresAt, 10, System.currentTimeMillis()));
+        }
+        Path export = tempDir.resolve("export.json");
+        other.exportJson(export);
+        other.close();
+        assertEquals(100, repository.importJson(export).loaded());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(repository.findByShortCode(code("IM", i)).isPresent(),
+                    "Импортированный код должен пройти фильтр");
+        }
+        backing.save(ShortenedUrl.createWithCustomExpiration(new Url("https://direct.com"),
+                new ShortCode("DIR001"), userId, expiresAt, 10, System.currentTimeMillis()));
+        repository.rebuild();
+        assertTrue(repository.findByShortCode(new ShortCode("DIR001")).isPresent());
+
+        repository.close();
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void notFoundIsStackless() {
+        System.out.println("🟡 ТЕСТ: Исключение 'не найдено' без стека вызовов");
+        System.out.println("==============================================================");
+
+        FilteredUrlRepository repository = new FilteredUrlRepository(createBackingRepository());
+        UrlShortenerServiceImpl service = new UrlShortenerServiceImpl(repository, new CodeGeneratorImpl(),
+                new UrlValidatorImpl(), new SystemDateTimeProvider(), 24, 100, 6, 365);
+
+        UrlNotFoundException exception = assertThrows(UrlNotFoundException.class,
+                () -> service.redirect(new ShortCode("NOPE01")));
+        assertEquals(0, exception.getStackTrace().length, "Стек вызовов не захватывается");
+        assertTrue(exception.getMessage().contains("NOPE01"));
+        assertEquals(1, repository.getRejectedLookups());
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
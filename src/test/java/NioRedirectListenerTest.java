@@ -0,0 +1,253 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.urlshortener.presentation.http.NioRedirectListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.core.ports.input.UrlShortenerUseCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NioRedirectListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileUrlRepository repository;
+    private UrlShortenerServiceImpl service;
+    private NioRedirectListener listener;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("nio_data.json").toString());
+        repository = new FileUrlRepository(objectMapper, config);
+        service = new UrlShortenerServiceImpl(repository, new CodeGeneratorImpl(), new UrlValidatorImpl(),
+                new SystemDateTimeProvider(), 24, 100, 6, 365);
+        listener = new NioRedirectListener(service, 0, 302, 2, 1000);
+        listener.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.close();
+        repository.close();
+    }
+
+    // Читает ровно count ответов без тела (у всех Content-Length: 0)
+    private String readResponses(InputStream in, int count) throws IOException {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        int seen = 0;
+        int state = 0;
+        while (seen < count) {
+            int b = in.read();
+            if (b < 0) {
+                break;
+            }
+            received.write(b);
+            state = (b == '\r' && (state == 0 || state == 2)) || (b == '\n' && (state == 1 || state == 3))
+                    ? state + 1 : (b == '\r' ? 1 : 0);
+            if (state == 4) {
+                seen++;
+                state = 0;
+            }
+        }
+        return received.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void answersPipelinedRequestsWithPreEncodedRedirects() throws Exception {
+        System.out.println("🟡 ТЕСТ: Конвейерные запросы к приемнику NIO");
+        System.out.println("=============================================");
+
+        UserId userId = UserId.generate();
+        ShortenedUrl url = service.shortenUrl(new Url("https://example.com/nio"), userId);
+        String code = url.getShortCode().value();
+
+        try (Socket socket = new Socket("localhost", listener.getPort())) {
+            // Шаг 1: Три запроса одним пакетом
+            System.out.println("✅ Шаг 1: Три запроса одним пакетом...");
+            String requests = "GET /" + code + " HTTP/1.1\r\nHost: x\r\n\r\n" +
+                    "GET /" + code + "?utm=1 HTTP/1.1\r\nHost: x\r\n\r\n" +
+                    "GET /NOPE42 HTTP/1.1\r\nHost: x\r\n\r\n";
+            socket.getOutputStream().write(requests.getBytes(StandardCharsets.US_ASCII));
+            String responses = readResponses(socket.getInputStream(), 3);
+
+            String[] parts = responses.split("\r\n\r\n");
+            assertEquals(3, parts.length, "На каждый запрос - свой ответ");
+            assertTrue(parts[0].startsWith("HTTP/1.1 302 Found"));
+            assertTrue(parts[0].contains("Location: https://example.com/nio"));
+            assertTrue(parts[0].contains("Cache-Control: no-store"));
+            assertEquals(parts[0], parts[1], "Ответ для ссылки кодируется один раз");
+            assertTrue(parts[2].startsWith("HTTP/1.1 404"));
+            assertEquals(2, url.getCurrentClicks(), "Каждый переход должен засчитываться");
+            assertEquals(1, listener.getCachedResponses());
+
+            // Шаг 2: После редактирования ответ кодируется заново
+            System.out.println("✅ Шаг 2: Редактирование ссылки...");
+            service.editUrl(url.getShortCode(), userId, new Url("https://example.com/edited"), null);
+            socket.getOutputStream().write(("GET /" + code + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            assertTrue(readResponses(socket.getInputStream(), 1).contains("Location: https://example.com/edited"),
+                    "Отредактированная ссылка должна вести на новый URL");
+
+            // Шаг 3: Неподдерживаемый метод не закрывает соединение
+            System.out.println("✅ Шаг 3: POST → 405...");
+            socket.getOutputStream().write(("POST /" + code + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            assertTrue(readResponses(socket.getInputStream(), 1).startsWith("HTTP/1.1 405"));
+        }
+
+        System.out.println("🎉 Тест пройден: конвейерные запросы получают готовые ответы\n");
+    }
+
+    private String exchange(NioRedirectListener target, String request) throws IOException {
+        try (Socket socket = new Socket("localhost", target.getPort())) {
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            return readResponses(socket.getInputStream(), 1);
+        }
+    }
+
+    @Test
+    void headRequestsDoNotSpendClicks() throws Exception {
+        System.out.println("🟡 ТЕСТ: HEAD-запросы к приемнику NIO");
+        System.out.println("=====================================");
+
+        ShortenedUrl url = service.shortenUrlWithClicks(new Url("https://example.com/head"), UserId.generate(), 1);
+        String code = url.getShortCode().value();
+
+        // Шаг 1: HEAD получает перенаправление, но переход не засчитывается
+        System.out.println("✅ Шаг 1: HEAD /{код}...");
+        for (int i = 0; i < 3; i++) {
+            String response = exchange(listener, "HEAD /" + code + " HTTP/1.1\r\n\r\n");
+            assertTrue(response.startsWith("HTTP/1.1 302"));
+            assertTrue(response.contains("Location: https://example.com/head"));
+        }
+        assertEquals(0, url.getCurrentClicks(), "HEAD не должен тратить лимит переходов");
+
+        // Шаг 2: Единственный переход - GET; после него и HEAD, и GET получают 404
+        System.out.println("✅ Шаг 2: Исчерпанная ссылка...");
+        assertTrue(exchange(listener, "GET /" + code + " HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 302"));
+        assertTrue(exchange(listener, "HEAD /" + code + " HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 404"));
+        assertTrue(exchange(listener, "GET /" + code + " HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 404"));
+
+        System.out.println("🎉 Тест пройден: предпросмотр ссылок не расходует переходы\n");
+    }
+
+    @Test
+    void preEncodedResponsesStayBoundedAndFresh() throws Exception {
+        System.out.println("🟡 ТЕСТ: Вытеснение готовых ответов");
+        System.out.println("===================================");
+
+        NioRedirectListener small = new NioRedirectListener(service, 0, 302, 1, 2);
+        small.start();
+        UserId userId = UserId.generate();
+        try {
+            // Шаг 1: Три ссылки при емкости 2 - давний ответ вытесняется, новые по-прежнему кэшируются
+            System.out.println("✅ Шаг 1: Емкость 2, три ссылки...");
+            String[] codes = new String[3];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = service.shortenUrl(new Url("https://example.com/lru" + i), userId).getShortCode().value();
+                assertTrue(exchange(small, "GET /" + codes[i] + " HTTP/1.1\r\n\r\n").contains("/lru" + i));
+            }
+            assertEquals(2, small.getCachedResponses());
+
+            // Шаг 2: Удаленная ссылка - 404, ее ответ выбрасывается
+            System.out.println("✅ Шаг 2: Удаление ссылки...");
+            service.deleteUrl(new ShortCode(codes[2]), userId);
+            assertTrue(exchange(small, "GET /" + codes[2] + " HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 404"));
+            assertEquals(1, small.getCachedResponses());
+            assertTrue(exchange(small, "GET /" + codes[0] + " HTTP/1.1\r\n\r\n").contains("/lru0"));
+            assertEquals(2, small.getCachedResponses());
+        } finally {
+            small.close();
+        }
+
+        System.out.println("🎉 Тест пройден: готовых ответов не больше заданного, устаревшие убираются\n");
+    }
+
+    @Test
+    void failingLookupAnswers500AndKeepsLoopAlive() throws Exception {
+        System.out.println("🟡 ТЕСТ: Сбой хранилища при переходе");
+        System.out.println("====================================");
+
+        UrlShortenerUseCase failing = mock(UrlShortenerUseCase.class);
+        when(failing.resolve(any())).thenThrow(new IllegalStateException("Ошибка чтения ссылок"));
+        NioRedirectListener broken = new NioRedirectListener(failing, 0, 302, 1, 10);
+        broken.start();
+        try {
+            // Шаг 1: Ошибка - ответ 500, соединение живо
+            System.out.println("✅ Шаг 1: Ответ 500...");
+            try (Socket socket = new Socket("localhost", broken.getPort())) {
+                for (int i = 0; i < 2; i++) {
+                    socket.getOutputStream().write("GET /ABC123 HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                    assertTrue(readResponses(socket.getInputStream(), 1).startsWith("HTTP/1.1 500"));
+                }
+            }
+
+            // Шаг 2: Единственный цикл событий продолжает принимать соединения
+            System.out.println("✅ Шаг 2: Новое соединение...");
+            assertTrue(exchange(broken, "POST /ABC123 HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 405"));
+        } finally {
+            broken.close();
+        }
+
+        System.out.println("🎉 Тест пройден: сбой одного запроса не останавливает приемник\n");
+    }
+
+    @Test
+    void closesHttp10AndMalformedConnections() throws Exception {
+        System.out.println("🟡 ТЕСТ: Закрытие соединений HTTP/1.0 и некорректных запросов");
+        System.out.println("===============================================================");
+
+        String code = service.shortenUrl(new Url("https://example.com/old"), UserId.generate())
+                .getShortCode().value();
+
+        // Шаг 1: HTTP/1.0 - ответ и закрытие
+        System.out.println("✅ Шаг 1: HTTP/1.0...");
+        try (Socket socket = new Socket("localhost", listener.getPort())) {
+            socket.getOutputStream().write(("GET /" + code + " HTTP/1.0\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            assertTrue(readResponses(socket.getInputStream(), 1).startsWith("HTTP/1.1 302"));
+            assertEquals(-1, socket.getInputStream().read(), "Соединение HTTP/1.0 должно закрываться");
+        }
+
+        // Шаг 2: Некорректная стартовая строка - 400 и закрытие
+        System.out.println("✅ Шаг 2: Некорректный запрос...");
+        try (Socket socket = new Socket("localhost", listener.getPort())) {
+            socket.getOutputStream().write("garbage\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            assertTrue(readResponses(socket.getInputStream(), 1).startsWith("HTTP/1.1 400"));
+            assertEquals(-1, socket.getInputStream().read());
+        }
+
+        // Шаг 3: Версия разбирается целиком, а не по одному символу
+        System.out.println("✅ Шаг 3: Версия протокола...");
+        assertTrue(exchange(listener, "GET /" + code + " HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 302"));
+        assertTrue(exchange(listener, "GET /" + code + " HTTP/2.0\r\n\r\n").startsWith("HTTP/1.1 505"));
+        assertTrue(exchange(listener, "GET /" + code + " HTTP/1.10\r\n\r\n").startsWith("HTTP/1.1 505"));
+        assertTrue(exchange(listener, "GET /" + code + " XTTP/1.0\r\n\r\n").startsWith("HTTP/1.1 400"));
+        assertTrue(exchange(listener, "GET /" + code + "\r\n\r\n").startsWith("HTTP/1.1 400"));
+
+        System.out.println("🎉 Тест пройден: соединения закрываются, когда это требуется\n");
+    }
+}
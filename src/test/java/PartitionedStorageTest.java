@@ -0,0 +1,137 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.PartitionedSnapshotStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config createConfig() {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setExpiryPartitionHours(1);
+        config.setWalFsyncPolicy("ALWAYS");
+        config.setWalSyncCommit(true);
+        return config;
+    }
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    private List<String> bucketsOnDisk() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("links.json.parts"))) {
+            // bucket-<номер>.g<поколение>.json -> номер сегмента
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("bucket-"))
+                    .map(name -> name.substring(0, name.indexOf(".g")))
+                    .distinct()
+                    .toList();
+        }
+    }
+
+    @Test
+    void expiredSegmentsAreDroppedWholesale() throws IOException {
+        System.out.println("🟡 ТЕСТ: Сегменты по времени истечения и удаление целиком");
+        System.out.println("==============================================================");
+
+        UserId userId = UserId.generate();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Шаг 1: Ссылки в двух сегментах - прошедшем и будущем
+        System.out.println("✅ Шаг 1: Заполнение хранилища...");
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        for (int i = 0; i < 20; i++) {
+            repository.save(new ShortenedUrl(new Url("https://old.com/" + i), new ShortCode(String.format("OLD%03d", i)),
+                    userId, now.minusDays(3), now.minusDays(2), 10, 0, true));
+            repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://new.com/" + i),
+                    new ShortCode(String.format("NEW%03d", i)), userId, now.plusDays(2), 10, System.currentTimeMillis()));
+        }
+        repository.close();
+        assertEquals(2, bucketsOnDisk().size(), "Каждый сегмент хранится в своем файле");
+
+        // Шаг 2: Очистка убирает истекший сегмент без перебора ссылок
+        System.out.println("✅ Шаг 2: Очистка просроченных...");
+        repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        assertEquals(40, repository.count());
+        assertEquals(20, repository.deleteExpired(System.currentTimeMillis()));
+        assertEquals(20, repository.count());
+        assertEquals(20, repository.findByUserId(userId).size());
+        assertTrue(repository.findByShortCode(new ShortCode("OLD000")).isEmpty());
+        repository.close();
+
+        // Шаг 3: Данные перечитываются; файл истекшего сегмента живет, пока на него
+        // ссылается предыдущее поколение манифеста, и удаляется со следующей контрольной точкой
+        System.out.println("✅ Шаг 3: Повторная загрузка...");
+        repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        assertEquals(20, repository.count());
+        assertTrue(repository.findByShortCode(new ShortCode("NEW000")).isPresent());
+        assertEquals(0, repository.deleteExpired(System.currentTimeMillis()));
+        repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://new.com/extra"),
+                new ShortCode("NEW999"), userId, now.plusDays(2), 10, System.currentTimeMillis()));
+        repository.close();
+        assertEquals(1, bucketsOnDisk().size(), "Файл истекшего сегмента должен быть удален");
+
+        repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        assertEquals(21, repository.count());
+        repository.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void linksWithoutExpiryLiveInNeverSegment() throws IOException {
+        System.out.println("🟡 ТЕСТ: Ссылки без срока в сегментированном снимке");
+        System.out.println("==============================================================");
+
+        UserId userId = UserId.generate();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Шаг 1: Ссылка без срока рядом с истекшей
+        System.out.println("✅ Шаг 1: Заполнение хранилища...");
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        repository.save(new ShortenedUrl(new Url("https://forever.com"), new ShortCode("NEVER1"),
+                userId, now.minusDays(3), null, 10, 0, true));
+        repository.save(new ShortenedUrl(new Url("https://old.com"), new ShortCode("OLD001"),
+                userId, now.minusDays(3), now.minusDays(2), 10, 0, true));
+        repository.close();
+        assertTrue(bucketsOnDisk().contains("bucket-" + PartitionedSnapshotStore.NEVER_BUCKET),
+                "Ссылки без срока хранятся в отдельном сегменте");
+
+        // Шаг 2: Очистка не трогает сегмент без срока
+        System.out.println("✅ Шаг 2: Очистка просроченных...");
+        repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        assertEquals(1, repository.deleteExpired(System.currentTimeMillis()));
+        repository.close();
+
+        repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        ShortenedUrl restored = repository.findByShortCode(new ShortCode("NEVER1")).orElseThrow();
+        assertNull(restored.getExpiresAt());
+        assertEquals(1, repository.count());
+        repository.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
@@ -0,0 +1,78 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.FilteredUrlRepository;
+import com.urlshortener.infrastructure.utils.AsciiCharSequence;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolveFastPathTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void resolveFindsTargetFromStringAndBytes() throws Exception {
+        System.out.println("🟡 ТЕСТ: Быстрый путь перехода resolve()");
+        System.out.println("==============================================================");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setStorageShards(4);
+        FileUrlRepository storage = new FileUrlRepository(objectMapper, config);
+        FilteredUrlRepository repository = new FilteredUrlRepository(storage);
+        UrlShortenerServiceImpl service = new UrlShortenerServiceImpl(repository, new CodeGeneratorImpl(),
+                new UrlValidatorImpl(), new SystemDateTimeProvider(), 24, 100, 6, 365);
+        UserId userId = UserId.generate();
+        repository.save(ShortenedUrl.createWithCustomExpiration(new Url("https://fast.com"),
+                new ShortCode("FAST01"), userId, LocalDateTime.now().plusHours(1), 3, System.currentTimeMillis()));
+        repository.save(new ShortenedUrl(new Url("https://old.com"), new ShortCode("OLD001"), userId,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusMinutes(1), 3, 0, true));
+
+        // Шаг 1: Проверка формата кода по таблице символов
+        System.out.println("✅ Шаг 1: Проверка формата кода...");
+        assertTrue(ShortCode.isValid("FAST01"));
+        assertFalse(ShortCode.isValid("AB"));
+        assertFalse(ShortCode.isValid("TOOLONGCODE1"));
+        assertFalse(ShortCode.isValid("bad-01"));
+        assertFalse(ShortCode.isValid("код123"));
+        assertNull(service.resolve("bad-01"));
+
+        // Шаг 2: Переход по строке и по байтам запроса засчитывается
+        System.out.println("✅ Шаг 2: Переходы по строке и по байтам...");
+        assertEquals("https://fast.com", service.resolve("FAST01").value());
+        byte[] request = "GET /FAST01 HTTP/1.1".getBytes(StandardCharsets.US_ASCII);
+        AsciiCharSequence code = new AsciiCharSequence().wrap(request, 5, 6);
+        assertEquals("https://fast.com", service.resolve(code).value());
+        assertEquals(2, repository.findByShortCode(new ShortCode("FAST01")).orElseThrow().getCurrentClicks());
+
+        // Шаг 3: Отказы без исключений - неизвестный код, истекший срок, исчерпанный лимит
+        System.out.println("✅ Шаг 3: Недоступные ссылки...");
+        assertNull(service.resolve("NOPE01"));
+        assertNull(service.resolve("OLD001"));
+        assertNotNull(service.resolve("FAST01"));
+        assertNull(service.resolve("FAST01"), "Лимит из трех переходов исчерпан");
+        assertThrows(IllegalStateException.class, () -> service.redirect(new ShortCode("FAST01")));
+
+        repository.close();
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
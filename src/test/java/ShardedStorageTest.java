@@ -0,0 +1,87 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config createConfig(int shards) {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setStorageShards(shards);
+        config.setWalFsyncPolicy("ALWAYS");
+        config.setWalSyncCommit(true);
+        return config;
+    }
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    @Test
+    void singleFileIsMigratedIntoShardsAndReloaded() {
+        System.out.println("🟡 ТЕСТ: Перенос хранилища в шарды и параллельная загрузка");
+        System.out.println("==============================================================");
+
+        // Шаг 1: Данные в одном файле
+        System.out.println("✅ Шаг 1: Заполнение хранилища из одного файла...");
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        FileUrlRepository single = new FileUrlRepository(createObjectMapper(), createConfig(1));
+        for (int i = 0; i < 100; i++) {
+            single.save(ShortenedUrl.createWithCustomExpiration(new Url("https://example.com/" + i),
+                    new ShortCode(String.format("SH%04d", i)), userId, expiresAt, 10, System.currentTimeMillis()));
+        }
+        single.close();
+
+        // Шаг 2: Запуск с четырьмя шардами переносит данные
+        System.out.println("✅ Шаг 2: Переход на 4 шарда...");
+        FileUrlRepository sharded = new FileUrlRepository(createObjectMapper(), createConfig(4));
+        assertEquals(4, sharded.getShardCount());
+        assertEquals(100, sharded.count(), "Все ссылки должны перенестись в шарды");
+        for (int shard = 0; shard < 4; shard++) {
+            assertTrue(Files.exists(tempDir.resolve("links.shard-" + shard + ".json")),
+                    "У каждого шарда должен быть свой снимок");
+        }
+
+        ShortenedUrl url = sharded.findByShortCode(new ShortCode("SH0042")).orElseThrow();
+        url.incrementClicks(System.currentTimeMillis());
+        sharded.updateClicks(url);
+        sharded.delete(new ShortCode("SH0007"));
+        sharded.close();
+
+        // Шаг 3: Повторная загрузка шардов
+        System.out.println("✅ Шаг 3: Повторная загрузка...");
+        FileUrlRepository reloaded = new FileUrlRepository(createObjectMapper(), createConfig(4));
+        assertEquals(99, reloaded.count());
+        assertEquals(99, reloaded.findByUserId(userId).size());
+        assertEquals(1, reloaded.findByShortCode(new ShortCode("SH0042")).orElseThrow().getCurrentClicks());
+        assertTrue(reloaded.findByShortCode(new ShortCode("SH0007")).isEmpty());
+        reloaded.close();
+
+        // Шаг 4: Уменьшение числа шардов запрещено
+        System.out.println("✅ Шаг 4: Проверка запрета на уменьшение числа шардов...");
+        assertThrows(IllegalStateException.class,
+                () -> new FileUrlRepository(createObjectMapper(), createConfig(2)));
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
@@ -0,0 +1,161 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.IdGenerator;
+import com.urlshortener.core.ports.output.UrlRepository;
+import com.urlshortener.core.ports.output.UserRepository;
+import com.urlshortener.core.services.ShortenAttemptStats;
+import com.urlshortener.core.services.StatisticsServiceImpl;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.FilteredUrlRepository;
+import com.urlshortener.infrastructure.persistence.JdbcUrlRepository;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ShortenRetryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config createConfig() {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("retry_data.json").toString());
+        config.setDatabaseFile(tempDir.resolve("retry_db").toString());
+        config.setWalEnabled(false);
+        return config;
+    }
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    // Одновременные вставки одного кода; возвращает число успешных
+    private int insertConcurrently(UrlRepository repository, String code) throws InterruptedException {
+        AtomicInteger inserted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ShortenedUrl url = ShortenedUrl.createWithCustomExpiration(new Url("https://race.com/" + i),
+                    new ShortCode(code), UserId.generate(), LocalDateTime.now().plusHours(1), 10, System.currentTimeMillis());
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (repository.insertIfAbsent(url)) {
+                    inserted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return inserted.get();
+    }
+
+    @Test
+    void onlyOneConcurrentInsertOfACodeWins() throws Exception {
+        System.out.println("🟡 ТЕСТ: Атомарная вставка кода в хранилища");
+        System.out.println("============================================");
+
+        Config config = createConfig();
+
+        // Шаг 1: Файловое хранилище за фильтром кодов
+        System.out.println("✅ Шаг 1: 8 потоков вставляют один код в файловое хранилище...");
+        FileUrlRepository fileRepository = new FileUrlRepository(createObjectMapper(), config);
+        FilteredUrlRepository filtered = new FilteredUrlRepository(fileRepository);
+        assertEquals(1, insertConcurrently(filtered, "RACE01"));
+        assertEquals(1, filtered.count());
+        assertTrue(filtered.existsByShortCode(new ShortCode("RACE01")), "Фильтр должен знать вставленный код");
+        filtered.close();
+
+        // Шаг 2: Встроенная база
+        System.out.println("✅ Шаг 2: 8 потоков вставляют один код в базу H2...");
+        JdbcUrlRepository jdbcRepository = new JdbcUrlRepository(createObjectMapper(), config);
+        assertEquals(1, insertConcurrently(jdbcRepository, "RACE02"));
+        assertEquals(1, jdbcRepository.findAll().stream()
+                .filter(url -> url.getShortCode().value().equals("RACE02")).count());
+        jdbcRepository.close();
+
+        System.out.println("🎉 Тест пройден: занятый код не перезаписывается\n");
+    }
+
+    @Test
+    void takenCodesAreRegeneratedWithinTheAttemptLimit() throws Exception {
+        System.out.println("🟡 ТЕСТ: Повтор генерации при занятом коде");
+        System.out.println("==========================================");
+
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), createConfig());
+        IdGenerator idGenerator = mock(IdGenerator.class);
+        UrlShortenerServiceImpl service = new UrlShortenerServiceImpl(repository, repository::updateClicks,
+                idGenerator, new UrlValidatorImpl(), new SystemDateTimeProvider(), 24, 100, 6, 365, 3);
+        UserId userId = UserId.generate();
+
+        // Шаг 1: Второй ссылке выпадает занятый код - берется следующий
+        System.out.println("✅ Шаг 1: Повтор после занятого кода...");
+        when(idGenerator.generate(any(), any(), anyInt(), anyLong())).thenReturn(
+                new ShortCode("AAA111"), new ShortCode("AAA111"), new ShortCode("BBB222"));
+        ShortenedUrl first = service.shortenUrl(new Url("https://first.com"), userId);
+        ShortenedUrl second = service.shortenUrl(new Url("https://second.com"), userId);
+        assertEquals("AAA111", first.getShortCode().value());
+        assertEquals("BBB222", second.getShortCode().value());
+
+        // Шаг 2: Свободного кода нет - ошибка, чужая ссылка не тронута
+        System.out.println("✅ Шаг 2: Все попытки заняты...");
+        reset(idGenerator);
+        when(idGenerator.generate(any(), any(), anyInt(), anyLong())).thenReturn(new ShortCode("AAA111"));
+        assertThrows(IllegalStateException.class,
+                () -> service.shortenUrl(new Url("https://third.com"), userId));
+        assertEquals("https://first.com", repository.findByShortCode(new ShortCode("AAA111"))
+                .orElseThrow().getOriginalUrl().value());
+        // Повторы идут сразу, каждый со своей солью
+        for (long salt = 0; salt < 3; salt++) {
+            verify(idGenerator).generate(any(), any(), anyInt(), eq(salt));
+        }
+
+        // Шаг 3: Счетчики попыток
+        System.out.println("✅ Шаг 3: Статистика попыток...");
+        ShortenAttemptStats stats = service.getAttemptStats();
+        assertEquals(2, stats.shortened());
+        assertEquals(4, stats.collisions());
+        assertEquals(1, stats.exhausted());
+        assertArrayEquals(new long[]{1, 1, 0}, stats.attemptCounts());
+        assertEquals(0.5, stats.retryRate(), 1e-9);
+
+        // Шаг 4: Те же счетчики видны в глобальной статистике
+        System.out.println("✅ Шаг 4: Счетчики в глобальной статистике...");
+        Map<String, Object> global = new StatisticsServiceImpl(repository, mock(UserRepository.class),
+                createConfig(), new SystemDateTimeProvider(), service::getAttemptStats).getGlobalStatistics();
+        assertEquals(4L, global.get("codeCollisions"));
+        assertEquals(1L, global.get("codeExhausted"));
+        assertEquals(0.5, (double) global.get("codeRetryRate"), 1e-9);
+        repository.close();
+
+        System.out.println("🎉 Тест пройден: повторы ограничены и видны в статистике\n");
+    }
+}
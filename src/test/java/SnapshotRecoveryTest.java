@@ -0,0 +1,81 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotRecoveryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config createConfig() {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setWalEnabled(true);
+        config.setWalFsyncPolicy("ALWAYS");
+        config.setWalSyncCommit(true);
+        return config;
+    }
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    @Test
+    void corruptedSnapshotFallsBackToPreviousGeneration() throws Exception {
+        System.out.println("🟡 ТЕСТ: Восстановление из предыдущего поколения снимка");
+        System.out.println("==============================================================");
+
+        Config config = createConfig();
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+
+        // Шаг 1: Два поколения снимка
+        System.out.println("✅ Шаг 1: Запись двух поколений снимка...");
+        FileUrlRepository first = new FileUrlRepository(createObjectMapper(), config);
+        first.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://first.example"), new ShortCode("GEN001"), userId, expiresAt, 5, System.currentTimeMillis()));
+        first.close();
+
+        FileUrlRepository second = new FileUrlRepository(createObjectMapper(), config);
+        second.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://second.example"), new ShortCode("GEN002"), userId, expiresAt, 5, System.currentTimeMillis()));
+        second.close();
+
+        Path snapshot = tempDir.resolve("links.json");
+        assertTrue(Files.exists(tempDir.resolve("links.json.prev")), "Должно остаться предыдущее поколение");
+        assertFalse(Files.exists(tempDir.resolve("links.json.tmp")), "Временный файл должен быть переименован");
+
+        // Шаг 2: Порча текущего снимка (JSON остается корректным, но данные не сходятся с контрольной суммой)
+        System.out.println("✅ Шаг 2: Порча текущего снимка...");
+        String content = Files.readString(snapshot, StandardCharsets.UTF_8);
+        Files.writeString(snapshot, content.replace("https://second.example", "https://forged.example"),
+                StandardCharsets.UTF_8);
+
+        // Шаг 3: Загрузка предыдущего поколения и дочитывание журнала
+        System.out.println("✅ Шаг 3: Повторное открытие...");
+        FileUrlRepository restored = new FileUrlRepository(createObjectMapper(), config);
+        assertEquals(2, restored.count(), "Ссылки из журнала должны дополнить предыдущий снимок");
+        assertEquals("https://second.example",
+                restored.findByShortCode(new ShortCode("GEN002")).orElseThrow().getOriginalUrl().value());
+        restored.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
@@ -0,0 +1,110 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.ports.output.UserRepository;
+import com.urlshortener.core.services.StatisticsServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.FilteredUrlRepository;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SnapshotThreadTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config createConfig() {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("links.json").toString());
+        config.setWalEnabled(false);
+        config.setSnapshotIntervalSeconds(1);
+        return config;
+    }
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, long timeoutMillis, String message) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(20);
+        }
+    }
+
+    private ShortenedUrl link(int i, UserId userId) {
+        return ShortenedUrl.createWithCustomExpiration(new Url("https://snap.com/" + i),
+                new ShortCode(String.format("SNAP%02d", i)), userId, LocalDateTime.now().plusHours(1), 10, System.currentTimeMillis());
+    }
+
+    @Test
+    void snapshotsAreWrittenInBackgroundAndOnClose() throws Exception {
+        System.out.println("🟡 ТЕСТ: Снимки в фоновом потоке");
+        System.out.println("==============================================================");
+
+        Config config = createConfig();
+        Path snapshot = tempDir.resolve("links.json");
+        UserId userId = UserId.generate();
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+
+        // Шаг 1: Сохранение не пишет снимок - изменения копятся как отставание
+        System.out.println("✅ Шаг 1: Изменения до снимка...");
+        for (int i = 0; i < 3; i++) {
+            repository.save(link(i, userId));
+        }
+        assertEquals(3, repository.getSnapshotLag());
+        assertFalse(Files.exists(snapshot), "Запрос не должен ждать записи снимка");
+
+        // Шаг 2: Поток снимков пишет изменения в пределах интервала
+        System.out.println("✅ Шаг 2: Снимок по расписанию...");
+        awaitTrue(() -> repository.getSnapshotLag() == 0, 5000, "Снимок должен записаться за интервал");
+        assertTrue(Files.exists(snapshot));
+        assertTrue(repository.getLastSnapshotAge().toMillis() < 2000);
+
+        // Шаг 3: Без изменений снимок не переписывается, а его возраст растет
+        System.out.println("✅ Шаг 3: Без изменений снимок не переписывается...");
+        FileTime written = Files.getLastModifiedTime(snapshot);
+        Thread.sleep(2200);
+        assertEquals(written, Files.getLastModifiedTime(snapshot));
+        assertTrue(repository.getLastSnapshotAge().toSeconds() >= 2);
+
+        // Шаг 4: Возраст и отставание снимка видны в глобальной статистике (и через фильтр кодов)
+        System.out.println("✅ Шаг 4: Показатели снимка в статистике...");
+        FilteredUrlRepository filtered = new FilteredUrlRepository(repository);
+        Map<String, Object> stats = new StatisticsServiceImpl(filtered, mock(UserRepository.class), config,
+                new SystemDateTimeProvider()).getGlobalStatistics();
+        assertEquals(0L, stats.get("snapshotLag"));
+        assertTrue((long) stats.get("snapshotAgeSeconds") >= 2);
+
+        // Шаг 5: Закрытие до очередного снимка записывает все изменения
+        System.out.println("✅ Шаг 5: Последний снимок при закрытии...");
+        repository.save(link(3, userId));
+        repository.save(link(4, userId));
+        filtered.close();
+        assertEquals(0, repository.getSnapshotLag());
+        FileUrlRepository reopened = new FileUrlRepository(createObjectMapper(), config);
+        assertEquals(5, reopened.count());
+        reopened.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}
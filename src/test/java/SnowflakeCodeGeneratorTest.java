@@ -0,0 +1,116 @@
+import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.utils.SnowflakeCodeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeCodeGeneratorTest {
+
+    private static final long START = Instant.parse("2026-06-01T12:00:00Z").toEpochMilli();
+
+    private final Url url = new Url("https://example.com/multi");
+    private final UserId userId = UserId.generate();
+
+    @Test
+    void nodesMintDisjointCodesWithoutCoordination() {
+        System.out.println("🟡 ТЕСТ: Коды нескольких экземпляров не пересекаются");
+        System.out.println("=====================================================");
+
+        AtomicLong clock = new AtomicLong(START);
+        SnowflakeCodeGenerator first = new SnowflakeCodeGenerator(1, 4, 8, clock::get);
+        SnowflakeCodeGenerator second = new SnowflakeCodeGenerator(2, 4, 8, clock::get);
+        // Секунда запуска пропускается
+        clock.addAndGet(1000);
+
+        // Шаг 1: Оба узла выдают всю последовательность одной секунды
+        System.out.println("✅ Шаг 1: По 256 кодов на узел в одну секунду...");
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 256; i++) {
+            assertTrue(codes.add(first.generate(url, userId, 7).value()), "Узел 1 повторил код");
+            assertTrue(codes.add(second.generate(url, userId, 7).value()), "Коды узлов пересеклись");
+        }
+
+        // Шаг 2: Перезапуск узла - новые коды со следующей секунды
+        System.out.println("✅ Шаг 2: Перезапуск узла...");
+        SnowflakeCodeGenerator restarted = new SnowflakeCodeGenerator(1, 4, 8, clock::get);
+        clock.addAndGet(1000);
+        for (int i = 0; i < 256; i++) {
+            assertTrue(codes.add(restarted.generate(url, userId, 7).value()),
+                    "Перезапущенный узел не должен повторять коды");
+        }
+        assertEquals(768, codes.size());
+
+        System.out.println("🎉 Тест пройден: узлам не нужно согласовывать выдачу кодов\n");
+    }
+
+    @Test
+    void codeLengthBoundsTheUsableTime() {
+        System.out.println("🟡 ТЕСТ: Длина кода ограничивает время выдачи");
+        System.out.println("==============================================");
+
+        // Шаг 1: Разбиение бит по длине кода
+        System.out.println("✅ Шаг 1: Бит под время...");
+        SnowflakeCodeGenerator generator = new SnowflakeCodeGenerator(0, 4, 8);
+        assertEquals(23, generator.timeBits(6));
+        assertEquals(29, generator.timeBits(7));
+        assertEquals(35, generator.timeBits(8));
+
+        // Шаг 2: Через 100 дней коды длины 6 кончаются, длины 7 - еще выдаются
+        System.out.println("✅ Шаг 2: Исчерпание времени для коротких кодов...");
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli()
+                + TimeUnit.DAYS.toMillis(100));
+        SnowflakeCodeGenerator late = new SnowflakeCodeGenerator(0, 4, 8, clock::get);
+        clock.addAndGet(1000);
+        assertThrows(IllegalStateException.class, () -> late.generate(url, userId, 6));
+        assertEquals(7, late.generate(url, userId, 7).value().length());
+
+        // Шаг 3: Номер узла вне своего поля
+        System.out.println("✅ Шаг 3: Проверка номера узла...");
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeCodeGenerator(16, 4, 8));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeCodeGenerator(-1, 4, 8));
+
+        System.out.println("🎉 Тест пройден: генератор не выдает коды сверх своего пространства\n");
+    }
+
+    @Test
+    void configuredLengthMustCoverTheRequiredLifetime() {
+        System.out.println("🟡 ТЕСТ: Длина кода покрывает требуемый срок");
+        System.out.println("=============================================");
+
+        Config config = Config.createDefault();
+        Duration lifetime = Duration.ofDays(365L * config.getCodeLifetimeYears());
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-10-17T00:00:00Z").toEpochMilli());
+        SnowflakeCodeGenerator generator = new SnowflakeCodeGenerator(config.getCodeNodeId(),
+                config.getCodeNodeBits(), config.getCodeSequenceBits(), clock::get);
+
+        // Шаг 1: Длина по умолчанию уже исчерпана - запуск отклоняется
+        System.out.println("✅ Шаг 1: Проверка длины при запуске...");
+        int minLength = generator.minLength(lifetime);
+        assertEquals(7, minLength);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> generator.requireLifetime(config.getShortCodeLength(), lifetime));
+        assertTrue(error.getMessage().contains("не меньше 7"), error.getMessage());
+        assertSame(generator, generator.requireLifetime(minLength, lifetime));
+
+        // Шаг 2: Принятая длина действительно выдает коды до конца срока
+        System.out.println("✅ Шаг 2: Коды в последний день срока...");
+        assertTrue(generator.exhaustedAt(minLength).isAfter(Instant.ofEpochMilli(clock.get()).plus(lifetime)));
+        clock.addAndGet(lifetime.toMillis());
+        assertEquals(minLength, generator.generate(url, userId, minLength).value().length());
+
+        // Шаг 3: Для более долгого срока нужны более длинные коды
+        System.out.println("✅ Шаг 3: Срок в 50 лет...");
+        assertEquals(8, generator.minLength(Duration.ofDays(365L * 50)));
+
+        System.out.println("🎉 Тест пройден: исчерпанная длина отклоняется до выдачи первого кода\n");
+    }
+}
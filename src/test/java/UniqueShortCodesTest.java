@@ -45,6 +45,7 @@ class UniqueShortCodesTest {
         when(dateTimeProvider.plusDays(anyLong())).thenReturn(now.plusDays(365));
 
         // Устанавливаем разные коды для разных пользователей
+        doCallRealMethod().when(idGenerator).generate(any(), any(), anyInt(), anyLong());
         when(idGenerator.generate(eq(testUrl), eq(user1), anyInt()))
                 .thenReturn(new com.urlshortener.core.domain.valueobjects.ShortCode("ABC123"));
         when(idGenerator.generate(eq(testUrl), eq(user2), anyInt()))
@@ -52,6 +53,7 @@ class UniqueShortCodesTest {
 
         // Настраиваем репозиторий
         when(urlRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(urlRepository.insertIfAbsent(any())).thenReturn(true);
         when(urlRepository.findByUserId(any())).thenReturn(new ArrayList<>());
 
         // Шаг 4: Создание сервиса
@@ -38,6 +38,7 @@ class UserNotificationTest {
         // Шаг 1: Подготовка инфраструктуры
         System.out.println("✅ Шаг 1: Подготовка инфраструктуры и моков...");
         UrlRepository urlRepository = mock(UrlRepository.class);
+        doCallRealMethod().when(urlRepository).claimClick(any(), anyLong());
         IdGenerator idGenerator = mock(IdGenerator.class);
         UrlValidator urlValidator = mock(UrlValidator.class);
         DateTimeProvider dateTimeProvider = mock(DateTimeProvider.class);
@@ -46,6 +47,7 @@ class UserNotificationTest {
         System.out.println("   • Текущее время: " + now);
 
         when(dateTimeProvider.now()).thenReturn(now);
+        doCallRealMethod().when(dateTimeProvider).currentTimeMillis();
         when(dateTimeProvider.plusHours(anyLong())).thenReturn(now.plusHours(24));
         when(dateTimeProvider.plusDays(anyLong())).thenReturn(now.plusDays(365));
 
@@ -72,7 +74,7 @@ class UserNotificationTest {
         System.out.println("   • Параметры ссылки:");
         System.out.println("     - Макс. переходов: " + clicksExhausted.getMaxClicks());
         System.out.println("     - Текущих переходов: " + clicksExhausted.getCurrentClicks());
-        System.out.println("     - Активна: " + clicksExhausted.canBeAccessed());
+        System.out.println("     - Активна: " + clicksExhausted.canBeAccessedAt(System.currentTimeMillis()));
 
         when(urlRepository.findByShortCode(testCode))
                 .thenReturn(Optional.of(clicksExhausted));
@@ -115,8 +117,8 @@ class UserNotificationTest {
 
         System.out.println("   • Параметры ссылки:");
         System.out.println("     - Истекла: " + expiredUrl.getExpiresAt());
-        System.out.println("     - Активна: " + expiredUrl.canBeAccessed());
-        System.out.println("     - isExpired(): " + expiredUrl.isExpired());
+        System.out.println("     - Активна: " + expiredUrl.canBeAccessedAt(System.currentTimeMillis()));
+        System.out.println("     - isExpired(): " + expiredUrl.isExpiredAt(System.currentTimeMillis()));
 
         when(urlRepository.findByShortCode(expiredCode))
                 .thenReturn(Optional.of(expiredUrl));
@@ -159,7 +161,7 @@ class UserNotificationTest {
 
         System.out.println("   • Параметры ссылки:");
         System.out.println("     - Истекает: " + blockedUrl.getExpiresAt());
-        System.out.println("     - Активна (флаг): " + blockedUrl.canBeAccessed());
+        System.out.println("     - Активна (флаг): " + blockedUrl.canBeAccessedAt(System.currentTimeMillis()));
         System.out.println("     - Блокировка: явная (active=false)");
 
         when(urlRepository.findByShortCode(blockedCode))
@@ -0,0 +1,160 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.exceptions.AliasTakenException;
+import com.urlshortener.core.domain.exceptions.ValidationException;
+import com.urlshortener.core.domain.models.Config;
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.AliasGrammar;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.core.services.UrlShortenerServiceImpl;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.TrieAliasIndex;
+import com.urlshortener.infrastructure.utils.CodeGeneratorImpl;
+import com.urlshortener.infrastructure.utils.SystemDateTimeProvider;
+import com.urlshortener.infrastructure.utils.UrlValidatorImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VanityAliasTest {
+
+    private static final AliasGrammar GRAMMAR = new AliasGrammar(3, 32, "-_");
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void resetGrammar() {
+        ShortCode.useAliasGrammar(AliasGrammar.NONE);
+    }
+
+    @Test
+    void aliasGrammarExtendsGeneratedCodes() {
+        System.out.println("🟡 ТЕСТ: Грамматика псевдонимов");
+        System.out.println("================================");
+
+        // Шаг 1: Без грамматики допустимы только сгенерированные коды
+        System.out.println("✅ Шаг 1: Псевдонимы отключены...");
+        assertTrue(ShortCode.isValid("ABC123"));
+        assertFalse(ShortCode.isValid("summer-sale"));
+
+        // Шаг 2: С грамматикой - буквы, цифры и разделители внутри
+        System.out.println("✅ Шаг 2: Псевдонимы включены...");
+        ShortCode.useAliasGrammar(GRAMMAR);
+        assertTrue(ShortCode.isValid("ABC123"));
+        assertTrue(ShortCode.isValid("summer-sale"));
+        assertTrue(ShortCode.isValid("black_friday-2026"));
+        assertFalse(ShortCode.isValid("-sale"), "Разделитель в начале");
+        assertFalse(ShortCode.isValid("sale-"), "Разделитель в конце");
+        assertFalse(ShortCode.isValid("summer--sale"), "Два разделителя подряд");
+        assertFalse(ShortCode.isValid("summer.sale"), "Разделитель не из набора");
+        assertFalse(ShortCode.isValid("летняя-скидка"));
+        assertFalse(ShortCode.isValid("a".repeat(33)));
+        assertThrows(IllegalArgumentException.class, () -> new ShortCode("bad/alias"));
+
+        // Шаг 3: Разделители - только символы, безопасные в пути URL
+        System.out.println("✅ Шаг 3: Недопустимые разделители...");
+        assertThrows(IllegalArgumentException.class, () -> new AliasGrammar(3, 32, "/"));
+
+        System.out.println("🎉 Тест пройден: сгенерированные коды проверяются как раньше\n");
+    }
+
+    @Test
+    void trieTracksTakenAndReservedAliases() {
+        System.out.println("🟡 ТЕСТ: Префиксное дерево псевдонимов");
+        System.out.println("======================================");
+
+        TrieAliasIndex index = new TrieAliasIndex(GRAMMAR, List.of("admin", "API"), List.of("summer-sale"));
+
+        // Шаг 1: Занятые - точное совпадение, зарезервированные - без учета регистра
+        System.out.println("✅ Шаг 1: Проверка занятости...");
+        assertTrue(index.isTaken("summer-sale"));
+        assertFalse(index.isTaken("summer"), "Префикс занятого псевдонима свободен");
+        assertFalse(index.isTaken("summer-sale-2"));
+        assertTrue(index.isReserved("Admin"));
+        assertTrue(index.isReserved("api"));
+        assertFalse(index.isReserved("admins"));
+
+        // Шаг 2: Варианты пропускают занятые номера
+        System.out.println("✅ Шаг 2: Свободные варианты...");
+        index.add("summer-sale-2");
+        assertEquals(List.of("summer-sale-3", "summer-sale-4"), index.suggest("summer-sale", 2));
+
+        // Шаг 3: Длинный псевдоним укорачивается, чтобы вариант влез в грамматику
+        System.out.println("✅ Шаг 3: Варианты длинного псевдонима...");
+        String longAlias = "a".repeat(31) + "b";
+        for (String suggestion : index.suggest(longAlias, 3)) {
+            assertTrue(GRAMMAR.matches(suggestion), "Вариант вне грамматики: " + suggestion);
+        }
+
+        // Шаг 4: Освобождение убирает пустые узлы
+        System.out.println("✅ Шаг 4: Освобождение псевдонимов...");
+        index.remove("summer-sale");
+        index.remove("summer-sale-2");
+        assertFalse(index.isTaken("summer-sale"));
+        assertEquals(0, index.size());
+
+        System.out.println("🎉 Тест пройден: проверка занимает один проход по символам\n");
+    }
+
+    @Test
+    void usersClaimAliasesThroughTheService() {
+        System.out.println("🟡 ТЕСТ: Создание ссылок с псевдонимами");
+        System.out.println("=======================================");
+
+        ShortCode.useAliasGrammar(GRAMMAR);
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("aliases.json").toString());
+        config.setWalEnabled(false);
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        FileUrlRepository repository = new FileUrlRepository(objectMapper, config);
+        TrieAliasIndex index = new TrieAliasIndex(GRAMMAR, config.getAliasReservedWords(), List.of());
+        UrlShortenerServiceImpl service = new UrlShortenerServiceImpl(repository, repository::updateClicks,
+                new CodeGeneratorImpl(), new UrlValidatorImpl(), new SystemDateTimeProvider(),
+                24, 100, 6, 365, 5, index);
+        UserId owner = UserId.generate();
+        UserId other = UserId.generate();
+
+        // Шаг 1: Свободный псевдоним
+        System.out.println("✅ Шаг 1: Создание ссылки с псевдонимом...");
+        assertTrue(service.isAliasAvailable("summer-sale"));
+        ShortenedUrl url = service.shortenUrlWithAlias(new Url("https://shop.com/sale"), owner, "summer-sale");
+        assertEquals("summer-sale", url.getShortCode().value());
+        assertEquals("https://shop.com/sale", service.resolve("summer-sale").value());
+
+        // Шаг 2: Занятый псевдоним - ошибка со свободными вариантами
+        System.out.println("✅ Шаг 2: Повторный псевдоним...");
+        assertFalse(service.isAliasAvailable("summer-sale"));
+        AliasTakenException taken = assertThrows(AliasTakenException.class,
+                () -> service.shortenUrlWithAlias(new Url("https://other.com"), other, "summer-sale"));
+        assertEquals(List.of("summer-sale-2", "summer-sale-3", "summer-sale-4"), taken.getSuggestions());
+
+        // Шаг 3: Зарезервированные слова и недопустимые псевдонимы
+        System.out.println("✅ Шаг 3: Зарезервированные слова...");
+        assertThrows(ValidationException.class,
+                () -> service.shortenUrlWithAlias(new Url("https://other.com"), other, "Admin"));
+        assertThrows(ValidationException.class,
+                () -> service.shortenUrlWithAlias(new Url("https://other.com"), other, "bad--alias"));
+
+        // Шаг 4: Псевдоним в формате сгенерированного кода сверяется с хранилищем
+        System.out.println("✅ Шаг 4: Псевдоним, совпадающий с кодом...");
+        ShortenedUrl generated = service.shortenUrl(new Url("https://generated.com"), owner);
+        assertFalse(service.isAliasAvailable(generated.getShortCode().value()));
+
+        // Шаг 5: Удаление освобождает псевдоним
+        System.out.println("✅ Шаг 5: Удаление ссылки...");
+        service.deleteUrl(new ShortCode("summer-sale"), owner);
+        assertTrue(service.isAliasAvailable("summer-sale"));
+        repository.close();
+
+        System.out.println("🎉 Тест пройден: псевдонимы не пересекаются с чужими ссылками\n");
+    }
+}
@@ -0,0 +1,229 @@
+import com.urlshortener.core.domain.models.ShortenedUrl;
+import com.urlshortener.core.domain.valueobjects.ShortCode;
+import com.urlshortener.core.domain.valueobjects.Url;
+import com.urlshortener.core.domain.valueobjects.UserId;
+import com.urlshortener.infrastructure.persistence.FileUrlRepository;
+import com.urlshortener.infrastructure.persistence.FsyncPolicy;
+import com.urlshortener.infrastructure.persistence.WriteAheadLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urlshortener.core.domain.models.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalRecoveryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Config createConfig() {
+        Config config = Config.createDefault();
+        config.setStorageFile(tempDir.resolve("wal_data.json").toString());
+        config.setWalEnabled(true);
+        config.setWalCheckpointRecords(1000);
+        config.setWalFsyncPolicy("ALWAYS");
+        config.setWalSyncCommit(true);
+        return config;
+    }
+
+    private ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    @Test
+    void changesAreRestoredFromLogWithoutCheckpoint() {
+        System.out.println("🟡 ТЕСТ: Восстановление ссылок из журнала после перезапуска");
+        System.out.println("==============================================================");
+
+        // Шаг 1: Запись изменений без контрольной точки (эмуляция сбоя - close() не вызывается)
+        System.out.println("✅ Шаг 1: Запись изменений в журнал...");
+        Config config = createConfig();
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+
+        UserId userId = UserId.generate();
+        LocalDateTime now = LocalDateTime.now();
+        ShortenedUrl kept = ShortenedUrl.createWithCustomExpiration(
+                new Url("https://kept.com"), new ShortCode("KEPT01"), userId, now.plusHours(2), 10, System.currentTimeMillis());
+        ShortenedUrl removed = ShortenedUrl.createWithCustomExpiration(
+                new Url("https://removed.com"), new ShortCode("GONE01"), userId, now.plusHours(2), 10, System.currentTimeMillis());
+
+        repository.save(kept);
+        repository.save(removed);
+        kept.incrementClicks(System.currentTimeMillis());
+        repository.updateClicks(kept);
+        kept.incrementClicks(System.currentTimeMillis());
+        repository.updateClicks(kept);
+        repository.delete(new ShortCode("GONE01"));
+        assertFalse(tempDir.resolve("wal_data.json").toFile().exists(),
+                "Снимок не должен перезаписываться на каждое изменение");
+
+        // Шаг 2: Повторное открытие репозитория
+        System.out.println("✅ Шаг 2: Повторное открытие репозитория...");
+        FileUrlRepository restored = new FileUrlRepository(createObjectMapper(), config);
+
+        assertEquals(1, restored.count(), "Должна восстановиться одна ссылка");
+        ShortenedUrl restoredUrl = restored.findByShortCode(new ShortCode("KEPT01")).orElseThrow();
+        assertEquals(2, restoredUrl.getCurrentClicks(), "Счетчик переходов должен восстановиться");
+        assertTrue(restored.findByShortCode(new ShortCode("GONE01")).isEmpty(),
+                "Удаленная ссылка не должна восстанавливаться");
+        assertEquals(1, restored.findByUserId(userId).size());
+
+        // Шаг 3: Контрольная точка при закрытии
+        System.out.println("✅ Шаг 3: Контрольная точка и повторная загрузка из снимка...");
+        restored.close();
+        assertTrue(tempDir.resolve("wal_data.json").toFile().exists(), "Снимок должен быть записан");
+
+        FileUrlRepository fromSnapshot = new FileUrlRepository(createObjectMapper(), config);
+        assertEquals(1, fromSnapshot.count());
+        fromSnapshot.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    // Источник записей журнала поверх общей очереди, как у шарда хранилища
+    private static class QueueSource implements WriteAheadLog.RecordSource {
+        private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public List<String> drain() {
+            List<String> batch = new ArrayList<>();
+            String record;
+            while ((record = queue.poll()) != null) {
+                batch.add(record);
+            }
+            return batch;
+        }
+
+        @Override
+        public int pendingCount() {
+            return queue.size();
+        }
+    }
+
+    @Test
+    void concurrentAppendsAreDurableUnderGroupCommit() throws Exception {
+        System.out.println("🟡 ТЕСТ: Параллельная запись в журнал с групповым fsync");
+        System.out.println("==============================================================");
+
+        Path storageFile = tempDir.resolve("group.json");
+        QueueSource source = new QueueSource();
+        AtomicInteger batches = new AtomicInteger();
+        WriteAheadLog wal = new WriteAheadLog(storageFile, FsyncPolicy.ALWAYS, 10, 100);
+        wal.open(source, batches::incrementAndGet);
+
+        // Шаг 1: 8 потоков по 500 записей, каждый ждет подтверждения своей записи
+        System.out.println("✅ Шаг 1: 4000 параллельных записей...");
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    source.queue.add("{\"n\":\"" + thread + "-" + i + "\"}");
+                    CompletableFuture<Void> commit = wal.requestCommit();
+                    if (i % 50 == 0) {
+                        commit.get(10, TimeUnit.SECONDS);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        wal.flush();
+        System.out.println("   • Пачек записано: " + batches.get());
+        assertTrue(batches.get() < threads * perThread, "Параллельные записи должны объединяться в пачки");
+
+        // Шаг 2: После flush все записи читаются новым экземпляром журнала (без close - как при сбое)
+        System.out.println("✅ Шаг 2: Чтение журнала после сброса...");
+        Set<String> replayed = new HashSet<>();
+        List<String> duplicates = new ArrayList<>();
+        new WriteAheadLog(storageFile, FsyncPolicy.ALWAYS, 10, 100).replay(0, line -> {
+            if (!replayed.add(line)) {
+                duplicates.add(line);
+            }
+        });
+        assertEquals(threads * perThread, replayed.size(), "Ни одна подтвержденная запись не должна потеряться");
+        assertTrue(duplicates.isEmpty(), "Записи не должны дублироваться");
+        wal.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+
+    @Test
+    void replaySkipsRecordCutByCrash() throws Exception {
+        System.out.println("🟡 ТЕСТ: Восстановление после сбоя посреди записи журнала");
+        System.out.println("==============================================================");
+
+        // Шаг 1: Три ссылки в журнале, последняя запись оборвана на середине
+        System.out.println("✅ Шаг 1: Обрыв последней записи журнала...");
+        Config config = createConfig();
+        FileUrlRepository repository = new FileUrlRepository(createObjectMapper(), config);
+        UserId userId = UserId.generate();
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(2);
+        for (int i = 1; i <= 3; i++) {
+            repository.save(ShortenedUrl.createWithCustomExpiration(
+                    new Url("https://cut.com/" + i), new ShortCode("CUT00" + i), userId, expiresAt, 10, System.currentTimeMillis()));
+        }
+        Path segment = tempDir.resolve("wal_data.json.wal.000001");
+        String content = Files.readString(segment, StandardCharsets.UTF_8);
+        int lastRecordStart = content.lastIndexOf('\n', content.length() - 2) + 1;
+        long cutAt = content.substring(0, lastRecordStart + (content.length() - lastRecordStart) / 2)
+                .getBytes(StandardCharsets.UTF_8).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(cutAt);
+        }
+
+        // Шаг 2: Целые записи применяются, оборванная пропускается
+        System.out.println("✅ Шаг 2: Повторное открытие...");
+        FileUrlRepository restored = new FileUrlRepository(createObjectMapper(), config);
+        assertEquals(2, restored.count());
+        assertTrue(restored.findByShortCode(new ShortCode("CUT003")).isEmpty());
+
+        // Шаг 3: Записи после восстановления не склеиваются с обрывком
+        System.out.println("✅ Шаг 3: Запись после восстановления и еще один сбой...");
+        restored.save(ShortenedUrl.createWithCustomExpiration(
+                new Url("https://cut.com/4"), new ShortCode("CUT004"), userId, expiresAt, 10, System.currentTimeMillis()));
+        FileUrlRepository again = new FileUrlRepository(createObjectMapper(), config);
+        assertEquals(3, again.count());
+        assertTrue(again.findByShortCode(new ShortCode("CUT004")).isPresent(),
+                "Запись после обрыва должна восстановиться");
+        again.close();
+
+        System.out.println("✅ Тест пройден успешно!");
+        System.out.println("==============================================================\n");
+    }
+}